@@ -0,0 +1,72 @@
+package io.github.charlie237.taiyi.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 模拟节点集群的客户端统计，所有节点共享
+ */
+final class FleetStats {
+
+    /**
+     * 节点上报的消息类型；status_update服务端不回复，只统计发送量
+     */
+    enum MessageKind {
+        HEARTBEAT("heartbeat", "heartbeat"),
+        STATUS_UPDATE("status_update", null),
+        HARDWARE_STATUS("hardware_status", "hardware_status_ack");
+
+        final String type;
+        final String ackType;
+
+        MessageKind(String type, String ackType) {
+            this.type = type;
+            this.ackType = ackType;
+        }
+
+        static MessageKind ofAck(String ackType) {
+            for (MessageKind kind : values()) {
+                if (ackType.equals(kind.ackType)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 单个消息类型的发送、确认和延迟统计
+     */
+    static final class Messages {
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong acked = new AtomicLong();
+        final AtomicLong lost = new AtomicLong();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    final AtomicLong connected = new AtomicLong();
+    final AtomicLong connectFailures = new AtomicLong();
+    final AtomicLong dropped = new AtomicLong();
+    final AtomicLong sendFailures = new AtomicLong();
+    final AtomicLong serverErrors = new AtomicLong();
+
+    private final Map<MessageKind, Messages> messages = new EnumMap<>(MessageKind.class);
+
+    FleetStats() {
+        for (MessageKind kind : MessageKind.values()) {
+            messages.put(kind, new Messages());
+        }
+    }
+
+    Messages of(MessageKind kind) {
+        return messages.get(kind);
+    }
+
+    /**
+     * 爬坡结束后清空延迟样本，只统计稳定负载阶段
+     */
+    void resetLatency() {
+        messages.values().forEach(m -> m.latency.reset());
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.charlie237.taiyi.loadgen;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁延迟直方图（微秒）
+ * 1024微秒以内精确到1微秒，之后每个2的幂区间分512档（误差约0.2%），上限约134秒，超出按上限计
+ */
+final class LatencyHistogram {
+
+    private static final int LINEAR = 1024;
+    private static final int SUB_BUCKETS = 512;
+    private static final int SUB_BITS = 9;
+    private static final long MAX_MICROS = (1L << 27) - 1;
+    private static final int SIZE = index(MAX_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SIZE);
+
+    void recordNanos(long nanos) {
+        long micros = Math.min(Math.max(nanos / 1000, 0), MAX_MICROS);
+        counts.incrementAndGet(index(micros));
+    }
+
+    void reset() {
+        for (int i = 0; i < SIZE; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * 当前计数快照
+     */
+    Snapshot snapshot() {
+        long[] copy = new long[SIZE];
+        long total = 0;
+        for (int i = 0; i < SIZE; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total);
+    }
+
+    private static int index(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * 桶的上界（微秒）
+     */
+    private static long upperBound(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    record Snapshot(long[] counts, long total) {
+
+        /**
+         * 分位数（毫秒），没有样本时返回NaN
+         */
+        double percentileMillis(double percentile) {
+            if (total == 0) {
+                return Double.NaN;
+            }
+            long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return upperBound(i) / 1000.0;
+                }
+            }
+            return MAX_MICROS / 1000.0;
+        }
+
+        double maxMillis() {
+            return percentileMillis(100);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.charlie237.taiyi.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.charlie237.taiyi.loadgen.FleetStats.MessageKind;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 太乙边缘节点集群模拟器
+ * 以管理员账号注册N个模拟节点，每个节点一个虚拟线程，按配置的频率通过节点WebSocket上报心跳、状态和硬件状态。
+ * 客户端统计确认延迟分位数、掉线数和丢失的确认；服务端入库速率和入库执行器拒绝数通过Actuator指标采样。
+ *
+ * 服务端以loadtest配置（内存H2）启动：./mvnw -Ploadtest spring-boot:run -Dspring-boot.run.profiles=loadtest
+ */
+public final class LoadGenerator {
+
+    // 注册节点的并发请求数
+    private static final int REGISTER_CONCURRENCY = 32;
+
+    private final LoadOptions options;
+    private final FleetStats stats = new FleetStats();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private LoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help") || List.of(args).contains("-h")) {
+            System.out.println(LoadOptions.USAGE);
+            return;
+        }
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private void run() throws Exception {
+        ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(virtualThreads)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ServerClient server = new ServerClient(options.server(), httpClient, objectMapper);
+
+        System.out.printf("服务: %s  节点: %d  心跳/状态/硬件间隔: %s/%s/%s  爬坡: %s  压测: %s%n",
+                options.server(), options.nodes(), format(options.heartbeatInterval()),
+                format(options.statusInterval()), format(options.hardwareInterval()),
+                format(options.rampUp()), format(options.duration()));
+
+        server.login(options.username(), options.password());
+        registerNodes(server, virtualThreads);
+
+        long start = System.nanoTime();
+        long rampUpEnd = start + options.rampUp().toNanos();
+        long deadline = rampUpEnd + options.duration().toNanos();
+        List<Future<?>> nodes = new ArrayList<>(options.nodes());
+        for (int i = 0; i < options.nodes(); i++) {
+            SimulatedNode node = new SimulatedNode(nodeId(i), options, stats, objectMapper);
+            long startDelay = options.rampUp().toNanos() * i / options.nodes();
+            nodes.add(virtualThreads.submit(() -> {
+                node.run(httpClient, startDelay, deadline);
+                return null;
+            }));
+        }
+
+        // 爬坡阶段只输出进度，结束后清空延迟样本并记录基线
+        Sample previous = sample(server);
+        previous = report(server, previous, start, rampUpEnd);
+        stats.resetLatency();
+        Sample baseline = previous;
+        report(server, previous, start, deadline);
+
+        for (Future<?> node : nodes) {
+            node.get();
+        }
+        virtualThreads.shutdown();
+        summarize(baseline, sample(server));
+    }
+
+    private void registerNodes(ServerClient server, ExecutorService executor) throws Exception {
+        System.out.printf("注册 %d 个节点...%n", options.nodes());
+        Semaphore permits = new Semaphore(REGISTER_CONCURRENCY);
+        List<Future<?>> registrations = new ArrayList<>(options.nodes());
+        for (int i = 0; i < options.nodes(); i++) {
+            String nodeId = nodeId(i);
+            registrations.add(executor.submit(() -> {
+                permits.acquire();
+                try {
+                    server.registerNode(nodeId, nodeId);
+                } finally {
+                    permits.release();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> registration : registrations) {
+            registration.get();
+        }
+    }
+
+    private String nodeId(int index) {
+        return options.nodePrefix() + index;
+    }
+
+    /**
+     * 每个输出间隔打印一行进度，直到until（System.nanoTime），返回最后一次采样
+     */
+    private Sample report(ServerClient server, Sample previous, long start, long until) throws InterruptedException {
+        long interval = options.reportInterval().toNanos();
+        while (System.nanoTime() < until) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(interval, until - System.nanoTime()));
+            Sample current = sample(server);
+            double seconds = (current.nanoTime - previous.nanoTime) / 1e9;
+
+            StringBuilder line = new StringBuilder();
+            line.append(String.format("[%5ds] 在线 %d/%d 掉线 %d 连接失败 %d | 发送/s",
+                    TimeUnit.NANOSECONDS.toSeconds(current.nanoTime - start), stats.connected.get(),
+                    options.nodes(), stats.dropped.get(), stats.connectFailures.get()));
+            for (MessageKind kind : MessageKind.values()) {
+                line.append(String.format(" %s %.1f", kind.type,
+                        (current.sent[kind.ordinal()] - previous.sent[kind.ordinal()]) / seconds));
+            }
+            line.append(" | 确认p99");
+            for (MessageKind kind : MessageKind.values()) {
+                if (kind.ackType != null) {
+                    line.append(String.format(" %s %.2fms", kind.type,
+                            stats.of(kind).latency.snapshot().percentileMillis(99)));
+                }
+            }
+            line.append(String.format(" | 入库 %s 行/s 丢弃上报 %s",
+                    rate(current.writes, previous.writes, seconds), delta(current.rejected, previous.rejected)));
+            System.out.println(line);
+            previous = current;
+        }
+        return previous;
+    }
+
+    private void summarize(Sample baseline, Sample end) {
+        double seconds = (end.nanoTime - baseline.nanoTime) / 1e9;
+        System.out.println();
+        System.out.printf("==== 稳定阶段结果（%.0fs，%d 节点）====%n", seconds, options.nodes());
+        System.out.printf("%-16s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+                "类型", "发送", "确认", "丢失", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (MessageKind kind : MessageKind.values()) {
+            int i = kind.ordinal();
+            long sent = end.sent[i] - baseline.sent[i];
+            if (kind.ackType == null) {
+                System.out.printf("%-16s %10d %10s %8s%n", kind.type, sent, "-", "-");
+                continue;
+            }
+            LatencyHistogram.Snapshot latency = stats.of(kind).latency.snapshot();
+            System.out.printf("%-16s %10d %10d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", kind.type, sent,
+                    end.acked[i] - baseline.acked[i], end.lost[i] - baseline.lost[i],
+                    latency.percentileMillis(50), latency.percentileMillis(90), latency.percentileMillis(99),
+                    latency.percentileMillis(99.9), latency.maxMillis());
+        }
+        System.out.printf("连接: 失败 %d  掉线 %d  发送失败 %d  服务端错误回复 %d%n",
+                stats.connectFailures.get(), stats.dropped.get(), stats.sendFailures.get(), stats.serverErrors.get());
+        System.out.printf("服务端: 入库 %s 行（%s 行/s）  入库执行器丢弃上报 %s%n",
+                delta(end.writes, baseline.writes), rate(end.writes, baseline.writes, seconds),
+                delta(end.rejected, baseline.rejected));
+    }
+
+    /**
+     * 采样客户端计数和服务端指标，服务端指标读取失败时记为-1
+     */
+    private Sample sample(ServerClient server) {
+        int kinds = MessageKind.values().length;
+        long[] sent = new long[kinds];
+        long[] acked = new long[kinds];
+        long[] lost = new long[kinds];
+        for (MessageKind kind : MessageKind.values()) {
+            FleetStats.Messages messages = stats.of(kind);
+            sent[kind.ordinal()] = messages.sent.get();
+            acked[kind.ordinal()] = messages.acked.get();
+            lost[kind.ordinal()] = messages.lost.get();
+        }
+        long writes;
+        long rejected;
+        try {
+            writes = server.databaseWrites();
+            rejected = server.ingestRejected();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            writes = -1;
+            rejected = -1;
+        }
+        return new Sample(System.nanoTime(), sent, acked, lost, writes, rejected);
+    }
+
+    private static String delta(long current, long previous) {
+        return current < 0 || previous < 0 ? "-" : String.valueOf(current - previous);
+    }
+
+    private static String rate(long current, long previous, double seconds) {
+        return current < 0 || previous < 0 ? "-" : String.format("%.1f", (current - previous) / seconds);
+    }
+
+    private static String format(Duration duration) {
+        return duration.toString().substring(2).toLowerCase();
+    }
+
+    private record Sample(long nanoTime, long[] sent, long[] acked, long[] lost, long writes, long rejected) {
+    }
+}
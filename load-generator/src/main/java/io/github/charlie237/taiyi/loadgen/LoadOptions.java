@@ -0,0 +1,109 @@
+package io.github.charlie237.taiyi.loadgen;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 负载参数，命令行以 --name=value 形式覆盖
+ */
+record LoadOptions(
+        String server,
+        int nodes,
+        String nodePrefix,
+        Duration heartbeatInterval,
+        Duration statusInterval,
+        Duration hardwareInterval,
+        Duration rampUp,
+        Duration duration,
+        Duration ackTimeout,
+        Duration reportInterval,
+        String username,
+        String password) {
+
+    static final String USAGE = """
+            太乙边缘节点集群模拟器
+
+            用法: java -jar taiyi-load-generator.jar [--name=value ...]
+
+              --server=URL               服务地址，含context-path (默认: http://localhost:8080/api)
+              --nodes=N                  模拟节点数 (默认: 500)
+              --node-prefix=PREFIX       节点ID前缀 (默认: loadgen-)
+              --heartbeat-interval=T     心跳间隔 (默认: 30s)
+              --status-interval=T        状态上报间隔 (默认: 10s)
+              --hardware-interval=T      硬件状态上报间隔 (默认: 60s)
+              --ramp-up=T                全部节点上线用时，期间的延迟样本不计入结果 (默认: 30s)
+              --duration=T               爬坡结束后的压测时长 (默认: 5m)
+              --ack-timeout=T            超过该时间未收到确认记为丢失 (默认: 10s)
+              --report-interval=T        进度输出间隔 (默认: 10s)
+              --username=NAME            注册节点使用的账号 (默认: admin)
+              --password=PASSWORD        账号密码 (默认: admin123)
+
+            时间格式: 500ms、30s、5m、1h，或ISO-8601（PT30S）
+            """;
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+                stripTrailingSlash(take(values, "server", "http://localhost:8080/api")),
+                Integer.parseInt(take(values, "nodes", "500")),
+                take(values, "node-prefix", "loadgen-"),
+                duration(take(values, "heartbeat-interval", "30s")),
+                duration(take(values, "status-interval", "10s")),
+                duration(take(values, "hardware-interval", "60s")),
+                duration(take(values, "ramp-up", "30s")),
+                duration(take(values, "duration", "5m")),
+                duration(take(values, "ack-timeout", "10s")),
+                duration(take(values, "report-interval", "10s")),
+                take(values, "username", "admin"),
+                take(values, "password", "admin123"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("未知参数: " + values.keySet());
+        }
+        if (options.nodes <= 0) {
+            throw new IllegalArgumentException("节点数必须大于0");
+        }
+        return options;
+    }
+
+    /**
+     * 节点WebSocket地址
+     */
+    String nodeEndpoint(String nodeId) {
+        return server.replaceFirst("^http", "ws") + "/ws/node?nodeId=" + nodeId;
+    }
+
+    private static String take(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    static Duration duration(String value) {
+        String text = value.trim().toLowerCase();
+        if (text.startsWith("pt")) {
+            return Duration.parse(text.toUpperCase());
+        }
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("无法识别的时间: " + text);
+        };
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
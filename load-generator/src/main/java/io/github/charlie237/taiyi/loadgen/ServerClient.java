@@ -0,0 +1,106 @@
+package io.github.charlie237.taiyi.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 服务端REST调用：登录、注册模拟节点、读取Actuator指标
+ */
+final class ServerClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String server;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private String token;
+
+    ServerClient(String server, HttpClient httpClient, ObjectMapper objectMapper) {
+        this.server = server;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+    }
+
+    void login(String username, String password) throws IOException, InterruptedException {
+        JsonNode response = post("/auth/login", Map.of("username", username, "password", password));
+        if (response.path("code").asInt() != 200) {
+            throw new IllegalStateException("登录失败: " + response.path("message").asText());
+        }
+        token = response.path("data").path("token").asText();
+    }
+
+    /**
+     * 注册节点，节点已存在（重复运行）时直接复用
+     */
+    void registerNode(String nodeId, String name) throws IOException, InterruptedException {
+        JsonNode response = post("/nodes", Map.of("nodeId", nodeId, "name", name,
+                "description", "load-generator模拟节点"));
+        String message = response.path("message").asText();
+        if (response.path("code").asInt() != 200 && !message.contains("已存在")) {
+            throw new IllegalStateException("注册节点失败: " + nodeId + " - " + message);
+        }
+    }
+
+    /**
+     * 服务端累计入库行数：仓库save调用次数加流量计量器批量写回的行数
+     */
+    long databaseWrites() throws IOException, InterruptedException {
+        return count("spring.data.repository.invocations", "method:save")
+                + count("spring.data.repository.invocations", "method:saveAll")
+                + count("taiyi.node.flushed", null)
+                + count("taiyi.route.flushed", null);
+    }
+
+    /**
+     * 入库执行器队列满被丢弃的上报数
+     */
+    long ingestRejected() throws IOException, InterruptedException {
+        return count("executor.rejected", "name:ingestExecutor");
+    }
+
+    /**
+     * 读取Actuator计数器的COUNT值，指标尚未产生时返回0
+     */
+    private long count(String metric, String tag) throws IOException, InterruptedException {
+        String uri = server + "/actuator/metrics/" + metric
+                + (tag != null ? "?tag=" + URLEncoder.encode(tag, StandardCharsets.UTF_8) : "");
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(uri))
+                .timeout(TIMEOUT)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) {
+            return 0;
+        }
+        for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+            if ("COUNT".equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asLong();
+            }
+        }
+        return 0;
+    }
+
+    private JsonNode post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(server + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("请求失败: " + path + " HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.charlie237.taiyi.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.charlie237.taiyi.loadgen.FleetStats.MessageKind;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个模拟边缘节点：连接 /ws/node?nodeId=...，按配置的间隔发送心跳、状态和硬件状态
+ * 每个节点在自己的虚拟线程上运行发送循环；服务端按节点串行处理上报（NodeIngestQueue），
+ * 同一节点的确认按发送顺序返回，确认与发送按类型先进先出配对计算延迟
+ */
+final class SimulatedNode implements WebSocket.Listener {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final String nodeId;
+    private final LoadOptions options;
+    private final FleetStats stats;
+    private final ObjectMapper objectMapper;
+    private final Map<MessageKind, Queue<Long>> pending = new EnumMap<>(MessageKind.class);
+    private final StringBuilder partial = new StringBuilder();
+    private final long startedAt = System.currentTimeMillis();
+
+    private volatile boolean open;
+    private volatile boolean closing;
+
+    SimulatedNode(String nodeId, LoadOptions options, FleetStats stats, ObjectMapper objectMapper) {
+        this.nodeId = nodeId;
+        this.options = options;
+        this.stats = stats;
+        this.objectMapper = objectMapper;
+        for (MessageKind kind : MessageKind.values()) {
+            if (kind.ackType != null) {
+                pending.put(kind, new ConcurrentLinkedQueue<>());
+            }
+        }
+    }
+
+    /**
+     * 在startDelay后上线，运行到deadline（System.nanoTime）后正常关闭
+     */
+    void run(HttpClient httpClient, long startDelayNanos, long deadline) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(startDelayNanos);
+
+        WebSocket webSocket;
+        try {
+            webSocket = httpClient.newWebSocketBuilder()
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .buildAsync(URI.create(options.nodeEndpoint(nodeId)), this)
+                    .join();
+        } catch (Exception e) {
+            stats.connectFailures.incrementAndGet();
+            return;
+        }
+
+        // 各类上报的首次发送时间随机错开，避免所有节点同一时刻上报
+        Map<MessageKind, Long> intervals = new EnumMap<>(MessageKind.class);
+        intervals.put(MessageKind.HEARTBEAT, options.heartbeatInterval().toNanos());
+        intervals.put(MessageKind.STATUS_UPDATE, options.statusInterval().toNanos());
+        intervals.put(MessageKind.HARDWARE_STATUS, options.hardwareInterval().toNanos());
+        Map<MessageKind, Long> due = new EnumMap<>(MessageKind.class);
+        long now = System.nanoTime();
+        intervals.forEach((kind, interval) -> due.put(kind, now + ThreadLocalRandom.current().nextLong(interval)));
+
+        try {
+            while (open) {
+                MessageKind next = null;
+                for (MessageKind kind : due.keySet()) {
+                    if (next == null || due.get(kind) < due.get(next)) {
+                        next = kind;
+                    }
+                }
+                long at = due.get(next);
+                if (at >= deadline) {
+                    TimeUnit.NANOSECONDS.sleep(Math.max(0, deadline - System.nanoTime()));
+                    break;
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.max(0, at - System.nanoTime()));
+                if (!open) {
+                    break;
+                }
+                send(webSocket, next);
+                due.put(next, at + intervals.get(next));
+            }
+        } finally {
+            closing = true;
+            if (open) {
+                webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "压测结束")
+                        .orTimeout(5, TimeUnit.SECONDS)
+                        .exceptionally(e -> null)
+                        .join();
+            }
+            // 未收到确认的消息记为丢失
+            pending.forEach((kind, queue) -> stats.of(kind).lost.addAndGet(queue.size()));
+        }
+    }
+
+    private void send(WebSocket webSocket, MessageKind kind) {
+        Queue<Long> queue = pending.get(kind);
+        Long sentAt = null;
+        try {
+            String payload = objectMapper.writeValueAsString(Map.of(
+                    "type", kind.type,
+                    "data", data(kind),
+                    "timestamp", System.currentTimeMillis()));
+            if (queue != null) {
+                sentAt = System.nanoTime();
+                queue.add(sentAt);
+            }
+            // 同一连接上不能并发发送，等待上一条写出
+            webSocket.sendText(payload, true).join();
+            stats.of(kind).sent.incrementAndGet();
+        } catch (Exception e) {
+            if (sentAt != null) {
+                queue.remove(sentAt);
+            }
+            stats.sendFailures.incrementAndGet();
+        }
+    }
+
+    private Map<String, Object> data(MessageKind kind) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (kind) {
+            case HEARTBEAT -> Map.of();
+            case STATUS_UPDATE -> Map.of(
+                    "connections", random.nextInt(0, 50),
+                    "bytesIn", random.nextLong(0, 10_000_000),
+                    "bytesOut", random.nextLong(0, 10_000_000));
+            case HARDWARE_STATUS -> Map.of(
+                    "cpuUsage", random.nextDouble(5, 95),
+                    "memoryUsage", random.nextDouble(20, 90),
+                    "diskUsage", random.nextDouble(10, 80),
+                    "networkIn", random.nextLong(0, 1_000_000_000),
+                    "networkOut", random.nextLong(0, 1_000_000_000),
+                    "connectionCount", random.nextInt(0, 50),
+                    "uptime", (System.currentTimeMillis() - startedAt) / 1000,
+                    "loadAverage", random.nextDouble(0, 4));
+        };
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        open = true;
+        stats.connected.incrementAndGet();
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            String message = partial.toString();
+            partial.setLength(0);
+            onMessage(message);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    private void onMessage(String message) {
+        long receivedAt = System.nanoTime();
+        String type;
+        try {
+            JsonNode json = objectMapper.readTree(message);
+            type = json.path("type").asText();
+        } catch (Exception e) {
+            return;
+        }
+        if ("error".equals(type)) {
+            stats.serverErrors.incrementAndGet();
+            return;
+        }
+        MessageKind kind = MessageKind.ofAck(type);
+        if (kind == null) {
+            return;
+        }
+
+        // 服务端丢弃的上报不会有确认，超时的发送记录先出队记为丢失，避免后续确认配对到更早的发送；
+        // 队列中只剩超时记录时，这条迟到的确认不计入延迟
+        Queue<Long> queue = pending.get(kind);
+        long timeout = options.ackTimeout().toNanos();
+        Long sentAt = queue.poll();
+        while (sentAt != null && receivedAt - sentAt > timeout) {
+            stats.of(kind).lost.incrementAndGet();
+            sentAt = queue.poll();
+        }
+        if (sentAt != null) {
+            FleetStats.Messages messages = stats.of(kind);
+            messages.acked.incrementAndGet();
+            messages.latency.recordNanos(receivedAt - sentAt);
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        disconnected();
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        disconnected();
+    }
+
+    private void disconnected() {
+        if (open) {
+            open = false;
+            stats.connected.decrementAndGet();
+            if (!closing) {
+                stats.dropped.incrementAndGet();
+            }
+        }
+    }
+}
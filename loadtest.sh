@@ -0,0 +1,208 @@
+#!/bin/bash
+
+# 太乙负载测试脚本
+# 分别以平台线程模式和虚拟线程模式启动服务，用wrk压测相同接口，对比吞吐量和p99延迟
+# 依赖: java 21、wrk、curl；先执行 ./mvnw -Pjava21 package -DskipTests 构建
+
+set -e
+
+# 默认配置
+JAR=""
+PORT=18080
+DURATION="30s"
+CONNECTIONS=200
+THREADS=4
+WARMUP="10s"
+MODES="platform virtual"
+ENDPOINTS="/api/nodes /api/routes/cursor?size=50 /api/dashboard/stats"
+USERNAME="admin"
+PASSWORD="admin123"
+JAVA_OPTS="${JAVA_OPTS:--Xms1g -Xmx1g}"
+
+# 颜色输出
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+log_info() {
+    echo -e "${GREEN}[INFO]${NC} $1"
+}
+
+log_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+# 显示帮助信息
+show_help() {
+    cat << EOF
+太乙负载测试脚本
+
+用法: $0 [选项]
+
+可选选项:
+  -j, --jar PATH          服务jar包 (默认: target/taiyi-*.jar)
+  -p, --port PORT         服务端口 (默认: 18080)
+  -d, --duration TIME     每个接口压测时长 (默认: 30s)
+  -c, --connections N     并发连接数 (默认: 200)
+  -t, --threads N         wrk线程数 (默认: 4)
+  -m, --modes MODES       测试模式，空格分隔 (默认: "platform virtual")
+  -e, --endpoints PATHS   压测接口，空格分隔 (默认: 节点列表、路由游标列表、仪表盘统计)
+  -h, --help              显示此帮助信息
+
+数据库连接沿用application.yml，可通过 SPRING_DATASOURCE_URL 等环境变量覆盖。
+
+示例:
+  $0 -c 500 -d 60s
+  $0 -m virtual -e "/api/nodes"
+
+EOF
+}
+
+while [[ $# -gt 0 ]]; do
+    case $1 in
+        -j|--jar)
+            JAR="$2"
+            shift 2
+            ;;
+        -p|--port)
+            PORT="$2"
+            shift 2
+            ;;
+        -d|--duration)
+            DURATION="$2"
+            shift 2
+            ;;
+        -c|--connections)
+            CONNECTIONS="$2"
+            shift 2
+            ;;
+        -t|--threads)
+            THREADS="$2"
+            shift 2
+            ;;
+        -m|--modes)
+            MODES="$2"
+            shift 2
+            ;;
+        -e|--endpoints)
+            ENDPOINTS="$2"
+            shift 2
+            ;;
+        -h|--help)
+            show_help
+            exit 0
+            ;;
+        *)
+            log_error "未知选项: $1"
+            show_help
+            exit 1
+            ;;
+    esac
+done
+
+if [[ -z "$JAR" ]]; then
+    JAR=$(ls target/taiyi-*.jar 2>/dev/null | grep -v original | head -n 1)
+fi
+if [[ -z "$JAR" || ! -f "$JAR" ]]; then
+    log_error "找不到服务jar包，请先构建或通过 -j 指定"
+    exit 1
+fi
+for cmd in java wrk curl; do
+    if ! command -v $cmd &> /dev/null; then
+        log_error "缺少依赖: $cmd"
+        exit 1
+    fi
+done
+
+BASE_URL="http://localhost:${PORT}"
+RESULT_DIR="loadtest-results/$(date +%Y%m%d-%H%M%S)"
+mkdir -p "$RESULT_DIR"
+APP_PID=""
+
+stop_app() {
+    if [[ -n "$APP_PID" ]]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=""
+    fi
+}
+trap stop_app EXIT
+
+# 启动服务：关闭限流和SQL日志，避免压测结果被限流或控制台输出影响
+start_app() {
+    local mode=$1
+    local profile_args=""
+    if [[ "$mode" == "virtual" ]]; then
+        profile_args="--spring.profiles.active=virtual"
+    fi
+
+    log_info "启动服务 ($mode 模式)..."
+    java $JAVA_OPTS -jar "$JAR" $profile_args \
+        --server.port="$PORT" \
+        --taiyi.rate-limit.enabled=false \
+        --spring.jpa.show-sql=false \
+        --logging.level.io.github.charlie237.taiyi=WARN \
+        --logging.level.org.springframework.security=WARN \
+        > "$RESULT_DIR/app-$mode.log" 2>&1 &
+    APP_PID=$!
+
+    for i in $(seq 1 90); do
+        if curl -sf "$BASE_URL/api/actuator/health" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    log_error "服务启动超时，日志见 $RESULT_DIR/app-$mode.log"
+    exit 1
+}
+
+login() {
+    curl -sf -X POST "$BASE_URL/api/auth/login" \
+        -H "Content-Type: application/json" \
+        -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}" \
+        | grep -o '"token":"[^"]*"' | cut -d'"' -f4
+}
+
+# 从wrk --latency输出中提取吞吐量和p99
+parse_result() {
+    local file=$1
+    local rps=$(grep "Requests/sec:" "$file" | awk '{print $2}')
+    local p99=$(grep -E "^\s+99%" "$file" | awk '{print $2}')
+    local errors=$(grep -E "Non-2xx|Socket errors" "$file" | tr '\n' ' ')
+    echo "$rps|$p99|$errors"
+}
+
+SUMMARY="$RESULT_DIR/summary.txt"
+printf "%-10s %-36s %14s %10s  %s\n" "模式" "接口" "Requests/sec" "p99" "错误" > "$SUMMARY"
+
+for mode in $MODES; do
+    start_app "$mode"
+    TOKEN=$(login)
+    if [[ -z "$TOKEN" ]]; then
+        log_error "登录失败，无法获取Token"
+        exit 1
+    fi
+
+    for endpoint in $ENDPOINTS; do
+        name=$(echo "$endpoint" | tr '/?=&' '____')
+        log_info "预热 $endpoint ($WARMUP)"
+        wrk -t"$THREADS" -c"$CONNECTIONS" -d"$WARMUP" \
+            -H "Authorization: Bearer $TOKEN" "$BASE_URL$endpoint" > /dev/null
+
+        log_info "压测 $endpoint ($DURATION, $CONNECTIONS 连接)"
+        wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency \
+            -H "Authorization: Bearer $TOKEN" "$BASE_URL$endpoint" > "$RESULT_DIR/wrk-$mode$name.txt"
+
+        IFS='|' read -r rps p99 errors <<< "$(parse_result "$RESULT_DIR/wrk-$mode$name.txt")"
+        printf "%-10s %-36s %14s %10s  %s\n" "$mode" "$endpoint" "$rps" "$p99" "$errors" >> "$SUMMARY"
+    done
+
+    # 记录压测结束时的线程与连接池情况
+    curl -sf "$BASE_URL/api/actuator/metrics/jvm.threads.live" > "$RESULT_DIR/threads-$mode.json" || true
+    curl -sf "$BASE_URL/api/actuator/metrics/hikaricp.connections.pending" > "$RESULT_DIR/hikari-pending-$mode.json" || true
+    stop_app
+done
+
+echo ""
+cat "$SUMMARY"
+log_info "详细结果: $RESULT_DIR"
@@ -61,7 +61,7 @@ CREATE TABLE IF NOT EXISTS routes (
     node_id BIGINT NOT NULL COMMENT '节点ID',
     local_ip VARCHAR(45) NOT NULL COMMENT '本地IP',
     local_port INT NOT NULL COMMENT '本地端口',
-    remote_port INT NOT NULL UNIQUE COMMENT '远程端口',
+    remote_port INT NOT NULL COMMENT '远程端口',
     protocol ENUM('TCP', 'UDP', 'HTTP', 'HTTPS') NOT NULL DEFAULT 'TCP' COMMENT '协议',
     status ENUM('ACTIVE', 'INACTIVE', 'ERROR') NOT NULL DEFAULT 'INACTIVE' COMMENT '状态',
     max_connections INT DEFAULT 10 COMMENT '最大连接数',
@@ -75,6 +75,7 @@ CREATE TABLE IF NOT EXISTS routes (
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     last_used_at DATETIME COMMENT '最后使用时间',
     FOREIGN KEY (node_id) REFERENCES nodes(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_node_remote_port (node_id, remote_port),
     INDEX idx_node_id (node_id),
     INDEX idx_remote_port (remote_port),
     INDEX idx_status (status),
@@ -131,6 +132,20 @@ CREATE TABLE IF NOT EXISTS api_tokens (
     INDEX idx_expires_at (expires_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='API Token表';
 
+-- 隧道注册表
+CREATE TABLE IF NOT EXISTS tunnels (
+    route_id BIGINT PRIMARY KEY COMMENT '路由ID',
+    node_id BIGINT COMMENT '节点ID',
+    tunnel_id VARCHAR(100) UNIQUE COMMENT 'zrok隧道ID',
+    public_url VARCHAR(500) COMMENT '公网地址',
+    state VARCHAR(20) NOT NULL DEFAULT 'STOPPED' COMMENT '隧道状态',
+    desired_state VARCHAR(20) NOT NULL DEFAULT 'STOPPED' COMMENT '期望状态',
+    last_error VARCHAR(500) COMMENT '最近一次错误',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    INDEX idx_tunnel_state (state)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='隧道注册表';
+
 -- 插入默认管理员用户
 INSERT IGNORE INTO users (username, password, email, real_name, role, status)
 VALUES ('admin', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iAt6Z5EHsM8lE9lBOsl7iKTVEFDa', 'admin@taiyi.com', '系统管理员', 'ADMIN', 'ACTIVE');
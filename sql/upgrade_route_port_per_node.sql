@@ -0,0 +1,48 @@
+-- 升级：路由远程端口由全局唯一改为按节点唯一
+-- 旧版init.sql在remote_port上建了全局唯一索引，ddl-auto: update不会删除它，
+-- 导致第二个节点起分配的端口与其他节点冲突。可重复执行：
+-- mysql -u taiyi -p taiyi < sql/upgrade_route_port_per_node.sql
+
+DELIMITER //
+
+DROP PROCEDURE IF EXISTS taiyi_upgrade_route_port //
+
+CREATE PROCEDURE taiyi_upgrade_route_port()
+BEGIN
+    DECLARE old_index VARCHAR(64);
+
+    -- 删除只包含remote_port一列的唯一索引（init.sql创建的索引名为remote_port）
+    drop_old: LOOP
+        SET old_index = NULL;
+        SELECT INDEX_NAME INTO old_index
+        FROM information_schema.STATISTICS
+        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'routes' AND NON_UNIQUE = 0
+        GROUP BY INDEX_NAME
+        HAVING COUNT(*) = 1 AND MAX(COLUMN_NAME) = 'remote_port'
+        LIMIT 1;
+        IF old_index IS NULL THEN
+            LEAVE drop_old;
+        END IF;
+        SET @ddl = CONCAT('ALTER TABLE routes DROP INDEX `', old_index, '`');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END LOOP;
+
+    IF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'routes'
+                     AND INDEX_NAME = 'uk_node_remote_port') THEN
+        ALTER TABLE routes ADD UNIQUE KEY uk_node_remote_port (node_id, remote_port);
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'routes'
+                     AND INDEX_NAME = 'idx_remote_port') THEN
+        ALTER TABLE routes ADD INDEX idx_remote_port (remote_port);
+    END IF;
+END //
+
+DELIMITER ;
+
+CALL taiyi_upgrade_route_port();
+DROP PROCEDURE taiyi_upgrade_route_port;
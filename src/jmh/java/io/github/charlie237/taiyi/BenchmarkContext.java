@@ -0,0 +1,44 @@
+package io.github.charlie237.taiyi;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试共用的应用上下文
+ * 以test配置（H2内存库）启动完整应用，同一JMH进程内只启动一次；
+ * 关闭SQL输出、DEBUG日志和请求审计，避免日志开销混入测量结果
+ */
+public final class BenchmarkContext {
+
+    private static ConfigurableApplicationContext context;
+
+    private BenchmarkContext() {
+    }
+
+    public static synchronized ConfigurableApplicationContext get() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(TaiyiApplication.class)
+                    .profiles("test")
+                    .properties(
+                            "server.port=0",
+                            "spring.jpa.show-sql=false",
+                            "spring.jpa.properties.hibernate.format_sql=false",
+                            "logging.level.root=WARN",
+                            "logging.level.io.github.charlie237.taiyi=WARN",
+                            "taiyi.audit.request-log.enabled=false")
+                    .run();
+        }
+        return context;
+    }
+
+    public static <T> T bean(Class<T> type) {
+        return get().getBean(type);
+    }
+
+    public static synchronized void close() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.charlie237.taiyi.filter;
+
+import io.github.bucket4j.Bucket;
+import io.github.charlie237.taiyi.config.RateLimitConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流基准：RateLimitFilter每个请求执行的限流桶解析与令牌消费
+ * clients为不同客户端IP的数量，决定桶表规模和命中已有桶的比例
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RateLimitBenchmark {
+
+    private static final RateLimitConfig.BucketType[] TYPES = {
+            RateLimitConfig.BucketType.API, RateLimitConfig.BucketType.API,
+            RateLimitConfig.BucketType.API, RateLimitConfig.BucketType.WEBSOCKET,
+            RateLimitConfig.BucketType.LOGIN};
+
+    @Param({"100", "10000"})
+    public int clients;
+
+    private RateLimitConfig rateLimitConfig;
+    private String[] clientIps;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rateLimitConfig = new RateLimitConfig();
+        clientIps = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientIps[i] = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    /**
+     * 每个线程独立轮转客户端
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Bucket resolveBucket(Cursor cursor) {
+        int i = cursor.next++;
+        return rateLimitConfig.resolveBucket(clientIps[Math.floorMod(i, clients)], TYPES[Math.floorMod(i, TYPES.length)]);
+    }
+
+    @Benchmark
+    public boolean resolveAndConsume(Cursor cursor) {
+        int i = cursor.next++;
+        return rateLimitConfig.resolveBucket(clientIps[Math.floorMod(i, clients)], TYPES[Math.floorMod(i, TYPES.length)])
+                .tryConsume(1);
+    }
+}
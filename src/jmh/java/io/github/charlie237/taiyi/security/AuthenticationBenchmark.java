@@ -0,0 +1,78 @@
+package io.github.charlie237.taiyi.security;
+
+import io.github.charlie237.taiyi.BenchmarkContext;
+import io.github.charlie237.taiyi.common.Constants;
+import io.github.charlie237.taiyi.entity.ApiToken;
+import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.repository.UserRepository;
+import io.github.charlie237.taiyi.service.ApiTokenService;
+import io.github.charlie237.taiyi.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证基准：API Token过滤器校验（含Token缓存查询）和JWT解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private ApiTokenAuthenticationFilter apiTokenFilter;
+    private JwtTokenProvider jwtTokenProvider;
+    private String apiToken;
+    private String jwt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        apiTokenFilter = BenchmarkContext.bean(ApiTokenAuthenticationFilter.class);
+        jwtTokenProvider = BenchmarkContext.bean(JwtTokenProvider.class);
+
+        User admin = BenchmarkContext.bean(UserRepository.class)
+                .findByUsername(Constants.System.DEFAULT_ADMIN_USERNAME)
+                .orElseThrow();
+        apiToken = BenchmarkContext.bean(ApiTokenService.class)
+                .createToken(admin, "benchmark-" + System.nanoTime(), ApiToken.Plan.PRO)
+                .getToken();
+
+        UserDetails userDetails = BenchmarkContext.bean(UserService.class).loadUserByUsername(admin.getUsername());
+        jwt = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public Authentication apiTokenFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tunnels");
+        request.addHeader("Authorization", "Bearer " + apiToken);
+        try {
+            apiTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public String jwtValidateAndParse() {
+        if (!jwtTokenProvider.validateToken(jwt)) {
+            throw new IllegalStateException("JWT校验失败");
+        }
+        return jwtTokenProvider.getUsernameFromToken(jwt);
+    }
+}
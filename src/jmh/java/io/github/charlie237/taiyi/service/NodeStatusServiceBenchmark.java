@@ -0,0 +1,72 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.BenchmarkContext;
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.entity.NodeStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点状态基准：硬件状态上报的解析（parseStatusData）和告警阈值检查（checkAlerts）
+ * alerting样本同时触发CPU、内存和延迟告警，告警服务在冷却期内直接跳过发送
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeStatusServiceBenchmark {
+
+    @Param({"normal", "alerting"})
+    public String sample;
+
+    private NodeStatusService nodeStatusService;
+    private Node node;
+    private Map<String, Object> statusData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 直接调用目标对象，包内方法不经过事务代理
+        nodeStatusService = AopTestUtils.getUltimateTargetObject(BenchmarkContext.bean(NodeStatusService.class));
+        node = new Node();
+        node.setNodeId("node_benchmark");
+        boolean alerting = "alerting".equals(sample);
+        statusData = Map.ofEntries(
+                Map.entry("cpuUsage", alerting ? 96.5 : 37.5),
+                Map.entry("memoryUsage", alerting ? 88.0 : 61.2),
+                Map.entry("diskUsage", 48.0),
+                Map.entry("networkIn", 123456789L),
+                Map.entry("networkOut", 98765432L),
+                Map.entry("connectionCount", 42),
+                Map.entry("uptime", 864000L),
+                Map.entry("loadAverage", 1.25),
+                Map.entry("temperature", 52.0),
+                Map.entry("pingLatency", alerting ? 320 : 35),
+                Map.entry("bandwidthIn", 1048576L),
+                Map.entry("bandwidthOut", 524288L));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public NodeStatus parseStatusData() {
+        NodeStatus status = new NodeStatus();
+        nodeStatusService.parseStatusData(status, statusData);
+        return status;
+    }
+
+    @Benchmark
+    public NodeStatus parseAndCheckAlerts() {
+        NodeStatus status = new NodeStatus();
+        nodeStatusService.parseStatusData(status, statusData);
+        nodeStatusService.checkAlerts(node, status);
+        return status;
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.BenchmarkContext;
+import io.github.charlie237.taiyi.common.Constants;
+import io.github.charlie237.taiyi.dto.RouteBatchItem;
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.entity.Route;
+import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由基准：端口分配，以及批量创建路由与逐条创建的对比（H2）
+ * 每次创建前在setup中注册一个新节点，保证每批路由都有完整的空闲端口空间
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteServiceBenchmark {
+
+    // 端口分配基准使用的节点，不对应数据库中的记录
+    private static final Long ALLOCATOR_NODE_ID = -1L;
+
+    private PortAllocator portAllocator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        portAllocator = BenchmarkContext.bean(PortAllocator.class);
+        // 先占用一半端口，分配时需要跳过已占用的区段
+        int half = portAllocator.capacity(ALLOCATOR_NODE_ID).getAvailable() / 2;
+        for (int i = 0; i < half; i++) {
+            portAllocator.allocate(ALLOCATOR_NODE_ID);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    /**
+     * 一批待创建的路由，每次调用前重新准备
+     */
+    @State(Scope.Thread)
+    public static class Batch {
+
+        @Param({"50", "300"})
+        public int batchSize;
+
+        private RouteService routeService;
+        private NodeService nodeService;
+        private User owner;
+        private int round;
+        List<Route> routes;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            routeService = BenchmarkContext.bean(RouteService.class);
+            nodeService = BenchmarkContext.bean(NodeService.class);
+            owner = BenchmarkContext.bean(UserRepository.class)
+                    .findByUsername(Constants.System.DEFAULT_ADMIN_USERNAME)
+                    .orElseThrow();
+        }
+
+        @Setup(Level.Invocation)
+        public void prepare() {
+            Node node = new Node();
+            node.setName("benchmark-" + round);
+            node.setUser(owner);
+            node = nodeService.registerNode(node);
+
+            String localIp = "172." + (16 + (round >> 16 & 0x0f)) + "." + (round >> 8 & 0xff) + "." + (round & 0xff);
+            routes = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                Route route = new Route();
+                route.setName("benchmark-" + round + "-" + i);
+                route.setNode(node);
+                route.setLocalIp(localIp);
+                route.setLocalPort(1024 + i);
+                routes.add(route);
+            }
+            round++;
+        }
+    }
+
+    @Benchmark
+    public int allocatePort() {
+        int port = portAllocator.allocate(ALLOCATOR_NODE_ID);
+        portAllocator.release(ALLOCATOR_NODE_ID, port);
+        return port;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<RouteBatchItem> createRoutesBatch(Batch batch) {
+        return batch.routeService.createRoutes(batch.routes);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<Route> createRoutesOneByOne(Batch batch) {
+        List<Route> created = new ArrayList<>(batch.routes.size());
+        for (Route route : batch.routes) {
+            created.add(batch.routeService.createRoute(route));
+        }
+        return created;
+    }
+}
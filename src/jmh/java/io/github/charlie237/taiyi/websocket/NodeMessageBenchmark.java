@@ -0,0 +1,72 @@
+package io.github.charlie237.taiyi.websocket;
+
+import io.github.charlie237.taiyi.common.Constants;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点消息基准：NodeWebSocketHandler收到消息时的JSON解析和下发消息的序列化
+ * 只用到处理器的ObjectMapper，不需要启动应用
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeMessageBenchmark {
+
+    private NodeWebSocketHandler handler;
+    private String heartbeat;
+    private String statusUpdate;
+    private String hardwareStatus;
+    private List<Map<String, Object>> routeConfigs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        handler = new NodeWebSocketHandler(null, null, null, null, null, null, null);
+        heartbeat = "{\"type\":\"heartbeat\",\"data\":{\"nodeId\":\"node_0123456789abcdef\"},\"timestamp\":1700000000000}";
+        statusUpdate = "{\"type\":\"status_update\",\"data\":{\"connections\":42,\"bytesIn\":1048576,\"bytesOut\":524288,"
+                + "\"routes\":[{\"routeId\":1,\"connections\":20,\"bytesIn\":524288,\"bytesOut\":262144},"
+                + "{\"routeId\":2,\"connections\":22,\"bytesIn\":524288,\"bytesOut\":262144}]},\"timestamp\":1700000000000}";
+        hardwareStatus = "{\"type\":\"hardware_status\",\"data\":{\"cpuUsage\":37.5,\"memoryUsage\":61.2,\"diskUsage\":48.0,"
+                + "\"networkIn\":123456789,\"networkOut\":98765432,\"connectionCount\":42,\"uptime\":864000,"
+                + "\"loadAverage\":1.25,\"temperature\":52.0,\"pingLatency\":35,\"bandwidthIn\":1048576,"
+                + "\"bandwidthOut\":524288},\"timestamp\":1700000000000}";
+        routeConfigs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            routeConfigs.add(Map.of("routeId", i, "localIp", "192.168.1." + i, "localPort", 8000 + i,
+                    "remotePort", 10000 + i, "protocol", "TCP"));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeHeartbeat() throws IOException {
+        return handler.decode(heartbeat);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeStatusUpdate() throws IOException {
+        return handler.decode(statusUpdate);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeHardwareStatus() throws IOException {
+        return handler.decode(hardwareStatus);
+    }
+
+    @Benchmark
+    public String encodeHeartbeatAck() {
+        return handler.createMessage(Constants.MessageType.HEARTBEAT, "心跳确认", null);
+    }
+
+    @Benchmark
+    public String encodeRouteConfig() {
+        return handler.createMessage(Constants.MessageType.ROUTE_CONFIG, "路由配置", Map.of("routes", routeConfigs));
+    }
+}
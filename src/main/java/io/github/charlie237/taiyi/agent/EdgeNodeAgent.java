@@ -3,8 +3,7 @@ package io.github.charlie237.taiyi.agent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.OperatingSystemMXBean;
 import java.net.URI;
@@ -15,7 +14,9 @@ import java.nio.file.FileStore;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -40,10 +41,8 @@ public class EdgeNodeAgent {
     private final OperatingSystemMXBean osBean;
     private final Runtime runtime;
     
-    // 网络统计
-    private long lastNetworkIn = 0;
-    private long lastNetworkOut = 0;
-    private long lastCheckTime = System.currentTimeMillis();
+    // Linux下直接读取/proc，其他系统为null，使用JMX提供的指标
+    private final LinuxProcCollector procCollector;
     
     public EdgeNodeAgent(String controlCenterUrl, String nodeId, String nodeName, String authToken) {
         this.controlCenterUrl = controlCenterUrl;
@@ -57,6 +56,7 @@ public class EdgeNodeAgent {
         this.scheduler = Executors.newScheduledThreadPool(2);
         this.osBean = ManagementFactory.getOperatingSystemMXBean();
         this.runtime = Runtime.getRuntime();
+        this.procCollector = LinuxProcCollector.isSupported() ? new LinuxProcCollector() : null;
     }
     
     /**
@@ -184,10 +184,7 @@ public class EdgeNodeAgent {
             data.put("cpuUsage", getCpuUsage());
             
             // 内存使用率
-            data.put("memoryUsage", getMemoryUsage());
-            data.put("totalMemory", runtime.totalMemory());
-            data.put("freeMemory", runtime.freeMemory());
-            data.put("usedMemory", runtime.totalMemory() - runtime.freeMemory());
+            putMemoryInfo(data);
             
             // 磁盘使用率
             data.put("diskUsage", getDiskUsage());
@@ -200,9 +197,10 @@ public class EdgeNodeAgent {
             data.put("networkOut", networkInfo.get("out"));
             data.put("bandwidthIn", networkInfo.get("bandwidthIn"));
             data.put("bandwidthOut", networkInfo.get("bandwidthOut"));
+            data.put("interfaces", getInterfaceInfo());
             
             // 系统负载
-            data.put("loadAverage", osBean.getSystemLoadAverage());
+            data.put("loadAverage", getLoadAverage());
             
             // 运行时间
             data.put("uptime", ManagementFactory.getRuntimeMXBean().getUptime() / 1000);
@@ -224,36 +222,17 @@ public class EdgeNodeAgent {
     
     /**
      * 获取CPU使用率
+     * Linux下取两次上报之间/proc/stat的差值，其他系统取JMX的系统CPU负载
      */
     private double getCpuUsage() {
         try {
-            String osName = System.getProperty("os.name").toLowerCase();
-            
-            if (osName.contains("linux")) {
-                // Linux系统使用top命令
-                Process process = Runtime.getRuntime().exec("top -bn1 | grep 'Cpu(s)'");
-                BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                String line = reader.readLine();
-                if (line != null && line.contains("%")) {
-                    // 解析CPU使用率
-                    String[] parts = line.split(",");
-                    for (String part : parts) {
-                        if (part.contains("id")) {
-                            String idleStr = part.trim().split("%")[0].trim();
-                            double idle = Double.parseDouble(idleStr);
-                            return 100.0 - idle;
-                        }
-                    }
-                }
-            } else if (osName.contains("windows")) {
-                // Windows系统使用wmic
-                Process process = Runtime.getRuntime().exec("wmic cpu get loadpercentage /value");
-                BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("LoadPercentage=")) {
-                        return Double.parseDouble(line.split("=")[1]);
-                    }
+            if (procCollector != null) {
+                return procCollector.cpuUsage();
+            }
+            if (osBean instanceof com.sun.management.OperatingSystemMXBean systemBean) {
+                double load = systemBean.getCpuLoad();
+                if (load >= 0) {
+                    return load * 100;
                 }
             }
             
@@ -270,7 +249,30 @@ public class EdgeNodeAgent {
     }
     
     /**
-     * 获取内存使用率
+     * 记录内存使用情况
+     * Linux下为物理内存（/proc/meminfo），其他系统退回JVM堆内存
+     */
+    private void putMemoryInfo(Map<String, Object> data) {
+        if (procCollector != null) {
+            try {
+                LinuxProcCollector.Memory memory = procCollector.memory();
+                data.put("memoryUsage", memory.usage());
+                data.put("totalMemory", memory.total());
+                data.put("freeMemory", memory.available());
+                data.put("usedMemory", memory.used());
+                return;
+            } catch (IOException e) {
+                log.debug("读取/proc/meminfo失败", e);
+            }
+        }
+        data.put("memoryUsage", getMemoryUsage());
+        data.put("totalMemory", runtime.totalMemory());
+        data.put("freeMemory", runtime.freeMemory());
+        data.put("usedMemory", runtime.totalMemory() - runtime.freeMemory());
+    }
+    
+    /**
+     * 获取JVM堆内存使用率
      */
     private double getMemoryUsage() {
         try {
@@ -285,6 +287,20 @@ public class EdgeNodeAgent {
         return 0.0;
     }
     
+    /**
+     * 获取1分钟平均负载
+     */
+    private double getLoadAverage() {
+        if (procCollector != null) {
+            try {
+                return procCollector.loadAverage()[0];
+            } catch (IOException e) {
+                log.debug("读取/proc/loadavg失败", e);
+            }
+        }
+        return osBean.getSystemLoadAverage();
+    }
+    
     /**
      * 获取磁盘使用率
      */
@@ -321,62 +337,70 @@ public class EdgeNodeAgent {
     
     /**
      * 获取网络信息
+     * 累计字节数和速率为除回环外所有网卡之和，速率按两次上报之间的差值计算；非Linux系统不提供，记为0
      */
     private Map<String, Long> getNetworkInfo() {
-        Map<String, Long> networkInfo = new HashMap<>();
+        long in = 0;
+        long out = 0;
+        long bandwidthIn = 0;
+        long bandwidthOut = 0;
         
-        try {
-            // 简化实现，实际应该读取系统网络统计
-            long currentTime = System.currentTimeMillis();
-            long timeDiff = currentTime - lastCheckTime;
-            
-            // 这里应该实现真实的网络统计读取
-            long currentNetworkIn = getCurrentNetworkBytes("rx");
-            long currentNetworkOut = getCurrentNetworkBytes("tx");
-            
-            // 计算带宽
-            long bandwidthIn = 0;
-            long bandwidthOut = 0;
-            
-            if (timeDiff > 0 && lastNetworkIn > 0) {
-                bandwidthIn = (currentNetworkIn - lastNetworkIn) * 1000 / timeDiff;
-                bandwidthOut = (currentNetworkOut - lastNetworkOut) * 1000 / timeDiff;
+        if (procCollector != null) {
+            try {
+                for (LinuxProcCollector.InterfaceStats stats : procCollector.network()) {
+                    if (stats.isLoopback()) {
+                        continue;
+                    }
+                    in += stats.getRxBytes();
+                    out += stats.getTxBytes();
+                    bandwidthIn += stats.getRxRate();
+                    bandwidthOut += stats.getTxRate();
+                }
+            } catch (IOException e) {
+                log.error("获取网络信息失败", e);
             }
-            
-            networkInfo.put("in", currentNetworkIn);
-            networkInfo.put("out", currentNetworkOut);
-            networkInfo.put("bandwidthIn", Math.max(0, bandwidthIn));
-            networkInfo.put("bandwidthOut", Math.max(0, bandwidthOut));
-            
-            lastNetworkIn = currentNetworkIn;
-            lastNetworkOut = currentNetworkOut;
-            lastCheckTime = currentTime;
-            
-        } catch (Exception e) {
-            log.error("获取网络信息失败", e);
-            networkInfo.put("in", 0L);
-            networkInfo.put("out", 0L);
-            networkInfo.put("bandwidthIn", 0L);
-            networkInfo.put("bandwidthOut", 0L);
         }
         
+        Map<String, Long> networkInfo = new HashMap<>();
+        networkInfo.put("in", in);
+        networkInfo.put("out", out);
+        networkInfo.put("bandwidthIn", bandwidthIn);
+        networkInfo.put("bandwidthOut", bandwidthOut);
         return networkInfo;
     }
     
-    private long getCurrentNetworkBytes(String direction) {
-        // 实际实现应该读取 /proc/net/dev (Linux) 或使用系统API
-        return System.currentTimeMillis() % 1000000; // 模拟数据
+    /**
+     * 各网卡的累计计数和速率，使用getNetworkInfo本次采样的结果
+     */
+    private List<Map<String, Object>> getInterfaceInfo() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (procCollector == null) {
+            return result;
+        }
+        for (LinuxProcCollector.InterfaceStats stats : procCollector.interfaces()) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("name", stats.getName());
+            item.put("rxBytes", stats.getRxBytes());
+            item.put("txBytes", stats.getTxBytes());
+            item.put("rxPackets", stats.getRxPackets());
+            item.put("txPackets", stats.getTxPackets());
+            item.put("rxRate", stats.getRxRate());
+            item.put("txRate", stats.getTxRate());
+            result.add(item);
+        }
+        return result;
     }
     
     /**
      * 获取zrok状态
+     * Linux下遍历/proc查找zrok进程，不再启动pgrep子进程
      */
     private String getZrokStatus() {
+        if (procCollector == null) {
+            return "unknown";
+        }
         try {
-            // 检查zrok进程是否运行
-            Process process = Runtime.getRuntime().exec("pgrep zrok");
-            process.waitFor();
-            return process.exitValue() == 0 ? "running" : "stopped";
+            return procCollector.isProcessRunning("zrok") ? "running" : "stopped";
         } catch (Exception e) {
             return "unknown";
         }
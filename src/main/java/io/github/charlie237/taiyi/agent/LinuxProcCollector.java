@@ -0,0 +1,396 @@
+package io.github.charlie237.taiyi.agent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Linux系统指标采集器
+ * 直接读取 /proc/stat、/proc/meminfo、/proc/net/dev 和 /proc/loadavg，不启动子进程。
+ * 读缓冲区和网卡统计对象在采样间复用，CPU使用率和网卡速率由相邻两次采样的差值计算。
+ * 非线程安全，由Agent的上报任务单线程调用
+ */
+public class LinuxProcCollector {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private final Path procRoot;
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private byte[] data = buffer.array();
+    private int length;
+    private int pos;
+
+    // 上次采样的CPU累计时间（jiffies），首次采样时为0，得到的是开机以来的平均使用率
+    private long lastCpuTotal;
+    private long lastCpuIdle;
+
+    private final Map<String, InterfaceStats> interfaces = new LinkedHashMap<>();
+    private long lastNetworkSample;
+
+    public LinuxProcCollector() {
+        this(Path.of("/proc"));
+    }
+
+    LinuxProcCollector(Path procRoot) {
+        this.procRoot = procRoot;
+    }
+
+    /**
+     * 当前系统是否提供/proc
+     */
+    public static boolean isSupported() {
+        return Files.isReadable(Path.of("/proc/stat"));
+    }
+
+    /**
+     * 自上次调用以来的CPU使用率（百分比）
+     * 总时间取 user+nice+system+idle+iowait+irq+softirq+steal，空闲时间取 idle+iowait
+     */
+    public double cpuUsage() throws IOException {
+        read(procRoot.resolve("stat"));
+        // 首行: cpu  user nice system idle iowait irq softirq steal guest guest_nice
+        skipToken();
+        long total = 0;
+        long idle = 0;
+        for (int i = 0; i < 8 && hasNumber(); i++) {
+            long value = nextLong();
+            total += value;
+            if (i == 3 || i == 4) {
+                idle += value;
+            }
+        }
+
+        long deltaTotal = total - lastCpuTotal;
+        long deltaIdle = idle - lastCpuIdle;
+        lastCpuTotal = total;
+        lastCpuIdle = idle;
+        if (deltaTotal <= 0) {
+            return 0.0;
+        }
+        return Math.min(100.0, Math.max(0.0, (double) (deltaTotal - deltaIdle) / deltaTotal * 100));
+    }
+
+    /**
+     * 物理内存（字节）
+     * 可用内存取MemAvailable，内核不提供时（3.14之前）取 MemFree+Buffers+Cached
+     */
+    public Memory memory() throws IOException {
+        read(procRoot.resolve("meminfo"));
+        long total = -1;
+        long available = -1;
+        long free = 0;
+        long buffers = 0;
+        long cached = 0;
+        while (pos < length) {
+            if (lineStartsWith("MemTotal:")) {
+                total = nextLong();
+            } else if (lineStartsWith("MemAvailable:")) {
+                available = nextLong();
+            } else if (lineStartsWith("MemFree:")) {
+                free = nextLong();
+            } else if (lineStartsWith("Buffers:")) {
+                buffers = nextLong();
+            } else if (lineStartsWith("Cached:")) {
+                cached = nextLong();
+            }
+            nextLine();
+        }
+        if (total < 0) {
+            throw new IOException("meminfo中缺少MemTotal");
+        }
+        if (available < 0) {
+            available = free + buffers + cached;
+        }
+        // meminfo单位为kB
+        return new Memory(total * 1024, available * 1024);
+    }
+
+    /**
+     * 1、5、15分钟平均负载
+     */
+    public double[] loadAverage() throws IOException {
+        read(procRoot.resolve("loadavg"));
+        return new double[]{nextDouble(), nextDouble(), nextDouble()};
+    }
+
+    /**
+     * 各网卡的累计字节数、包数和自上次调用以来的速率
+     * 返回的统计对象在调用间复用，已消失的网卡会被移除
+     */
+    public Collection<InterfaceStats> network() throws IOException {
+        long now = System.nanoTime();
+        double seconds = lastNetworkSample > 0 ? (now - lastNetworkSample) / 1e9 : 0;
+        lastNetworkSample = now;
+
+        read(procRoot.resolve("net/dev"));
+        // 前两行为表头
+        nextLine();
+        nextLine();
+        interfaces.values().forEach(stats -> stats.present = false);
+        while (pos < length) {
+            String name = interfaceName();
+            if (name != null) {
+                // Receive: bytes packets errs drop fifo frame compressed multicast
+                // Transmit: bytes packets errs drop fifo colls carrier compressed
+                long rxBytes = nextLong();
+                long rxPackets = nextLong();
+                for (int i = 0; i < 6; i++) {
+                    nextLong();
+                }
+                long txBytes = nextLong();
+                long txPackets = nextLong();
+                interfaces.computeIfAbsent(name, InterfaceStats::new)
+                        .update(rxBytes, rxPackets, txBytes, txPackets, seconds);
+            }
+            nextLine();
+        }
+        interfaces.values().removeIf(stats -> !stats.present);
+        return interfaces();
+    }
+
+    /**
+     * 最近一次network()采样的网卡统计，不重新读取
+     */
+    public Collection<InterfaceStats> interfaces() {
+        return Collections.unmodifiableCollection(interfaces.values());
+    }
+
+    /**
+     * 是否有进程名（/proc/[pid]/comm，内核截断为15个字符）为name的进程在运行
+     */
+    public boolean isProcessRunning(String name) throws IOException {
+        try (DirectoryStream<Path> processes = Files.newDirectoryStream(procRoot, LinuxProcCollector::isPid)) {
+            for (Path process : processes) {
+                try {
+                    read(process.resolve("comm"));
+                } catch (IOException e) {
+                    // 进程在遍历期间退出
+                    continue;
+                }
+                int end = length;
+                while (end > 0 && (data[end - 1] == '\n' || data[end - 1] == ' ')) {
+                    end--;
+                }
+                if (regionEquals(0, end, name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPid(Path path) {
+        String name = path.getFileName().toString();
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return !name.isEmpty();
+    }
+
+    /**
+     * 把文件完整读入复用的缓冲区
+     * /proc文件的大小显示为0，只能读到EOF为止，缓冲区写满时加倍
+     */
+    private void read(Path file) throws IOException {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file)) {
+            while (channel.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                    data = buffer.array();
+                }
+            }
+        }
+        length = buffer.position();
+        pos = 0;
+    }
+
+    private void skipSpaces() {
+        while (pos < length && (data[pos] == ' ' || data[pos] == '\t')) {
+            pos++;
+        }
+    }
+
+    private void skipToken() {
+        skipSpaces();
+        while (pos < length && data[pos] != ' ' && data[pos] != '\t' && data[pos] != '\n') {
+            pos++;
+        }
+    }
+
+    private void nextLine() {
+        while (pos < length && data[pos] != '\n') {
+            pos++;
+        }
+        if (pos < length) {
+            pos++;
+        }
+    }
+
+    private boolean hasNumber() {
+        skipSpaces();
+        return pos < length && data[pos] >= '0' && data[pos] <= '9';
+    }
+
+    private long nextLong() {
+        skipSpaces();
+        long value = 0;
+        while (pos < length && data[pos] >= '0' && data[pos] <= '9') {
+            value = value * 10 + (data[pos++] - '0');
+        }
+        return value;
+    }
+
+    private double nextDouble() {
+        long integer = nextLong();
+        if (pos >= length || data[pos] != '.') {
+            return integer;
+        }
+        pos++;
+        long fraction = 0;
+        long scale = 1;
+        while (pos < length && data[pos] >= '0' && data[pos] <= '9') {
+            fraction = fraction * 10 + (data[pos++] - '0');
+            scale *= 10;
+        }
+        return integer + (double) fraction / scale;
+    }
+
+    private boolean lineStartsWith(String prefix) {
+        if (!regionEquals(pos, Math.min(length, pos + prefix.length()), prefix)) {
+            return false;
+        }
+        pos += prefix.length();
+        return true;
+    }
+
+    private boolean regionEquals(int from, int to, String text) {
+        if (to - from != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (data[from + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取net/dev行首的网卡名（冒号之前，冒号后可能紧跟数字），空行返回null
+     */
+    private String interfaceName() {
+        skipSpaces();
+        int start = pos;
+        while (pos < length && data[pos] != ':' && data[pos] != '\n') {
+            pos++;
+        }
+        if (pos >= length || data[pos] != ':' || pos == start) {
+            return null;
+        }
+        String name = new String(data, start, pos - start, StandardCharsets.US_ASCII).trim();
+        pos++;
+        return name;
+    }
+
+    /**
+     * 物理内存（字节）
+     */
+    public record Memory(long total, long available) {
+
+        public long used() {
+            return total - available;
+        }
+
+        public double usage() {
+            return total > 0 ? (double) used() / total * 100 : 0.0;
+        }
+    }
+
+    /**
+     * 单个网卡的累计计数和速率（字节/秒），首次采样时速率为0
+     */
+    public static final class InterfaceStats {
+
+        private final String name;
+        private long rxBytes;
+        private long rxPackets;
+        private long txBytes;
+        private long txPackets;
+        private long rxRate;
+        private long txRate;
+        private boolean sampled;
+        private boolean present;
+
+        private InterfaceStats(String name) {
+            this.name = name;
+        }
+
+        private void update(long rxBytes, long rxPackets, long txBytes, long txPackets, double seconds) {
+            if (sampled && seconds > 0) {
+                rxRate = rate(this.rxBytes, rxBytes, seconds);
+                txRate = rate(this.txBytes, txBytes, seconds);
+            }
+            this.rxBytes = rxBytes;
+            this.rxPackets = rxPackets;
+            this.txBytes = txBytes;
+            this.txPackets = txPackets;
+            this.sampled = true;
+            this.present = true;
+        }
+
+        // 计数器回绕或网卡重置后从0重新计
+        private static long rate(long previous, long current, double seconds) {
+            long delta = current >= previous ? current - previous : current;
+            return (long) (delta / seconds);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getRxBytes() {
+            return rxBytes;
+        }
+
+        public long getRxPackets() {
+            return rxPackets;
+        }
+
+        public long getTxBytes() {
+            return txBytes;
+        }
+
+        public long getTxPackets() {
+            return txPackets;
+        }
+
+        public long getRxRate() {
+            return rxRate;
+        }
+
+        public long getTxRate() {
+            return txRate;
+        }
+
+        /**
+         * 回环网卡，汇总流量时排除
+         */
+        public boolean isLoopback() {
+            return "lo".equals(name);
+        }
+    }
+}
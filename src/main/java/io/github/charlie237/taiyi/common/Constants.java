@@ -58,6 +58,10 @@ public class Constants {
         public static final String HEARTBEAT = "heartbeat";
         public static final String STATUS_UPDATE = "status_update";
         public static final String ROUTE_CONFIG = "route_config";
+        public static final String ROUTE_CONFIG_ACK = "route_config_ack";
+        public static final String ROUTE_CONFIG_RESYNC = "route_config_resync";
+        public static final String DASHBOARD_SNAPSHOT = "dashboard_snapshot";
+        public static final String DASHBOARD_DELTA = "dashboard_delta";
         public static final String TUNNEL_START = "tunnel_start";
         public static final String TUNNEL_STOP = "tunnel_stop";
         public static final String ERROR = "error";
@@ -1,79 +1,211 @@
 package io.github.charlie237.taiyi.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 异步配置
+ * 按负载类型划分执行器：
+ * taskExecutor 通用；ingestExecutor 节点上报（心跳、状态、硬件指标）入库；
+ * websocketExecutor 向节点和管理面板广播；zrokExecutor zrok控制器HTTP调用。
+ * 审计日志由AuditLogWriter的专用写入线程处理，不占用这里的执行器。
+ *
+ * 所有执行器队列满时直接拒绝并计数（executor.rejected），由调用方决定丢弃或返回错误，
+ * 不会把入库、网络IO等重活回落到WebSocket或Tomcat线程上执行。
+ * 线程池状态通过ExecutorServiceMetrics暴露（executor.active/queued/pool.size/completed），
+ * 任务排队时间和执行时间分别记录为executor.idle和executor，均以name标签区分执行器。
+ *
+ * spring.threads.virtual.enabled=true（需Java 21，见virtual配置文件）时各执行器改为每任务一个虚拟线程，
+ * 不再有固定线程数和排队；需要保护下游的执行器改用并发上限。
+ * 同一开关下Spring Boot会让Tomcat请求线程和@Scheduled调度器也使用虚拟线程
  */
 @Slf4j
 @Configuration
 @EnableAsync
 public class AsyncConfig {
     
+    private final boolean virtualThreads;
+    private final TaiyiProperties taiyiProperties;
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                       TaiyiProperties taiyiProperties,
+                       MeterRegistry meterRegistry) {
+        this.virtualThreads = virtualThreads;
+        this.taiyiProperties = taiyiProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
-     * 审计日志异步执行器
+     * 通用异步执行器
      */
-    @Bean("auditLogExecutor")
-    public Executor auditLogExecutor() {
+    @Bean("taskExecutor")
+    public Executor taskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("taskExecutor", "task-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY, false);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(5);
+        executor.setMaxPoolSize(10);
+        executor.setQueueCapacity(200);
         executor.setKeepAliveSeconds(60);
-        executor.setThreadNamePrefix("audit-log-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("task-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
+        instrument(executor, "taskExecutor");
         
-        log.info("审计日志异步执行器初始化完成");
+        log.info("通用异步执行器初始化完成");
         return executor;
     }
     
     /**
-     * 通用异步执行器
+     * 节点上报处理执行器
+     * WebSocket线程只解析消息，心跳、状态和硬件指标的入库在这里执行；队列满时丢弃该次上报，节点下个周期会再次上报
      */
-    @Bean("taskExecutor")
-    public Executor taskExecutor() {
+    @Bean("ingestExecutor")
+    public Executor ingestExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("ingestExecutor", "ingest-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY, false);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(200);
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(1000);
         executor.setKeepAliveSeconds(60);
-        executor.setThreadNamePrefix("task-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("ingest-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
+        instrument(executor, "ingestExecutor");
         
-        log.info("通用异步执行器初始化完成");
+        log.info("节点上报执行器初始化完成");
         return executor;
     }
     
     /**
-     * WebSocket消息处理执行器
+     * WebSocket广播执行器
+     * 向节点和管理面板扇出消息，每个会话一个任务，慢连接不会拖住调度线程；队列满时丢弃该会话本次消息
      */
     @Bean("websocketExecutor")
     public Executor websocketExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("websocketExecutor", "websocket-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY, false);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(3);
         executor.setMaxPoolSize(8);
-        executor.setQueueCapacity(150);
+        executor.setQueueCapacity(1000);
         executor.setKeepAliveSeconds(60);
         executor.setThreadNamePrefix("websocket-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
+        instrument(executor, "websocketExecutor");
         
         log.info("WebSocket异步执行器初始化完成");
         return executor;
     }
+    
+    /**
+     * zrok控制器调用执行器
+     * 队列满时直接拒绝，由调用方快速失败，避免阻塞式HTTP调用回落到Tomcat请求线程
+     * 虚拟线程模式下并发数以zrok连接池大小为上限，超出时同样直接拒绝
+     */
+    @Bean("zrokExecutor")
+    public Executor zrokExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("zrokExecutor", "zrok-io-",
+                    taiyiProperties.getZrok().getApi().getMaxConnections(), true);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(32);
+        executor.setQueueCapacity(500);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("zrok-io-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        instrument(executor, "zrokExecutor");
+        
+        log.info("zrok调用执行器初始化完成");
+        return executor;
+    }
+
+    /**
+     * 虚拟线程执行器：每个任务一个虚拟线程
+     * concurrencyLimit限制同时执行的任务数，reject为true时超限直接拒绝，否则提交方等待
+     */
+    private Executor virtualThreadExecutor(String name, String threadNamePrefix, int concurrencyLimit, boolean reject) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(timed(name));
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setRejectTasksWhenLimitReached(reject);
+        executor.setTaskTerminationTimeout(30_000);
+
+        log.info("虚拟线程执行器初始化完成: {} 并发上限 {}", threadNamePrefix,
+                concurrencyLimit == SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY ? "无" : concurrencyLimit);
+        return executor;
+    }
+
+    /**
+     * 设置计数拒绝策略和任务计时后初始化，并注册线程池指标
+     */
+    private void instrument(ThreadPoolTaskExecutor executor, String name) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("Tasks rejected because the executor queue was full")
+                .tag("name", name)
+                .register(meterRegistry);
+        executor.setRejectedExecutionHandler(rejectAndCount(rejected, name));
+        executor.setTaskDecorator(timed(name));
+        executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * 记录任务排队时间（提交到开始执行）和执行时间
+     */
+    private TaskDecorator timed(String name) {
+        Timer idle = Timer.builder("executor.idle")
+                .description("Time tasks spend queued before execution")
+                .tag("name", name)
+                .register(meterRegistry);
+        Timer execution = Timer.builder("executor")
+                .description("Task execution time")
+                .tag("name", name)
+                .register(meterRegistry);
+        return task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                long start = System.nanoTime();
+                idle.record(start - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    execution.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            };
+        };
+    }
+
+    private static RejectedExecutionHandler rejectAndCount(Counter rejected, String name) {
+        return (task, executor) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("执行器队列已满: " + name);
+        };
+    }
 }
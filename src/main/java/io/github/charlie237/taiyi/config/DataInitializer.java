@@ -2,10 +2,12 @@ package io.github.charlie237.taiyi.config;
 
 import io.github.charlie237.taiyi.common.Constants;
 import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.event.UserChangeEvent;
 import io.github.charlie237.taiyi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -19,6 +21,7 @@ public class DataInitializer implements CommandLineRunner {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     public void run(String... args) throws Exception {
@@ -38,7 +41,9 @@ public class DataInitializer implements CommandLineRunner {
             admin.setRole(User.Role.ADMIN);
             admin.setStatus(User.Status.ACTIVE);
             
-            userRepository.save(admin);
+            User savedAdmin = userRepository.save(admin);
+            // 与UserService一致发布变更事件，搜索索引等订阅方据此收录
+            eventPublisher.publishEvent(new UserChangeEvent(savedAdmin.getId(), savedAdmin.getStatus()));
             log.info("默认管理员用户创建成功: {}", Constants.System.DEFAULT_ADMIN_USERNAME);
         } else {
             log.info("管理员用户已存在，跳过初始化");
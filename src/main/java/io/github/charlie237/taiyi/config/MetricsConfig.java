@@ -1,21 +1,37 @@
 package io.github.charlie237.taiyi.config;
 
+import io.github.charlie237.taiyi.entity.Tunnel;
+import io.github.charlie237.taiyi.service.TrafficMeter;
+import io.github.charlie237.taiyi.service.TunnelRegistry;
+import io.github.charlie237.taiyi.websocket.NodeWebSocketHandler;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
+
 /**
  * 监控指标配置
+ * 计量器只读取内存状态（节点WebSocket会话、流量计量器、隧道注册表），抓取时不查询数据库；
+ * 依赖的组件通过ObjectProvider在抓取时获取，避免与注入这里计数器的组件形成循环依赖。
+ * 标签只使用取值有限的枚举（方向、协议、隧道状态）；按节点、路由拆分的流量序列由TrafficMeter按top-K导出
  */
 @Configuration
 @RequiredArgsConstructor
 public class MetricsConfig {
     
     private final MeterRegistry meterRegistry;
+    private final ObjectProvider<NodeWebSocketHandler> nodeWebSocketHandler;
+    private final ObjectProvider<TunnelRegistry> tunnelRegistry;
+    private final ObjectProvider<TrafficMeter> trafficMeter;
     
     /**
      * 用户登录计数器
@@ -28,7 +44,7 @@ public class MetricsConfig {
     }
     
     /**
-     * 节点连接计数器
+     * 节点连接计数器，节点WebSocket连接建立时递增
      */
     @Bean
     public Counter nodeConnectionCounter() {
@@ -38,7 +54,7 @@ public class MetricsConfig {
     }
     
     /**
-     * 隧道创建计数器
+     * 隧道创建计数器，zrok隧道创建成功并激活时递增
      */
     @Bean
     public Counter tunnelCreationCounter() {
@@ -48,27 +64,28 @@ public class MetricsConfig {
     }
     
     /**
-     * API请求计时器
+     * API请求计时器，按method/uri/status标签区分，由RequestTimingFilter记录
      */
     @Bean
-    public Timer apiRequestTimer() {
+    public Meter.MeterProvider<Timer> apiRequestTimer() {
         return Timer.builder("taiyi.api.request.duration")
                 .description("API request duration")
-                .register(meterRegistry);
+                .withRegistry(meterRegistry);
     }
     
     /**
-     * 数据传输量计数器
+     * 数据传输量计数器，按direction（in/out）和节点protocol标签区分，由节点状态上报累加
      */
     @Bean
-    public Counter dataTransferCounter() {
+    public Meter.MeterProvider<Counter> dataTransferCounter() {
         return Counter.builder("taiyi.data.transfer.bytes")
                 .description("Total data transfer in bytes")
-                .register(meterRegistry);
+                .baseUnit("bytes")
+                .withRegistry(meterRegistry);
     }
     
     /**
-     * 活跃连接数量计量器
+     * 活跃连接数量计量器：各在线节点最近一次上报的连接数之和
      */
     @Bean
     public Gauge activeConnectionsGauge() {
@@ -78,7 +95,17 @@ public class MetricsConfig {
     }
 
     /**
-     * 在线节点数量计量器
+     * 单节点最大连接数计量器，用于发现热点节点而不必按节点拆分序列
+     */
+    @Bean
+    public Gauge maxNodeConnectionsGauge() {
+        return Gauge.builder("taiyi.node.connections.max", this, MetricsConfig::getMaxNodeConnections)
+                .description("Highest connection count reported by a single node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在线节点数量计量器：当前保持WebSocket连接的节点数
      */
     @Bean
     public Gauge onlineNodesGauge() {
@@ -86,20 +113,51 @@ public class MetricsConfig {
                 .description("Number of online nodes")
                 .register(meterRegistry);
     }
+
+    /**
+     * 隧道数量计量器，按state标签区分
+     */
+    @Bean
+    public MultiGauge tunnelsGauge() {
+        MultiGauge gauge = MultiGauge.builder("taiyi.tunnels")
+                .description("Number of tunnels by state")
+                .register(meterRegistry);
+        gauge.register(Arrays.stream(Tunnel.State.values())
+                .map(state -> MultiGauge.Row.of(Tags.of("state", state.name()), this,
+                        config -> config.getTunnelCount(state)))
+                .toList());
+        return gauge;
+    }
     
     /**
-     * 获取活跃连接数（示例实现）
+     * 获取活跃连接数
      */
     private static double getActiveConnections(MetricsConfig config) {
-        // 这里应该从实际的连接管理器获取数据
-        return 0.0;
+        TrafficMeter meter = config.trafficMeter.getIfAvailable();
+        return meter != null ? meter.activeConnections() : 0.0;
+    }
+
+    /**
+     * 获取单节点最大连接数
+     */
+    private static double getMaxNodeConnections(MetricsConfig config) {
+        TrafficMeter meter = config.trafficMeter.getIfAvailable();
+        return meter != null ? meter.maxNodeConnections() : 0.0;
     }
     
     /**
-     * 获取在线节点数（示例实现）
+     * 获取在线节点数
      */
     private static double getOnlineNodes(MetricsConfig config) {
-        // 这里应该从节点服务获取数据
-        return 0.0;
+        NodeWebSocketHandler handler = config.nodeWebSocketHandler.getIfAvailable();
+        return handler != null ? handler.getOnlineNodeCount() : 0.0;
+    }
+
+    /**
+     * 获取指定状态的隧道数
+     */
+    private double getTunnelCount(Tunnel.State state) {
+        TunnelRegistry registry = tunnelRegistry.getIfAvailable();
+        return registry != null ? registry.countByState(state) : 0.0;
     }
 }
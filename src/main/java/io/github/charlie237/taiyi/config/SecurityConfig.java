@@ -3,6 +3,7 @@ package io.github.charlie237.taiyi.config;
 import io.github.charlie237.taiyi.filter.RateLimitFilter;
 import io.github.charlie237.taiyi.security.ApiTokenAuthenticationFilter;
 import io.github.charlie237.taiyi.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -46,6 +47,8 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // 异步请求的二次分发已在首次请求时完成鉴权
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         // 公开接口
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/public/**").permitAll()
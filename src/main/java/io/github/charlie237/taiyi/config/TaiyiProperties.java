@@ -3,6 +3,7 @@ package io.github.charlie237.taiyi.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
 
@@ -43,6 +44,11 @@ public class TaiyiProperties {
      * zrok集成配置
      */
     private Zrok zrok = new Zrok();
+
+    /**
+     * 审计日志配置
+     */
+    private Audit audit = new Audit();
     
     @Data
     public static class Jwt {
@@ -59,6 +65,9 @@ public class TaiyiProperties {
         private Duration connectionTimeout = Duration.ofSeconds(60);
         private boolean compressionEnabled = false;
         private boolean encryptionEnabled = false;
+        private Duration statusCacheTtl = Duration.ofSeconds(5); // 隧道状态/流量查询结果缓存时间
+        private int batchConcurrency = 16; // 批量查询时对zrok的最大并发请求数
+        private Duration reconcileInterval = Duration.ofSeconds(30); // 隧道期望状态对账间隔
         
         @Data
         public static class PortRange {
@@ -100,6 +109,47 @@ public class TaiyiProperties {
         private boolean metricsEnabled = true;
         private boolean healthCheckEnabled = true;
         private Duration metricsInterval = Duration.ofSeconds(30);
+        private Duration countersReconcileInterval = Duration.ofMinutes(5); // 仪表盘计数器与数据库对账间隔
+        private Duration dashboardPushInterval = Duration.ofSeconds(1); // 管理端实时面板推送的最小间隔
+        private Duration trafficRateInterval = Duration.ofSeconds(5); // 节点/路由流量速率采样间隔
+        private Duration trafficFlushInterval = Duration.ofSeconds(30); // 节点/路由流量统计批量入库间隔
+        private int trafficTopK = 10; // 导出独立流量序列的节点/路由数上限，其余合并为other
+    }
+    
+    @Data
+    public static class Audit {
+        private Mode mode = Mode.QUEUE; // 写入方式
+        private int queueCapacity = 10000; // 内存缓冲队列容量
+        private int batchSize = 200; // 单次批量写入的最大条数
+        private Duration flushInterval = Duration.ofSeconds(1); // 队列未满一批时的最长等待时间
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK; // 队列满时的处理策略
+        private Duration blockTimeout = Duration.ofMillis(100); // BLOCK策略下请求线程的最长等待时间，超时后丢弃
+        private String spillFile = "data/audit-spill.log"; // SPILL策略下的本地溢出文件，启动时回放
+        private String journalDir = "data/audit-journal"; // JOURNAL模式下的日志文件目录
+        private DataSize segmentSize = DataSize.ofMegabytes(64); // JOURNAL模式下单个段文件大小
+        private RequestLog requestLog = new RequestLog();
+
+        public enum Mode {
+            QUEUE,   // 内存队列批量入库
+            JOURNAL  // 先追加到本地日志文件，再由后台线程入库
+        }
+
+        /**
+         * 请求审计：按HTTP方法和URI模板选择需要记录的请求
+         */
+        @Data
+        public static class RequestLog {
+            private boolean enabled = true;
+            private String[] methods = {"POST", "PUT", "PATCH", "DELETE"};
+            private String[] excludePaths = {"/auth/**", "/nodes/*/heartbeat", "/api/node-monitoring/*/status"}; // 按处理器的URI模板匹配（Ant风格，不含上下文路径）
+            private boolean includeQueryString = false; // 是否记录查询字符串（token/password等参数值会被掩码）
+        }
+
+        public enum OverflowPolicy {
+            BLOCK,       // 阻塞请求线程等待空位
+            DROP_OLDEST, // 丢弃队列中最早的一条
+            SPILL        // 写入本地溢出文件
+        }
     }
     
     @Data
@@ -132,6 +182,16 @@ public class TaiyiProperties {
             private String baseUrl = "http://localhost:18080";
             private String token = "";
             private int timeout = 30000; // 30秒超时
+            private int connectTimeout = 5000; // 5秒连接超时
+            private int connectionRequestTimeout = 2000; // 从连接池获取连接的等待时间
+            private int maxConnections = 200; // 连接池最大连接数
+            private int maxConnectionsPerRoute = 50; // 每个目标地址最大连接数
+            private Duration idleTimeout = Duration.ofSeconds(60); // 空闲连接回收时间
+            private Duration asyncTimeout = Duration.ofSeconds(45); // 异步调用总超时（含重试）
+            private int maxRetries = 2; // 失败后最大重试次数
+            private Duration retryBackoff = Duration.ofMillis(200); // 重试退避基准时间（指数退避+随机抖动）
+            private int circuitFailureThreshold = 5; // 连续失败多少次后熔断
+            private Duration circuitOpenDuration = Duration.ofSeconds(30); // 熔断持续时间
         }
 
         @Data
@@ -1,5 +1,8 @@
 package io.github.charlie237.taiyi.config;
 
+import io.github.charlie237.taiyi.common.Constants;
+import io.github.charlie237.taiyi.websocket.AdminHandshakeInterceptor;
+import io.github.charlie237.taiyi.websocket.AdminWebSocketHandler;
 import io.github.charlie237.taiyi.websocket.NodeWebSocketHandler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +19,8 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
     
     private final NodeWebSocketHandler nodeWebSocketHandler;
+    private final AdminWebSocketHandler adminWebSocketHandler;
+    private final AdminHandshakeInterceptor adminHandshakeInterceptor;
     
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
@@ -23,8 +28,9 @@ public class WebSocketConfig implements WebSocketConfigurer {
         registry.addHandler(nodeWebSocketHandler, "/ws/node")
                 .setAllowedOrigins("*"); // 生产环境中应该限制允许的源
         
-        // 可以添加更多的WebSocket处理器
-        // registry.addHandler(adminWebSocketHandler, "/ws/admin")
-        //         .setAllowedOrigins("*");
+        // 注册管理端实时面板处理器，握手时校验管理员JWT
+        registry.addHandler(adminWebSocketHandler, Constants.WebSocket.ADMIN_ENDPOINT)
+                .addInterceptors(adminHandshakeInterceptor)
+                .setAllowedOrigins("*");
     }
 }
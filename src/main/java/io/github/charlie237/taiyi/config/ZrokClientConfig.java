@@ -0,0 +1,81 @@
+package io.github.charlie237.taiyi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * zrok控制器HTTP客户端配置
+ * 使用带连接池的Apache HttpClient 5，突发创建隧道时复用长连接，避免每次调用重新建立TCP连接
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class ZrokClientConfig {
+
+    private final TaiyiProperties taiyiProperties;
+
+    /**
+     * zrok连接池，并将连接池饱和度（leased/available/pending/max）注册到监控
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager zrokConnectionManager(MeterRegistry meterRegistry) {
+        TaiyiProperties.Zrok.Api api = taiyiProperties.getZrok().getApi();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(api.getMaxConnections())
+                .setMaxConnPerRoute(api.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(api.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(api.getTimeout()))
+                        // 空闲超过2秒的连接在复用前先校验，避免拿到已被服务端关闭的连接
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "zrok").bindTo(meterRegistry);
+
+        log.info("zrok连接池初始化完成: maxTotal={}, maxPerRoute={}",
+                api.getMaxConnections(), api.getMaxConnectionsPerRoute());
+        return connectionManager;
+    }
+
+    /**
+     * zrok HTTP客户端
+     */
+    @Bean
+    public CloseableHttpClient zrokHttpClient(PoolingHttpClientConnectionManager zrokConnectionManager) {
+        TaiyiProperties.Zrok.Api api = taiyiProperties.getZrok().getApi();
+
+        return HttpClients.custom()
+                .setConnectionManager(zrokConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(api.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(api.getTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(api.getIdleTimeout().toMillis()))
+                .build();
+    }
+
+    /**
+     * zrok专用RestTemplate
+     */
+    @Bean
+    public RestTemplate zrokRestTemplate(CloseableHttpClient zrokHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(zrokHttpClient));
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.charlie237.taiyi.controller;
 
 import io.github.charlie237.taiyi.common.ApiResponse;
+import io.github.charlie237.taiyi.dto.ApiTokenView;
+import io.github.charlie237.taiyi.dto.CursorPage;
 import io.github.charlie237.taiyi.entity.ApiToken;
 import io.github.charlie237.taiyi.entity.User;
 import io.github.charlie237.taiyi.service.ApiTokenService;
@@ -47,11 +49,9 @@ public class ApiTokenController {
     
     @GetMapping
     @Operation(summary = "获取用户Token列表", description = "获取当前用户的所有API Token")
-    public ApiResponse<List<ApiToken>> getUserTokens(@AuthenticationPrincipal User user) {
+    public ApiResponse<List<ApiTokenView>> getUserTokens(@AuthenticationPrincipal User user) {
         try {
-            List<ApiToken> tokens = apiTokenService.getUserTokens(user);
-            // 清除敏感信息
-            tokens.forEach(token -> token.setTokenSecret(null));
+            List<ApiTokenView> tokens = apiTokenService.getUserTokenViews(user.getId());
             return ApiResponse.success(tokens);
         } catch (Exception e) {
             log.error("获取用户Token列表失败", e);
@@ -61,18 +61,16 @@ public class ApiTokenController {
     
     @GetMapping("/{id}")
     @Operation(summary = "获取Token详情", description = "获取指定Token的详细信息")
-    public ApiResponse<ApiToken> getToken(@PathVariable Long id, @AuthenticationPrincipal User user) {
+    public ApiResponse<ApiTokenView> getToken(@PathVariable Long id, @AuthenticationPrincipal User user) {
         try {
-            ApiToken token = apiTokenService.findById(id)
+            ApiTokenView token = apiTokenService.findViewById(id)
                     .orElseThrow(() -> new RuntimeException("Token不存在"));
             
             // 检查权限
-            if (!token.getUser().getId().equals(user.getId())) {
+            if (!token.userId().equals(user.getId())) {
                 return ApiResponse.error("无权访问此Token");
             }
             
-            // 清除敏感信息
-            token.setTokenSecret(null);
             return ApiResponse.success(token);
         } catch (Exception e) {
             log.error("获取Token详情失败", e);
@@ -166,12 +164,22 @@ public class ApiTokenController {
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "获取所有Token", description = "管理员获取所有Token列表")
-    public ApiResponse<Page<ApiToken>> getAllTokens(Pageable pageable) {
+    public ApiResponse<Page<ApiTokenView>> getAllTokens(Pageable pageable) {
         try {
-            Page<ApiToken> tokens = apiTokenService.getTokens(pageable);
-            // 清除敏感信息
-            tokens.getContent().forEach(token -> token.setTokenSecret(null));
-            return ApiResponse.success(tokens);
+            return ApiResponse.success(apiTokenService.findViews(pageable));
+        } catch (Exception e) {
+            log.error("获取所有Token失败", e);
+            return ApiResponse.error("获取Token列表失败");
+        }
+    }
+    
+    @GetMapping("/admin/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "游标分页获取所有Token", description = "按ID倒序的游标分页，cursor为上一页返回的nextCursor，首页不传")
+    public ApiResponse<CursorPage<ApiTokenView>> getTokensByCursor(@RequestParam(required = false) Long cursor,
+                                                                   @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ApiResponse.success(CursorPage.of(apiTokenService.findAfter(cursor, size), ApiTokenView::id, token -> token));
         } catch (Exception e) {
             log.error("获取所有Token失败", e);
             return ApiResponse.error("获取Token列表失败");
@@ -204,7 +212,7 @@ public class ApiTokenController {
             
             Map<String, Object> stats = Map.of(
                     "activeTokens", activeTokens,
-                    "totalTokens", apiTokenService.getTokens(Pageable.unpaged()).getTotalElements()
+                    "totalTokens", apiTokenService.countTokens()
             );
             
             return ApiResponse.success(stats);
@@ -1,8 +1,7 @@
 package io.github.charlie237.taiyi.controller;
 
 import io.github.charlie237.taiyi.common.ApiResponse;
-import io.github.charlie237.taiyi.service.NodeService;
-import io.github.charlie237.taiyi.service.RouteService;
+import io.github.charlie237.taiyi.service.DashboardCounters;
 import io.github.charlie237.taiyi.service.UserService;
 import io.github.charlie237.taiyi.websocket.NodeWebSocketHandler;
 import io.swagger.v3.oas.annotations.Operation;
@@ -27,8 +26,7 @@ import java.util.Map;
 public class DashboardController {
     
     private final UserService userService;
-    private final NodeService nodeService;
-    private final RouteService routeService;
+    private final DashboardCounters dashboardCounters;
     private final NodeWebSocketHandler nodeWebSocketHandler;
     
     @GetMapping("/stats")
@@ -38,17 +36,17 @@ public class DashboardController {
             Map<String, Object> stats = new HashMap<>();
             
             // 用户统计
-            stats.put("totalUsers", userService.countUsers());
-            stats.put("activeUsers", userService.countActiveUsers());
+            stats.put("totalUsers", dashboardCounters.totalUsers());
+            stats.put("activeUsers", dashboardCounters.activeUsers());
             
             // 节点统计
-            stats.put("totalNodes", nodeService.countNodes());
-            stats.put("onlineNodes", nodeService.countOnlineNodes());
+            stats.put("totalNodes", dashboardCounters.totalNodes());
+            stats.put("onlineNodes", dashboardCounters.onlineNodes());
             stats.put("connectedNodes", nodeWebSocketHandler.getOnlineNodeCount());
             
             // 路由统计
-            stats.put("totalRoutes", routeService.countRoutes());
-            stats.put("activeRoutes", routeService.countActiveRoutes());
+            stats.put("totalRoutes", dashboardCounters.totalRoutes());
+            stats.put("activeRoutes", dashboardCounters.activeRoutes());
             
             // 系统信息
             Runtime runtime = Runtime.getRuntime();
@@ -2,8 +2,7 @@ package io.github.charlie237.taiyi.controller;
 
 import io.github.charlie237.taiyi.common.ApiResponse;
 import io.github.charlie237.taiyi.service.AuditLogService;
-import io.github.charlie237.taiyi.service.NodeService;
-import io.github.charlie237.taiyi.service.RouteService;
+import io.github.charlie237.taiyi.service.DashboardCounters;
 import io.github.charlie237.taiyi.service.UserService;
 import io.github.charlie237.taiyi.websocket.NodeWebSocketHandler;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -32,8 +31,7 @@ import java.util.Map;
 public class MonitoringController {
     
     private final UserService userService;
-    private final NodeService nodeService;
-    private final RouteService routeService;
+    private final DashboardCounters dashboardCounters;
     private final AuditLogService auditLogService;
     private final NodeWebSocketHandler nodeWebSocketHandler;
     private final MeterRegistry meterRegistry;
@@ -96,12 +94,12 @@ public class MonitoringController {
             Map<String, Object> metrics = new HashMap<>();
             
             // 业务指标
-            metrics.put("totalUsers", userService.countUsers());
-            metrics.put("activeUsers", userService.countActiveUsers());
-            metrics.put("totalNodes", nodeService.countNodes());
-            metrics.put("onlineNodes", nodeService.countOnlineNodes());
-            metrics.put("totalRoutes", routeService.countRoutes());
-            metrics.put("activeRoutes", routeService.countActiveRoutes());
+            metrics.put("totalUsers", dashboardCounters.totalUsers());
+            metrics.put("activeUsers", dashboardCounters.activeUsers());
+            metrics.put("totalNodes", dashboardCounters.totalNodes());
+            metrics.put("onlineNodes", dashboardCounters.onlineNodes());
+            metrics.put("totalRoutes", dashboardCounters.totalRoutes());
+            metrics.put("activeRoutes", dashboardCounters.activeRoutes());
             metrics.put("connectedWebSockets", nodeWebSocketHandler.getOnlineNodeCount());
             
             // 性能指标
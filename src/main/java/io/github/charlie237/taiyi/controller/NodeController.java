@@ -1,19 +1,25 @@
 package io.github.charlie237.taiyi.controller;
 
 import io.github.charlie237.taiyi.common.ApiResponse;
+import io.github.charlie237.taiyi.dto.NodeView;
+import io.github.charlie237.taiyi.dto.PortCapacity;
 import io.github.charlie237.taiyi.entity.Node;
 import io.github.charlie237.taiyi.entity.User;
 import io.github.charlie237.taiyi.service.NodeService;
+import io.github.charlie237.taiyi.service.PortAllocator;
+import io.github.charlie237.taiyi.service.RouteConfigPushService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 节点控制器
@@ -26,12 +32,14 @@ import java.util.List;
 public class NodeController {
     
     private final NodeService nodeService;
+    private final PortAllocator portAllocator;
+    private final RouteConfigPushService routeConfigPushService;
     
     @GetMapping
     @Operation(summary = "获取节点列表", description = "获取当前用户的节点列表")
-    public ApiResponse<List<Node>> getNodes(@AuthenticationPrincipal User user) {
+    public ApiResponse<List<NodeView>> getNodes(@AuthenticationPrincipal User user) {
         try {
-            List<Node> nodes = nodeService.findByUser(user);
+            List<NodeView> nodes = nodeService.findViewsByUserId(user.getId());
             return ApiResponse.success(nodes);
         } catch (Exception e) {
             log.error("获取节点列表失败: {}", e.getMessage());
@@ -41,10 +49,10 @@ public class NodeController {
     
     @GetMapping("/page")
     @Operation(summary = "分页获取节点列表", description = "分页获取当前用户的节点列表")
-    public ApiResponse<Page<Node>> getNodesPage(@AuthenticationPrincipal User user, Pageable pageable) {
+    public ApiResponse<Page<NodeView>> getNodesPage(@AuthenticationPrincipal User user, Pageable pageable) {
         try {
             // 这里需要实现按用户分页查询，暂时返回所有节点
-            Page<Node> nodes = nodeService.findAll(pageable);
+            Page<NodeView> nodes = nodeService.findViews(pageable);
             return ApiResponse.success(nodes);
         } catch (Exception e) {
             log.error("分页获取节点列表失败: {}", e.getMessage());
@@ -54,9 +62,9 @@ public class NodeController {
     
     @GetMapping("/{id}")
     @Operation(summary = "获取节点详情", description = "根据ID获取节点详情")
-    public ApiResponse<Node> getNode(@PathVariable Long id) {
+    public ApiResponse<NodeView> getNode(@PathVariable Long id) {
         try {
-            Node node = nodeService.findById(id)
+            NodeView node = nodeService.findViewById(id)
                     .orElseThrow(() -> new RuntimeException("节点不存在"));
             return ApiResponse.success(node);
         } catch (Exception e) {
@@ -145,9 +153,9 @@ public class NodeController {
     
     @GetMapping("/online")
     @Operation(summary = "获取在线节点", description = "获取所有在线节点列表")
-    public ApiResponse<List<Node>> getOnlineNodes() {
+    public ApiResponse<List<NodeView>> getOnlineNodes() {
         try {
-            List<Node> nodes = nodeService.findOnlineNodes();
+            List<NodeView> nodes = nodeService.findOnlineViews();
             return ApiResponse.success(nodes);
         } catch (Exception e) {
             log.error("获取在线节点失败: {}", e.getMessage());
@@ -156,14 +164,52 @@ public class NodeController {
     }
     
     @GetMapping("/search")
-    @Operation(summary = "搜索节点", description = "根据关键字搜索节点")
-    public ApiResponse<List<Node>> searchNodes(@RequestParam String keyword) {
+    @Operation(summary = "搜索节点", description = "按名称、节点ID、描述全文搜索节点，支持前缀和模糊匹配")
+    public ApiResponse<List<NodeView>> searchNodes(@RequestParam String keyword,
+                                                   @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<Node> nodes = nodeService.searchNodes(keyword);
+            List<NodeView> nodes = nodeService.searchNodes(keyword, limit);
             return ApiResponse.success(nodes);
         } catch (Exception e) {
             log.error("搜索节点失败: {}", e.getMessage());
             return ApiResponse.error("搜索节点失败");
         }
     }
+    
+    @GetMapping("/ports/capacity")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "获取节点端口容量", description = "获取各节点远程端口的已用和剩余数量")
+    public ApiResponse<List<PortCapacity>> getPortCapacities() {
+        try {
+            return ApiResponse.success(portAllocator.capacities());
+        } catch (Exception e) {
+            log.error("获取节点端口容量失败: {}", e.getMessage());
+            return ApiResponse.error("获取节点端口容量失败");
+        }
+    }
+    
+    @GetMapping("/{id}/ports/capacity")
+    @PreAuthorize("hasRole('ADMIN') or @nodeService.isOwner(#id, authentication.name)")
+    @Operation(summary = "获取单个节点端口容量", description = "获取指定节点远程端口的已用和剩余数量")
+    public ApiResponse<PortCapacity> getPortCapacity(@PathVariable Long id) {
+        try {
+            nodeService.findById(id)
+                    .orElseThrow(() -> new RuntimeException("节点不存在"));
+            return ApiResponse.success(portAllocator.capacity(id));
+        } catch (Exception e) {
+            log.error("获取节点端口容量失败: {}", e.getMessage());
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/{id}/route-config")
+    @Operation(summary = "获取节点路由配置版本", description = "获取已下发给在线节点的路由配置版本和节点已确认的版本")
+    public ApiResponse<Map<String, Long>> getRouteConfigVersion(@PathVariable Long id) {
+        try {
+            return ApiResponse.success(routeConfigPushService.getVersions(id));
+        } catch (Exception e) {
+            log.error("获取节点路由配置版本失败: {}", e.getMessage());
+            return ApiResponse.error("获取节点路由配置版本失败");
+        }
+    }
 }
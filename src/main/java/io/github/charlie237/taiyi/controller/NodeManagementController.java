@@ -1,8 +1,11 @@
 package io.github.charlie237.taiyi.controller;
 
 import io.github.charlie237.taiyi.common.ApiResponse;
+import io.github.charlie237.taiyi.dto.CursorPage;
+import io.github.charlie237.taiyi.dto.NodeView;
 import io.github.charlie237.taiyi.entity.Node;
 import io.github.charlie237.taiyi.entity.NodeStatus;
+import io.github.charlie237.taiyi.service.DashboardCounters;
 import io.github.charlie237.taiyi.service.NodeService;
 import io.github.charlie237.taiyi.service.NodeStatusService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -32,6 +35,7 @@ public class NodeManagementController {
     
     private final NodeService nodeService;
     private final NodeStatusService nodeStatusService;
+    private final DashboardCounters dashboardCounters;
     
     @PostMapping("/register")
     @Operation(summary = "注册边缘节点", description = "边缘节点向控制中心注册")
@@ -128,9 +132,9 @@ public class NodeManagementController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "获取所有节点", description = "管理员获取所有边缘节点列表")
-    public ApiResponse<Page<Node>> getAllNodes(Pageable pageable) {
+    public ApiResponse<Page<NodeView>> getAllNodes(Pageable pageable) {
         try {
-            Page<Node> nodes = nodeService.getAllNodes(pageable);
+            Page<NodeView> nodes = nodeService.findViews(pageable);
             return ApiResponse.success(nodes);
         } catch (Exception e) {
             log.error("获取节点列表失败", e);
@@ -138,12 +142,25 @@ public class NodeManagementController {
         }
     }
     
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "游标分页获取所有节点", description = "按ID倒序的游标分页，cursor为上一页返回的nextCursor，首页不传")
+    public ApiResponse<CursorPage<NodeView>> getNodesByCursor(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ApiResponse.success(CursorPage.of(nodeService.findAfter(cursor, size), NodeView::id, node -> node));
+        } catch (Exception e) {
+            log.error("获取节点列表失败", e);
+            return ApiResponse.error("获取节点列表失败");
+        }
+    }
+    
     @GetMapping("/{nodeId}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "获取节点详情", description = "获取指定节点的详细信息")
-    public ApiResponse<Node> getNodeDetails(@PathVariable String nodeId) {
+    public ApiResponse<NodeView> getNodeDetails(@PathVariable String nodeId) {
         try {
-            Optional<Node> node = nodeService.findByNodeId(nodeId);
+            Optional<NodeView> node = nodeService.findViewByNodeId(nodeId);
             if (node.isPresent()) {
                 return ApiResponse.success(node.get());
             } else {
@@ -158,9 +175,9 @@ public class NodeManagementController {
     @GetMapping("/online")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "获取在线节点", description = "获取所有在线的边缘节点")
-    public ApiResponse<List<Node>> getOnlineNodes() {
+    public ApiResponse<List<NodeView>> getOnlineNodes() {
         try {
-            List<Node> onlineNodes = nodeService.getOnlineNodes();
+            List<NodeView> onlineNodes = nodeService.findOnlineViews();
             return ApiResponse.success(onlineNodes);
         } catch (Exception e) {
             log.error("获取在线节点失败", e);
@@ -173,8 +190,8 @@ public class NodeManagementController {
     @Operation(summary = "获取节点统计", description = "获取节点整体统计信息")
     public ApiResponse<Map<String, Object>> getNodeStats() {
         try {
-            long totalNodes = nodeService.countNodes();
-            long onlineNodes = nodeService.countOnlineNodes();
+            long totalNodes = dashboardCounters.totalNodes();
+            long onlineNodes = dashboardCounters.onlineNodes();
             long offlineNodes = totalNodes - onlineNodes;
             
             Map<String, Object> stats = Map.of(
@@ -1,12 +1,19 @@
 package io.github.charlie237.taiyi.controller;
 
 import io.github.charlie237.taiyi.common.ApiResponse;
+import io.github.charlie237.taiyi.dto.CursorPage;
+import io.github.charlie237.taiyi.dto.RouteBatchActivateRequest;
+import io.github.charlie237.taiyi.dto.RouteBatchItem;
+import io.github.charlie237.taiyi.dto.RouteBatchRequest;
+import io.github.charlie237.taiyi.dto.RouteSnapshot;
+import io.github.charlie237.taiyi.dto.RouteView;
 import io.github.charlie237.taiyi.entity.Node;
 import io.github.charlie237.taiyi.entity.Route;
 import io.github.charlie237.taiyi.service.NodeService;
 import io.github.charlie237.taiyi.service.RouteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -14,6 +21,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 路由控制器
@@ -30,9 +41,9 @@ public class RouteController {
     
     @GetMapping
     @Operation(summary = "获取路由列表", description = "获取所有路由列表")
-    public ApiResponse<Page<Route>> getRoutes(Pageable pageable) {
+    public ApiResponse<Page<RouteView>> getRoutes(Pageable pageable) {
         try {
-            Page<Route> routes = routeService.findAll(pageable);
+            Page<RouteView> routes = routeService.findViews(pageable);
             return ApiResponse.success(routes);
         } catch (Exception e) {
             log.error("获取路由列表失败: {}", e.getMessage());
@@ -40,11 +51,23 @@ public class RouteController {
         }
     }
     
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页获取路由列表", description = "按ID倒序的游标分页，cursor为上一页返回的nextCursor，首页不传")
+    public ApiResponse<CursorPage<RouteView>> getRoutesByCursor(@RequestParam(required = false) Long cursor,
+                                                                @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ApiResponse.success(CursorPage.of(routeService.findAfter(cursor, size), RouteView::id, route -> route));
+        } catch (Exception e) {
+            log.error("获取路由列表失败: {}", e.getMessage());
+            return ApiResponse.error("获取路由列表失败");
+        }
+    }
+    
     @GetMapping("/node/{nodeId}")
     @Operation(summary = "获取节点路由", description = "获取指定节点的路由列表")
-    public ApiResponse<List<Route>> getRoutesByNode(@PathVariable Long nodeId) {
+    public ApiResponse<List<RouteSnapshot>> getRoutesByNode(@PathVariable Long nodeId) {
         try {
-            List<Route> routes = routeService.findByNodeId(nodeId);
+            List<RouteSnapshot> routes = routeService.findByNodeId(nodeId);
             return ApiResponse.success(routes);
         } catch (Exception e) {
             log.error("获取节点路由失败: {}", e.getMessage());
@@ -54,9 +77,9 @@ public class RouteController {
     
     @GetMapping("/{id}")
     @Operation(summary = "获取路由详情", description = "根据ID获取路由详情")
-    public ApiResponse<Route> getRoute(@PathVariable Long id) {
+    public ApiResponse<RouteView> getRoute(@PathVariable Long id) {
         try {
-            Route route = routeService.findById(id)
+            RouteView route = routeService.findViewById(id)
                     .orElseThrow(() -> new RuntimeException("路由不存在"));
             return ApiResponse.success(route);
         } catch (Exception e) {
@@ -85,6 +108,40 @@ public class RouteController {
         }
     }
     
+    @PostMapping("/create:batch")
+    @Operation(summary = "批量创建路由", description = "一次创建多个路由，逐项返回结果，单个路由失败不影响其他路由")
+    public ApiResponse<List<RouteBatchItem>> createRoutes(@Valid @RequestBody RouteBatchRequest request) {
+        try {
+            // 一次加载请求涉及的所有节点，不存在的节点保留为空由服务层逐项报错
+            Set<Long> nodeIds = request.getRoutes().stream()
+                    .map(Route::getNode)
+                    .filter(node -> node != null && node.getId() != null)
+                    .map(Node::getId)
+                    .collect(Collectors.toSet());
+            Map<Long, Node> nodes = nodeService.findAllById(nodeIds).stream()
+                    .collect(Collectors.toMap(Node::getId, Function.identity()));
+            for (Route route : request.getRoutes()) {
+                route.setNode(route.getNode() != null ? nodes.get(route.getNode().getId()) : null);
+            }
+            
+            return ApiResponse.success(routeService.createRoutes(request.getRoutes()));
+        } catch (Exception e) {
+            log.error("批量创建路由失败: {}", e.getMessage());
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    @PostMapping("/activate:batch")
+    @Operation(summary = "批量激活路由", description = "一次激活多个路由，逐项返回结果")
+    public ApiResponse<List<RouteBatchItem>> activateRoutes(@Valid @RequestBody RouteBatchActivateRequest request) {
+        try {
+            return ApiResponse.success(routeService.activateRoutes(request.getRouteIds()));
+        } catch (Exception e) {
+            log.error("批量激活路由失败: {}", e.getMessage());
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
     @PutMapping("/{id}")
     @Operation(summary = "更新路由", description = "更新路由信息")
     public ApiResponse<Route> updateRoute(@PathVariable Long id, @RequestBody Route route) {
@@ -139,9 +196,9 @@ public class RouteController {
     
     @GetMapping("/active")
     @Operation(summary = "获取激活路由", description = "获取所有激活状态的路由")
-    public ApiResponse<List<Route>> getActiveRoutes() {
+    public ApiResponse<List<RouteSnapshot>> getActiveRoutes() {
         try {
-            List<Route> routes = routeService.findActiveRoutes();
+            List<RouteSnapshot> routes = routeService.findActiveRoutes();
             return ApiResponse.success(routes);
         } catch (Exception e) {
             log.error("获取激活路由失败: {}", e.getMessage());
@@ -150,10 +207,11 @@ public class RouteController {
     }
     
     @GetMapping("/search")
-    @Operation(summary = "搜索路由", description = "根据关键字搜索路由")
-    public ApiResponse<List<Route>> searchRoutes(@RequestParam String keyword) {
+    @Operation(summary = "搜索路由", description = "按名称、描述、本地地址全文搜索路由，支持前缀和模糊匹配")
+    public ApiResponse<List<RouteView>> searchRoutes(@RequestParam String keyword,
+                                                     @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<Route> routes = routeService.searchRoutes(keyword);
+            List<RouteView> routes = routeService.searchRoutes(keyword, limit);
             return ApiResponse.success(routes);
         } catch (Exception e) {
             log.error("搜索路由失败: {}", e.getMessage());
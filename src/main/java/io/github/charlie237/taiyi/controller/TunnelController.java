@@ -1,16 +1,25 @@
 package io.github.charlie237.taiyi.controller;
 
 import io.github.charlie237.taiyi.common.ApiResponse;
+import io.github.charlie237.taiyi.dto.TunnelBatchItem;
+import io.github.charlie237.taiyi.dto.TunnelBatchRequest;
 import io.github.charlie237.taiyi.entity.Route;
 import io.github.charlie237.taiyi.service.RouteService;
 import io.github.charlie237.taiyi.service.TunnelService;
+import io.github.charlie237.taiyi.service.ZrokIntegrationService.ZrokTrafficStats;
+import io.github.charlie237.taiyi.service.ZrokIntegrationService.ZrokTunnelStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 隧道控制器
@@ -26,53 +35,75 @@ public class TunnelController {
     private final RouteService routeService;
     
     @PostMapping("/start/{routeId}")
-    @Operation(summary = "启动隧道", description = "启动指定路由的隧道")
-    public ApiResponse<String> startTunnel(@PathVariable Long routeId) {
-        try {
-            Route route = routeService.findById(routeId)
-                    .orElseThrow(() -> new RuntimeException("路由不存在"));
-            
-            tunnelService.startTunnel(route);
-            log.info("隧道启动成功: {}", routeId);
-            return ApiResponse.success("隧道启动成功");
-        } catch (Exception e) {
-            log.error("隧道启动失败: {}", e.getMessage());
-            return ApiResponse.error(e.getMessage());
+    @Operation(summary = "启动隧道", description = "启动指定路由的隧道，zrok调用期间不占用请求线程")
+    public CompletableFuture<ApiResponse<String>> startTunnel(@PathVariable Long routeId) {
+        Route route = routeService.findById(routeId).orElse(null);
+        if (route == null) {
+            return CompletableFuture.completedFuture(ApiResponse.error("路由不存在"));
         }
+        
+        return tunnelService.startTunnelAsync(route)
+                .thenApply(v -> {
+                    log.info("隧道启动成功: {}", routeId);
+                    return ApiResponse.<String>success("隧道启动成功");
+                })
+                .exceptionally(e -> {
+                    String message = errorMessage(e);
+                    log.error("隧道启动失败: {}", message);
+                    return ApiResponse.error("启动隧道失败: " + message);
+                });
     }
     
     @PostMapping("/stop/{routeId}")
-    @Operation(summary = "停止隧道", description = "停止指定路由的隧道")
-    public ApiResponse<String> stopTunnel(@PathVariable Long routeId) {
-        try {
-            tunnelService.stopTunnel(routeId);
-            log.info("隧道停止成功: {}", routeId);
-            return ApiResponse.success("隧道停止成功");
-        } catch (Exception e) {
-            log.error("隧道停止失败: {}", e.getMessage());
-            return ApiResponse.error(e.getMessage());
-        }
+    @Operation(summary = "停止隧道", description = "停止指定路由的隧道，zrok调用期间不占用请求线程")
+    public CompletableFuture<ApiResponse<String>> stopTunnel(@PathVariable Long routeId) {
+        return tunnelService.stopTunnelAsync(routeId)
+                .thenApply(v -> {
+                    log.info("隧道停止成功: {}", routeId);
+                    return ApiResponse.<String>success("隧道停止成功");
+                })
+                .exceptionally(e -> {
+                    String message = errorMessage(e);
+                    log.error("隧道停止失败: {}", message);
+                    return ApiResponse.error("停止隧道失败: " + message);
+                });
     }
     
     @GetMapping("/status/{routeId}")
     @Operation(summary = "获取隧道状态", description = "获取指定路由的隧道状态")
-    public ApiResponse<Map<String, Object>> getTunnelStatus(@PathVariable Long routeId) {
-        try {
-            boolean isActive = tunnelService.isTunnelActive(routeId);
-            Route route = routeService.findById(routeId).orElse(null);
-            
-            Map<String, Object> status = Map.of(
-                    "routeId", routeId,
-                    "isActive", isActive,
-                    "routeStatus", route != null ? route.getStatus().name() : "UNKNOWN",
-                    "currentConnections", route != null ? route.getCurrentConnections() : 0
-            );
-            
-            return ApiResponse.success(status);
-        } catch (Exception e) {
-            log.error("获取隧道状态失败: {}", e.getMessage());
-            return ApiResponse.error("获取隧道状态失败");
-        }
+    public CompletableFuture<ApiResponse<Map<String, Object>>> getTunnelStatus(@PathVariable Long routeId) {
+        Route route = routeService.findById(routeId).orElse(null);
+        
+        return tunnelService.isTunnelActiveAsync(routeId)
+                .thenApply(isActive -> {
+                    Map<String, Object> status = Map.of(
+                            "routeId", routeId,
+                            "isActive", isActive,
+                            "routeStatus", route != null ? route.getStatus().name() : "UNKNOWN",
+                            "currentConnections", route != null ? route.getCurrentConnections() : 0
+                    );
+                    return ApiResponse.success(status);
+                })
+                .exceptionally(e -> {
+                    log.error("获取隧道状态失败: {}", errorMessage(e));
+                    return ApiResponse.error("获取隧道状态失败");
+                });
+    }
+    
+    @PostMapping("/status:batch")
+    @Operation(summary = "批量获取隧道状态", description = "一次返回多个路由的隧道状态，短时间内的重复查询直接使用缓存")
+    public CompletableFuture<ApiResponse<List<TunnelBatchItem<ZrokTunnelStatus>>>> getTunnelStatuses(
+            @Valid @RequestBody TunnelBatchRequest request) {
+        return tunnelService.getTunnelStatuses(request.getRouteIds())
+                .thenApply(ApiResponse::success);
+    }
+    
+    @PostMapping("/stats:batch")
+    @Operation(summary = "批量获取隧道流量", description = "一次返回多个路由的隧道流量统计，短时间内的重复查询直接使用缓存")
+    public CompletableFuture<ApiResponse<List<TunnelBatchItem<ZrokTrafficStats>>>> getTunnelTrafficStats(
+            @Valid @RequestBody TunnelBatchRequest request) {
+        return tunnelService.getTunnelTrafficStats(request.getRouteIds())
+                .thenApply(ApiResponse::success);
     }
     
     @GetMapping("/stats")
@@ -91,4 +122,15 @@ public class TunnelController {
             return ApiResponse.error("获取隧道统计失败");
         }
     }
+    
+    /**
+     * 提取异步调用失败原因
+     */
+    private static String errorMessage(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+            return "zrok调用超时";
+        }
+        return cause.getMessage();
+    }
 }
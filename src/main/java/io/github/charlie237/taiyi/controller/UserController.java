@@ -1,6 +1,8 @@
 package io.github.charlie237.taiyi.controller;
 
 import io.github.charlie237.taiyi.common.ApiResponse;
+import io.github.charlie237.taiyi.dto.CursorPage;
+import io.github.charlie237.taiyi.dto.UserView;
 import io.github.charlie237.taiyi.entity.User;
 import io.github.charlie237.taiyi.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -83,12 +85,22 @@ public class UserController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "获取用户列表", description = "获取所有用户列表（管理员）")
-    public ApiResponse<Page<User>> getUsers(Pageable pageable) {
+    public ApiResponse<Page<UserView>> getUsers(Pageable pageable) {
         try {
-            Page<User> users = userService.findAll(pageable);
-            // 清除敏感信息
-            users.getContent().forEach(u -> u.setPassword(null));
-            return ApiResponse.success(users);
+            return ApiResponse.success(userService.findViews(pageable));
+        } catch (Exception e) {
+            log.error("获取用户列表失败: {}", e.getMessage());
+            return ApiResponse.error("获取用户列表失败");
+        }
+    }
+    
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "游标分页获取用户列表", description = "按ID倒序的游标分页，cursor为上一页返回的nextCursor，首页不传（管理员）")
+    public ApiResponse<CursorPage<UserView>> getUsersByCursor(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ApiResponse.success(CursorPage.of(userService.findAfter(cursor, size), UserView::id, u -> u));
         } catch (Exception e) {
             log.error("获取用户列表失败: {}", e.getMessage());
             return ApiResponse.error("获取用户列表失败");
@@ -98,12 +110,10 @@ public class UserController {
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "获取用户详情", description = "根据ID获取用户详情（管理员）")
-    public ApiResponse<User> getUser(@PathVariable Long id) {
+    public ApiResponse<UserView> getUser(@PathVariable Long id) {
         try {
-            User user = userService.findById(id)
+            UserView user = userService.findViewById(id)
                     .orElseThrow(() -> new RuntimeException("用户不存在"));
-            // 清除敏感信息
-            user.setPassword(null);
             return ApiResponse.success(user);
         } catch (Exception e) {
             log.error("获取用户详情失败: {}", e.getMessage());
@@ -182,12 +192,11 @@ public class UserController {
     
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "搜索用户", description = "根据关键字搜索用户（管理员）")
-    public ApiResponse<List<User>> searchUsers(@RequestParam String keyword) {
+    @Operation(summary = "搜索用户", description = "按用户名、邮箱、姓名、手机号全文搜索用户，支持前缀和模糊匹配（管理员）")
+    public ApiResponse<List<UserView>> searchUsers(@RequestParam String keyword,
+                                                   @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<User> users = userService.searchUsers(keyword);
-            // 清除敏感信息
-            users.forEach(u -> u.setPassword(null));
+            List<UserView> users = userService.searchUsers(keyword, limit);
             return ApiResponse.success(users);
         } catch (Exception e) {
             log.error("搜索用户失败: {}", e.getMessage());
@@ -0,0 +1,27 @@
+package io.github.charlie237.taiyi.dto;
+
+import io.github.charlie237.taiyi.entity.ApiToken;
+
+import java.time.LocalDateTime;
+
+/**
+ * API Token列表/详情视图（不含Token密钥）
+ * 所属用户只展开ID和用户名，由查询一次连接取出，避免序列化懒加载关联
+ */
+public record ApiTokenView(
+        Long id,
+        Long userId,
+        String username,
+        String token,
+        String tokenName,
+        ApiToken.Status status,
+        ApiToken.Plan plan,
+        Integer maxTunnels,
+        Long maxBandwidth,
+        Long maxTrafficMonthly,
+        Integer maxConnections,
+        Long trafficUsed,
+        LocalDateTime lastUsedAt,
+        LocalDateTime expiresAt,
+        LocalDateTime createdAt) {
+}
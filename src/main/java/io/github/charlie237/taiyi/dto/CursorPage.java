@@ -0,0 +1,47 @@
+package io.github.charlie237.taiyi.dto;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ * 按ID倒序的键集分页：下一页以本页最后一条的ID作为游标，不执行COUNT，翻页深度不影响查询耗时
+ *
+ * @param items      本页数据
+ * @param nextCursor 下一页游标，没有下一页时为null
+ * @param hasNext    是否还有下一页
+ */
+public record CursorPage<T>(List<T> items, Long nextCursor, boolean hasNext) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * 将客户端传入的游标转换为查询条件，首页游标为空
+     */
+    public static long afterId(Long cursor) {
+        return cursor != null ? cursor : Long.MAX_VALUE;
+    }
+
+    /**
+     * 限制每页数量
+     */
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_SIZE)));
+    }
+
+    /**
+     * 由Slice构建游标分页结果
+     */
+    public static <E, T> CursorPage<T> of(Slice<E> slice, Function<E, Long> idGetter, Function<E, T> mapper) {
+        List<E> content = slice.getContent();
+        Long nextCursor = slice.hasNext() && !content.isEmpty()
+                ? idGetter.apply(content.get(content.size() - 1))
+                : null;
+        return new CursorPage<>(content.stream().map(mapper).toList(), nextCursor, slice.hasNext());
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.charlie237.taiyi.dto;
+
+import io.github.charlie237.taiyi.entity.Node;
+
+import java.time.LocalDateTime;
+
+/**
+ * 节点列表/详情视图
+ * 所属用户只展开ID和用户名，由查询一次连接取出，避免序列化懒加载关联
+ */
+public record NodeView(
+        Long id,
+        String nodeId,
+        String name,
+        String description,
+        Long userId,
+        String username,
+        String clientIp,
+        Integer clientPort,
+        String serverIp,
+        Integer serverPort,
+        Node.Status status,
+        Node.Protocol protocol,
+        Integer maxConnections,
+        Integer currentConnections,
+        Long totalBytesIn,
+        Long totalBytesOut,
+        LocalDateTime lastHeartbeat,
+        LocalDateTime createdAt) {
+}
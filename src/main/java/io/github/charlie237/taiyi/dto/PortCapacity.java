@@ -0,0 +1,21 @@
+package io.github.charlie237.taiyi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 节点远程端口容量
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortCapacity {
+
+    private Long nodeId;
+    private int rangeStart;
+    private int rangeEnd;
+    private int capacity;
+    private int allocated;
+    private int available;
+}
@@ -0,0 +1,18 @@
+package io.github.charlie237.taiyi.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量激活路由请求DTO
+ */
+@Data
+public class RouteBatchActivateRequest {
+    
+    @NotEmpty(message = "路由ID列表不能为空")
+    @Size(max = 1000, message = "单次最多激活1000个路由")
+    private List<Long> routeIds;
+}
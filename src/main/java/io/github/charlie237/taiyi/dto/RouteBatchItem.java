@@ -0,0 +1,22 @@
+package io.github.charlie237.taiyi.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量路由操作结果项
+ * index为请求中的位置；成功时routeId和remotePort有值，失败时error为失败原因
+ */
+@Data
+@NoArgsConstructor
+public class RouteBatchItem {
+    
+    private int index;
+    private Long routeId;
+    private Integer remotePort;
+    private String error;
+    
+    public RouteBatchItem(int index) {
+        this.index = index;
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.charlie237.taiyi.dto;
+
+import io.github.charlie237.taiyi.entity.Route;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量创建路由请求DTO
+ */
+@Data
+public class RouteBatchRequest {
+    
+    @NotEmpty(message = "路由列表不能为空")
+    @Size(max = 1000, message = "单次最多创建1000个路由")
+    private List<Route> routes;
+}
@@ -0,0 +1,34 @@
+package io.github.charlie237.taiyi.dto;
+
+/**
+ * 下发给节点的路由配置
+ * 只包含节点转发需要的字段，按值比较用于计算配置增量
+ */
+public record RouteConfig(
+        Long id,
+        String name,
+        String localIp,
+        Integer localPort,
+        Integer remotePort,
+        String protocol,
+        String status,
+        Integer maxConnections,
+        Long bandwidthLimit,
+        Boolean compressionEnabled,
+        Boolean encryptionEnabled) {
+
+    public static RouteConfig from(RouteSnapshot route) {
+        return new RouteConfig(
+                route.id(),
+                route.name(),
+                route.localIp(),
+                route.localPort(),
+                route.remotePort(),
+                route.protocol().name(),
+                route.status().name(),
+                route.maxConnections(),
+                route.bandwidthLimit(),
+                route.compressionEnabled(),
+                route.encryptionEnabled());
+    }
+}
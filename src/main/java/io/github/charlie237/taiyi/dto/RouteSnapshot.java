@@ -0,0 +1,48 @@
+package io.github.charlie237.taiyi.dto;
+
+import io.github.charlie237.taiyi.entity.Route;
+
+import java.time.LocalDateTime;
+
+/**
+ * 路由表中的路由快照
+ * 不可变，不持有JPA实体和懒加载关联，可直接序列化返回
+ */
+public record RouteSnapshot(
+        Long id,
+        Long nodeId,
+        String name,
+        String description,
+        String localIp,
+        Integer localPort,
+        Integer remotePort,
+        Route.Protocol protocol,
+        Route.Status status,
+        Integer maxConnections,
+        Long bandwidthLimit,
+        Boolean compressionEnabled,
+        Boolean encryptionEnabled,
+        LocalDateTime createdAt) {
+
+    public static RouteSnapshot from(Route route) {
+        return new RouteSnapshot(
+                route.getId(),
+                route.getNode().getId(),
+                route.getName(),
+                route.getDescription(),
+                route.getLocalIp(),
+                route.getLocalPort(),
+                route.getRemotePort(),
+                route.getProtocol(),
+                route.getStatus(),
+                route.getMaxConnections(),
+                route.getBandwidthLimit(),
+                route.getCompressionEnabled(),
+                route.getEncryptionEnabled(),
+                route.getCreatedAt());
+    }
+
+    public boolean isActive() {
+        return status == Route.Status.ACTIVE;
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.charlie237.taiyi.dto;
+
+import io.github.charlie237.taiyi.entity.Route;
+
+import java.time.LocalDateTime;
+
+/**
+ * 路由列表/详情视图
+ * 所属节点只展开ID和名称，由查询一次连接取出，避免序列化懒加载关联
+ */
+public record RouteView(
+        Long id,
+        String name,
+        String description,
+        Long nodeId,
+        String nodeName,
+        String localIp,
+        Integer localPort,
+        Integer remotePort,
+        Route.Protocol protocol,
+        Route.Status status,
+        Integer maxConnections,
+        Integer currentConnections,
+        Long totalBytesIn,
+        Long totalBytesOut,
+        Long bandwidthLimit,
+        Boolean compressionEnabled,
+        Boolean encryptionEnabled,
+        LocalDateTime createdAt,
+        LocalDateTime lastUsedAt) {
+}
@@ -0,0 +1,23 @@
+package io.github.charlie237.taiyi.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量隧道查询结果项
+ * 路由没有运行中的隧道时tunnelId和data均为空；查询失败时error为失败原因
+ */
+@Data
+@NoArgsConstructor
+public class TunnelBatchItem<T> {
+    
+    private Long routeId;
+    private String tunnelId;
+    private T data;
+    private String error;
+    
+    public TunnelBatchItem(Long routeId, String tunnelId) {
+        this.routeId = routeId;
+        this.tunnelId = tunnelId;
+    }
+}
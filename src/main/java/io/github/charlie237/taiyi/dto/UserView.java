@@ -0,0 +1,20 @@
+package io.github.charlie237.taiyi.dto;
+
+import io.github.charlie237.taiyi.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户列表/详情视图（不含密码）
+ */
+public record UserView(
+        Long id,
+        String username,
+        String email,
+        String phone,
+        String realName,
+        User.Role role,
+        User.Status status,
+        LocalDateTime createdAt,
+        LocalDateTime lastLoginAt) {
+}
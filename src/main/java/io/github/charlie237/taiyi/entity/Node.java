@@ -60,10 +60,11 @@ public class Node {
     @Column(name = "current_connections")
     private Integer currentConnections = 0;
     
-    @Column(name = "total_bytes_in")
+    // 累计流量只由TrafficMeter用增量UPDATE写入，实体保存时不覆盖
+    @Column(name = "total_bytes_in", updatable = false)
     private Long totalBytesIn = 0L;
     
-    @Column(name = "total_bytes_out")
+    @Column(name = "total_bytes_out", updatable = false)
     private Long totalBytesOut = 0L;
     
     @Column(name = "last_heartbeat")
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "routes")
+@Table(name = "routes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_node_remote_port", columnNames = {"node_id", "remote_port"})
+})
 @EqualsAndHashCode(callSuper = false)
 public class Route {
     
@@ -52,10 +54,11 @@ public class Route {
     @Column(name = "current_connections")
     private Integer currentConnections = 0;
     
-    @Column(name = "total_bytes_in")
+    // 累计流量和最近使用时间只由TrafficMeter用增量UPDATE写入，实体保存时不覆盖
+    @Column(name = "total_bytes_in", updatable = false)
     private Long totalBytesIn = 0L;
     
-    @Column(name = "total_bytes_out")
+    @Column(name = "total_bytes_out", updatable = false)
     private Long totalBytesOut = 0L;
     
     @Column(name = "bandwidth_limit")
@@ -73,7 +76,7 @@ public class Route {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    @Column(name = "last_used_at")
+    @Column(name = "last_used_at", updatable = false)
     private LocalDateTime lastUsedAt;
     
     @PrePersist
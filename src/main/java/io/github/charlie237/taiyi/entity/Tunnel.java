@@ -0,0 +1,97 @@
+package io.github.charlie237.taiyi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * 隧道注册实体类
+ * 以路由ID为主键记录路由对应的zrok隧道，重启后据此恢复隧道映射；
+ * state为当前生命周期状态，desiredState为期望状态（ACTIVE或STOPPED），由对账任务驱动两者一致
+ */
+@Data
+@Entity
+@Table(name = "tunnels", indexes = {
+        @Index(name = "idx_tunnel_state", columnList = "state")
+})
+@EqualsAndHashCode(callSuper = false)
+public class Tunnel {
+    
+    @Id
+    @Column(name = "route_id")
+    private Long routeId;
+    
+    @Column(name = "node_id")
+    private Long nodeId;
+    
+    @Column(name = "tunnel_id", unique = true, length = 100)
+    private String tunnelId;
+    
+    @Column(name = "public_url", length = 500)
+    private String publicUrl;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private State state = State.STOPPED;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "desired_state", nullable = false, length = 20)
+    private State desiredState = State.STOPPED;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * 隧道生命周期状态枚举
+     * PENDING→STARTING→ACTIVE→STOPPING→STOPPED，STARTING/STOPPING失败进入ERROR
+     */
+    public enum State {
+        PENDING,  /** 等待启动 */
+        STARTING, /** 启动中 */
+        ACTIVE,   /** 运行中 */
+        STOPPING, /** 停止中 */
+        STOPPED,  /** 已停止 */
+        ERROR;    /** 错误 */
+        
+        /**
+         * 是否允许迁移到目标状态
+         */
+        public boolean canTransitionTo(State target) {
+            return switch (this) {
+                case PENDING -> target == STARTING || target == STOPPED;
+                case STARTING -> target == ACTIVE || target == ERROR;
+                case ACTIVE -> target == STOPPING || target == STOPPED;
+                case STOPPING -> target == STOPPED || target == ERROR;
+                case STOPPED -> target == PENDING || target == STARTING;
+                // 停止失败时隧道仍在zrok上，可直接恢复为ACTIVE
+                case ERROR -> target == STARTING || target == ACTIVE || target == STOPPING || target == STOPPED;
+            };
+        }
+        
+        /**
+         * 是否为有进行中操作的过渡状态
+         */
+        public boolean isTransitional() {
+            return this == STARTING || this == STOPPING;
+        }
+    }
+}
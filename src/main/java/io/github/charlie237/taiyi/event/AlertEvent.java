@@ -0,0 +1,15 @@
+package io.github.charlie237.taiyi.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 告警事件，告警发送后发布（冷却期内被抑制的告警不发布）
+ *
+ * @param nodeId    节点标识，系统级告警为SYSTEM
+ * @param alertType 告警类型
+ * @param level     告警级别
+ * @param message   告警内容
+ * @param time      告警时间
+ */
+public record AlertEvent(String nodeId, String alertType, String level, String message, LocalDateTime time) {
+}
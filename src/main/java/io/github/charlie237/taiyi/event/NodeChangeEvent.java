@@ -0,0 +1,9 @@
+package io.github.charlie237.taiyi.event;
+
+/**
+ * 节点新增或修改事件，订阅方按节点ID重新读取最新状态
+ *
+ * @param nodeId 节点主键
+ */
+public record NodeChangeEvent(Long nodeId) {
+}
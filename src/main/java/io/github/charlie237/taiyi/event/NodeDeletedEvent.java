@@ -0,0 +1,9 @@
+package io.github.charlie237.taiyi.event;
+
+/**
+ * 节点删除事件，节点下的路由随节点级联删除
+ *
+ * @param nodeId 节点主键
+ */
+public record NodeDeletedEvent(Long nodeId) {
+}
@@ -0,0 +1,19 @@
+package io.github.charlie237.taiyi.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 节点硬件状态上报事件，携带最新一次上报的关键指标
+ *
+ * @param id              节点主键，与节点状态、删除事件一致
+ * @param nodeId          节点标识
+ * @param cpuUsage        CPU使用率
+ * @param memoryUsage     内存使用率
+ * @param diskUsage       磁盘使用率
+ * @param connectionCount 当前连接数
+ * @param pingLatency     延迟（毫秒）
+ * @param recordedAt      上报时间
+ */
+public record NodeMetricsEvent(Long id, String nodeId, Double cpuUsage, Double memoryUsage, Double diskUsage,
+                               Integer connectionCount, Integer pingLatency, LocalDateTime recordedAt) {
+}
@@ -0,0 +1,12 @@
+package io.github.charlie237.taiyi.event;
+
+import io.github.charlie237.taiyi.entity.Node;
+
+/**
+ * 节点状态事件，节点创建或状态变化（上线、离线、启用、禁用）时发布
+ *
+ * @param nodeId 节点主键
+ * @param status 变化后的状态
+ */
+public record NodeStatusEvent(Long nodeId, Node.Status status) {
+}
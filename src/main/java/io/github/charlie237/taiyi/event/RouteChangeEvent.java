@@ -0,0 +1,18 @@
+package io.github.charlie237.taiyi.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 路由变更事件
+ * 表示节点下的一组路由发生了新增、修改或删除，订阅方按路由ID重新读取最新状态
+ *
+ * @param nodeId   节点主键
+ * @param routeIds 发生变更的路由ID
+ */
+public record RouteChangeEvent(Long nodeId, Collection<Long> routeIds) {
+
+    public static RouteChangeEvent of(Long nodeId, Long routeId) {
+        return new RouteChangeEvent(nodeId, List.of(routeId));
+    }
+}
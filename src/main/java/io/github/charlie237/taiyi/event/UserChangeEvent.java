@@ -0,0 +1,12 @@
+package io.github.charlie237.taiyi.event;
+
+import io.github.charlie237.taiyi.entity.User;
+
+/**
+ * 用户新增、修改或删除事件，订阅方按用户ID重新读取最新状态
+ *
+ * @param userId 用户主键
+ * @param status 变更后的用户状态，用户被删除时为null
+ */
+public record UserChangeEvent(Long userId, User.Status status) {
+}
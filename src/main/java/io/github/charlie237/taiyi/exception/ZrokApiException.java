@@ -0,0 +1,32 @@
+package io.github.charlie237.taiyi.exception;
+
+import lombok.Getter;
+
+/**
+ * zrok控制器调用异常
+ */
+@Getter
+public class ZrokApiException extends RuntimeException {
+
+    /**
+     * 调用的zrok接口
+     */
+    private final String endpoint;
+
+    /**
+     * 是否可以安全重试（请求未到达zrok或接口本身幂等）
+     */
+    private final boolean retryable;
+
+    public ZrokApiException(String endpoint, String message, boolean retryable) {
+        super(message);
+        this.endpoint = endpoint;
+        this.retryable = retryable;
+    }
+
+    public ZrokApiException(String endpoint, String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.endpoint = endpoint;
+        this.retryable = retryable;
+    }
+}
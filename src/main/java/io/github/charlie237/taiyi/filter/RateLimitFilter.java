@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.bucket4j.Bucket;
 import io.github.charlie237.taiyi.common.ApiResponse;
 import io.github.charlie237.taiyi.config.RateLimitConfig;
+import io.github.charlie237.taiyi.config.TaiyiProperties;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +28,7 @@ public class RateLimitFilter extends OncePerRequestFilter {
     
     private final RateLimitConfig rateLimitConfig;
     private final ObjectMapper objectMapper;
+    private final TaiyiProperties taiyiProperties;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -105,6 +107,9 @@ public class RateLimitFilter extends OncePerRequestFilter {
     
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!taiyiProperties.getRateLimit().isEnabled()) {
+            return true;
+        }
         String path = request.getRequestURI();
         // 跳过静态资源和健康检查
         return path.startsWith("/actuator/health") || 
@@ -0,0 +1,155 @@
+package io.github.charlie237.taiyi.filter;
+
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.service.AuditLogService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 请求计时与审计过滤器
+ * 位于过滤器链最外层，用nanoTime为每个请求计时，按方法、URI模板、状态码记录taiyi.api.request.duration；
+ * 匹配配置（taiyi.audit.request-log）的写操作在请求完成后生成一条审计记录交给审计写入器，请求线程不访问数据库。
+ * 异步请求在AsyncListener完成回调中记录。
+ * 认证发生在内层的Security过滤器中，其安全上下文在返回本过滤器前已被清除，
+ * 因此由认证过滤器把用户写入请求属性（USER_ID_ATTRIBUTE / USERNAME_ATTRIBUTE）
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String USER_ID_ATTRIBUTE = RequestTimingFilter.class.getName() + ".userId";
+    public static final String USERNAME_ATTRIBUTE = RequestTimingFilter.class.getName() + ".username";
+
+    // 未匹配到处理器（404、静态资源、WebSocket握手等）时统一归为一个标签值，避免URI基数膨胀
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final Meter.MeterProvider<Timer> apiRequestTimer;
+    private final AuditLogService auditLogService;
+    private final TaiyiProperties.Audit.RequestLog config;
+    private final Set<String> auditedMethods;
+    private final List<String> excludePaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RequestTimingFilter(Meter.MeterProvider<Timer> apiRequestTimer,
+                               AuditLogService auditLogService,
+                               TaiyiProperties taiyiProperties) {
+        this.apiRequestTimer = apiRequestTimer;
+        this.auditLogService = auditLogService;
+        this.config = taiyiProperties.getAudit().getRequestLog();
+        this.auditedMethods = Arrays.stream(config.getMethods())
+                .map(method -> method.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.excludePaths = List.of(config.getExcludePaths());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (failure == null && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(request, response, start));
+            } else {
+                complete(request, response, start, failure);
+            }
+        }
+    }
+
+    /**
+     * 请求完成：记录耗时，按配置提交审计记录
+     */
+    private void complete(HttpServletRequest request, HttpServletResponse response, long start, Throwable failure) {
+        try {
+            long duration = System.nanoTime() - start;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+            // 异常抛出到容器时响应状态尚未设置，按500计
+            int status = failure != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+
+            apiRequestTimer.withTags("method", request.getMethod(), "uri", uri, "status", String.valueOf(status))
+                    .record(duration, TimeUnit.NANOSECONDS);
+
+            if (shouldAudit(request, pattern)) {
+                auditLogService.logRequest(request, uri, status, TimeUnit.NANOSECONDS.toMillis(duration), failure);
+            }
+        } catch (Exception e) {
+            log.debug("记录请求耗时失败", e);
+        }
+    }
+
+    private boolean shouldAudit(HttpServletRequest request, Object pattern) {
+        if (!config.isEnabled() || pattern == null || !auditedMethods.contains(request.getMethod())) {
+            return false;
+        }
+        for (String excludePath : excludePaths) {
+            if (pathMatcher.match(excludePath, pattern.toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 异步请求完成回调，超时和出错后同样会触发onComplete
+     */
+    private final class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long start;
+
+        CompletionListener(HttpServletRequest request, HttpServletResponse response, long start) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(request, response, start, null);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次进入异步模式时监听器会被清除，需要重新注册
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package io.github.charlie237.taiyi.repository;
 
+import io.github.charlie237.taiyi.dto.ApiTokenView;
 import io.github.charlie237.taiyi.entity.ApiToken;
 import io.github.charlie237.taiyi.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -42,6 +46,11 @@ public interface ApiTokenRepository extends JpaRepository<ApiToken, Long> {
      */
     long countByStatus(ApiToken.Status status);
     
+    /**
+     * 根据状态查找Token
+     */
+    List<ApiToken> findByStatus(ApiToken.Status status);
+    
     /**
      * 统计用户的Token数量
      */
@@ -75,4 +84,24 @@ public interface ApiTokenRepository extends JpaRepository<ApiToken, Long> {
      */
     @Query("SELECT t FROM ApiToken t WHERE t.status = 'ACTIVE' AND t.lastUsedAt > :since ORDER BY t.lastUsedAt DESC")
     List<ApiToken> findRecentlyUsedTokens(@Param("since") LocalDateTime since);
+    
+    /**
+     * 视图查询：连接所属用户，一条SQL取出列表/详情需要的列（不含Token密钥）
+     */
+    String VIEW_SELECT = "SELECT new io.github.charlie237.taiyi.dto.ApiTokenView(t.id, u.id, u.username, t.token, "
+            + "t.tokenName, t.status, t.plan, t.maxTunnels, t.maxBandwidth, t.maxTrafficMonthly, t.maxConnections, "
+            + "t.trafficUsed, t.lastUsedAt, t.expiresAt, t.createdAt) FROM ApiToken t JOIN t.user u";
+    
+    @Query(value = VIEW_SELECT, countQuery = "SELECT COUNT(t) FROM ApiToken t")
+    Page<ApiTokenView> findAllViews(Pageable pageable);
+    
+    // 键集分页：ID小于游标（按ID倒序），不执行COUNT
+    @Query(VIEW_SELECT + " WHERE t.id < :id ORDER BY t.id DESC")
+    Slice<ApiTokenView> findViewsByIdLessThan(@Param("id") Long id, Pageable pageable);
+    
+    @Query(VIEW_SELECT + " WHERE u.id = :userId ORDER BY t.createdAt DESC")
+    List<ApiTokenView> findViewsByUserId(@Param("userId") Long userId);
+    
+    @Query(VIEW_SELECT + " WHERE t.id = :id")
+    Optional<ApiTokenView> findViewById(@Param("id") Long id);
 }
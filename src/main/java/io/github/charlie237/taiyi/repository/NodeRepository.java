@@ -1,13 +1,18 @@
 package io.github.charlie237.taiyi.repository;
 
+import io.github.charlie237.taiyi.dto.NodeView;
 import io.github.charlie237.taiyi.entity.Node;
 import io.github.charlie237.taiyi.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +37,11 @@ public interface NodeRepository extends JpaRepository<Node, Long> {
      */
     List<Node> findByUserId(Long userId);
     
+    /**
+     * 节点是否属于指定用户
+     */
+    boolean existsByIdAndUserUsername(Long id, String username);
+    
     /**
      * 根据状态查找节点
      */
@@ -58,12 +68,6 @@ public interface NodeRepository extends JpaRepository<Node, Long> {
      */
     List<Node> findByUserAndStatus(User user, Node.Status status);
     
-    /**
-     * 根据名称模糊查询节点
-     */
-    @Query("SELECT n FROM Node n WHERE n.name LIKE %:keyword% OR n.description LIKE %:keyword%")
-    List<Node> findByKeyword(@Param("keyword") String keyword);
-    
     /**
      * 统计用户的节点数量
      */
@@ -79,4 +83,46 @@ public interface NodeRepository extends JpaRepository<Node, Long> {
      */
     @Query("SELECT n FROM Node n WHERE n.status = 'OFFLINE' AND n.lastHeartbeat < :threshold")
     List<Node> findOfflineNodesBeforeThreshold(@Param("threshold") LocalDateTime threshold);
+    
+    /**
+     * 查询所有节点的ID和状态，返回[id, status]
+     */
+    @Query("SELECT n.id, n.status FROM Node n")
+    List<Object[]> findAllIdAndStatus();
+    
+    /**
+     * 根据节点ID查询节点协议
+     */
+    @Query("SELECT n.protocol FROM Node n WHERE n.nodeId = :nodeId")
+    Optional<Node.Protocol> findProtocolByNodeId(@Param("nodeId") String nodeId);
+    
+    /**
+     * 视图查询：连接所属用户，一条SQL取出列表/详情需要的列
+     */
+    String VIEW_SELECT = "SELECT new io.github.charlie237.taiyi.dto.NodeView(n.id, n.nodeId, n.name, n.description, "
+            + "u.id, u.username, n.clientIp, n.clientPort, n.serverIp, n.serverPort, n.status, n.protocol, "
+            + "n.maxConnections, n.currentConnections, n.totalBytesIn, n.totalBytesOut, n.lastHeartbeat, n.createdAt) "
+            + "FROM Node n JOIN n.user u";
+    
+    @Query(value = VIEW_SELECT, countQuery = "SELECT COUNT(n) FROM Node n")
+    Page<NodeView> findAllViews(Pageable pageable);
+    
+    // 键集分页：ID小于游标（按ID倒序），不执行COUNT
+    @Query(VIEW_SELECT + " WHERE n.id < :id ORDER BY n.id DESC")
+    Slice<NodeView> findViewsByIdLessThan(@Param("id") Long id, Pageable pageable);
+    
+    @Query(VIEW_SELECT + " WHERE u.id = :userId ORDER BY n.id DESC")
+    List<NodeView> findViewsByUserId(@Param("userId") Long userId);
+    
+    @Query(VIEW_SELECT + " WHERE n.status = :status ORDER BY n.id DESC")
+    List<NodeView> findViewsByStatus(@Param("status") Node.Status status);
+    
+    @Query(VIEW_SELECT + " WHERE n.id = :id")
+    Optional<NodeView> findViewById(@Param("id") Long id);
+    
+    @Query(VIEW_SELECT + " WHERE n.nodeId = :nodeId")
+    Optional<NodeView> findViewByNodeId(@Param("nodeId") String nodeId);
+    
+    @Query(VIEW_SELECT + " WHERE n.id IN :ids")
+    List<NodeView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
 }
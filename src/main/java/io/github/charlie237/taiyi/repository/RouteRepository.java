@@ -1,13 +1,18 @@
 package io.github.charlie237.taiyi.repository;
 
+import io.github.charlie237.taiyi.dto.RouteView;
 import io.github.charlie237.taiyi.entity.Node;
 import io.github.charlie237.taiyi.entity.Route;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,11 +52,34 @@ public interface RouteRepository extends JpaRepository<Route, Long> {
      */
     boolean existsByRemotePort(Integer remotePort);
     
+    /**
+     * 检查节点的远程端口是否被占用
+     */
+    boolean existsByNodeIdAndRemotePort(Long nodeId, Integer remotePort);
+    
+    /**
+     * 查询所有节点已占用的远程端口，每行为[节点ID, 远程端口]
+     */
+    @Query("SELECT r.node.id, r.remotePort FROM Route r")
+    List<Object[]> findAllNodeRemotePorts();
+    
+    /**
+     * 根据ID查找路由，同时加载所属节点和用户
+     */
+    @Query("SELECT r FROM Route r JOIN FETCH r.node n LEFT JOIN FETCH n.user WHERE r.id = :id")
+    Optional<Route> findWithOwnerById(@Param("id") Long id);
+    
     /**
      * 根据本地IP和端口查找路由
      */
     List<Route> findByLocalIpAndLocalPort(String localIp, Integer localPort);
     
+    /**
+     * 查询指定本地IP上已被使用的本地地址，每行为[本地IP, 本地端口]
+     */
+    @Query("SELECT r.localIp, r.localPort FROM Route r WHERE r.localIp IN :localIps")
+    List<Object[]> findLocalEndpointsByLocalIpIn(@Param("localIps") Collection<String> localIps);
+    
     /**
      * 查找激活的路由
      */
@@ -63,12 +91,6 @@ public interface RouteRepository extends JpaRepository<Route, Long> {
      */
     List<Route> findByNodeAndStatus(Node node, Route.Status status);
     
-    /**
-     * 根据名称模糊查询路由
-     */
-    @Query("SELECT r FROM Route r WHERE r.name LIKE %:keyword% OR r.description LIKE %:keyword%")
-    List<Route> findByKeyword(@Param("keyword") String keyword);
-    
     /**
      * 统计节点的路由数量
      */
@@ -95,4 +117,25 @@ public interface RouteRepository extends JpaRepository<Route, Long> {
      */
     @Query("SELECT MIN(r.remotePort + 1) FROM Route r WHERE r.remotePort + 1 NOT IN (SELECT r2.remotePort FROM Route r2) AND r.remotePort BETWEEN :startPort AND :endPort")
     Integer findNextAvailablePort(@Param("startPort") Integer startPort, @Param("endPort") Integer endPort);
+    
+    /**
+     * 视图查询：连接所属节点，一条SQL取出列表/详情需要的列
+     */
+    String VIEW_SELECT = "SELECT new io.github.charlie237.taiyi.dto.RouteView(r.id, r.name, r.description, n.id, n.name, "
+            + "r.localIp, r.localPort, r.remotePort, r.protocol, r.status, r.maxConnections, r.currentConnections, "
+            + "r.totalBytesIn, r.totalBytesOut, r.bandwidthLimit, r.compressionEnabled, r.encryptionEnabled, "
+            + "r.createdAt, r.lastUsedAt) FROM Route r JOIN r.node n";
+    
+    @Query(value = VIEW_SELECT, countQuery = "SELECT COUNT(r) FROM Route r")
+    Page<RouteView> findAllViews(Pageable pageable);
+    
+    // 键集分页：ID小于游标（按ID倒序），不执行COUNT
+    @Query(VIEW_SELECT + " WHERE r.id < :id ORDER BY r.id DESC")
+    Slice<RouteView> findViewsByIdLessThan(@Param("id") Long id, Pageable pageable);
+    
+    @Query(VIEW_SELECT + " WHERE r.id = :id")
+    Optional<RouteView> findViewById(@Param("id") Long id);
+    
+    @Query(VIEW_SELECT + " WHERE r.id IN :ids")
+    List<RouteView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
 }
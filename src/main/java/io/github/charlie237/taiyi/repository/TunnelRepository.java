@@ -0,0 +1,25 @@
+package io.github.charlie237.taiyi.repository;
+
+import io.github.charlie237.taiyi.entity.Tunnel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 隧道注册数据访问接口
+ */
+@Repository
+public interface TunnelRepository extends JpaRepository<Tunnel, Long> {
+    
+    /**
+     * 根据zrok隧道ID查找
+     */
+    Optional<Tunnel> findByTunnelId(String tunnelId);
+    
+    /**
+     * 根据状态查找
+     */
+    List<Tunnel> findByState(Tunnel.State state);
+}
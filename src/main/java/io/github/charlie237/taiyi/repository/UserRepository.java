@@ -1,12 +1,17 @@
 package io.github.charlie237.taiyi.repository;
 
+import io.github.charlie237.taiyi.dto.UserView;
 import io.github.charlie237.taiyi.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,15 +61,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     List<User> findByLastLoginAtAfter(LocalDateTime dateTime);
     
-    /**
-     * 根据用户名或邮箱模糊查询
-     */
-    @Query("SELECT u FROM User u WHERE u.username LIKE %:keyword% OR u.email LIKE %:keyword% OR u.realName LIKE %:keyword%")
-    List<User> findByKeyword(@Param("keyword") String keyword);
-    
     /**
      * 统计用户数量
      */
     @Query("SELECT COUNT(u) FROM User u WHERE u.status = :status")
     long countByStatus(@Param("status") User.Status status);
+    
+    /**
+     * 查询所有用户的ID和状态，返回[id, status]
+     */
+    @Query("SELECT u.id, u.status FROM User u")
+    List<Object[]> findAllIdAndStatus();
+    
+    /**
+     * 视图查询：只选出列表/详情需要的列
+     */
+    String VIEW_SELECT = "SELECT new io.github.charlie237.taiyi.dto.UserView(u.id, u.username, u.email, u.phone, "
+            + "u.realName, u.role, u.status, u.createdAt, u.lastLoginAt) FROM User u";
+    
+    @Query(value = VIEW_SELECT, countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserView> findAllViews(Pageable pageable);
+    
+    // 键集分页：ID小于游标（按ID倒序），不执行COUNT
+    @Query(VIEW_SELECT + " WHERE u.id < :id ORDER BY u.id DESC")
+    Slice<UserView> findViewsByIdLessThan(@Param("id") Long id, Pageable pageable);
+    
+    @Query(VIEW_SELECT + " WHERE u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+    
+    @Query(VIEW_SELECT + " WHERE u.id IN :ids")
+    List<UserView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,6 +1,7 @@
 package io.github.charlie237.taiyi.security;
 
 import io.github.charlie237.taiyi.entity.ApiToken;
+import io.github.charlie237.taiyi.filter.RequestTimingFilter;
 import io.github.charlie237.taiyi.service.ApiTokenService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -56,6 +57,8 @@ public class ApiTokenAuthenticationFilter extends OncePerRequestFilter {
                         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         
                         SecurityContextHolder.getContext().setAuthentication(authentication);
+                        request.setAttribute(RequestTimingFilter.USER_ID_ATTRIBUTE, apiToken.getUser().getId());
+                        request.setAttribute(RequestTimingFilter.USERNAME_ATTRIBUTE, authentication.getName());
                         
                         log.debug("API Token认证成功: {}", apiToken.getTokenName());
                     } else {
@@ -1,6 +1,8 @@
 package io.github.charlie237.taiyi.security;
 
 import io.github.charlie237.taiyi.common.Constants;
+import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.filter.RequestTimingFilter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -50,6 +52,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails instanceof User user) {
+                    request.setAttribute(RequestTimingFilter.USER_ID_ATTRIBUTE, user.getId());
+                }
+                request.setAttribute(RequestTimingFilter.USERNAME_ATTRIBUTE, username);
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
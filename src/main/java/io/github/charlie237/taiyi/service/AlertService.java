@@ -1,8 +1,10 @@
 package io.github.charlie237.taiyi.service;
 
+import io.github.charlie237.taiyi.event.AlertEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -19,6 +21,8 @@ import java.util.concurrent.ConcurrentHashMap;
 @RequiredArgsConstructor
 public class AlertService {
     
+    private final ApplicationEventPublisher eventPublisher;
+    
     @Value("${alert.enabled:true}")
     private boolean alertEnabled;
     
@@ -68,6 +72,9 @@ public class AlertService {
             
             log.info("发送告警: {} - {} - {}", nodeId, alertType, message);
             
+            // 通知订阅方（如管理端实时面板）
+            eventPublisher.publishEvent(new AlertEvent(nodeId, alertType, level, message, LocalDateTime.now()));
+            
         } catch (Exception e) {
             log.error("发送告警失败: {}", e.getMessage(), e);
         }
@@ -1,5 +1,7 @@
 package io.github.charlie237.taiyi.service;
 
+import io.github.charlie237.taiyi.dto.ApiTokenView;
+import io.github.charlie237.taiyi.dto.CursorPage;
 import io.github.charlie237.taiyi.entity.ApiToken;
 import io.github.charlie237.taiyi.entity.User;
 import io.github.charlie237.taiyi.repository.ApiTokenRepository;
@@ -7,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -109,6 +112,48 @@ public class ApiTokenService {
         return apiTokenRepository.findAll(pageable);
     }
     
+    /**
+     * 游标分页获取Token（按ID倒序，不执行COUNT）
+     */
+    public Slice<ApiTokenView> findAfter(Long cursor, int size) {
+        return apiTokenRepository.findViewsByIdLessThan(CursorPage.afterId(cursor), CursorPage.limit(size));
+    }
+    
+    /**
+     * 获取Token列表视图（分页）
+     */
+    public Page<ApiTokenView> findViews(Pageable pageable) {
+        return apiTokenRepository.findAllViews(pageable);
+    }
+    
+    /**
+     * 获取用户的Token视图
+     */
+    public List<ApiTokenView> getUserTokenViews(Long userId) {
+        return apiTokenRepository.findViewsByUserId(userId);
+    }
+    
+    /**
+     * 根据ID获取Token视图
+     */
+    public Optional<ApiTokenView> findViewById(Long id) {
+        return apiTokenRepository.findViewById(id);
+    }
+    
+    /**
+     * 获取所有活跃Token
+     */
+    public List<ApiToken> getActiveTokens() {
+        return apiTokenRepository.findByStatus(ApiToken.Status.ACTIVE);
+    }
+    
+    /**
+     * 统计Token总数
+     */
+    public long countTokens() {
+        return apiTokenRepository.count();
+    }
+    
     /**
      * 删除Token
      */
@@ -0,0 +1,444 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.entity.AuditLog;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 审计日志本地日志文件（只追加）
+ * 记录追加到内存映射的段文件中，段写满后滚动到新文件；由写入线程从检查点开始读取并入库，
+ * 入库成功后推进检查点并删除已入库的段。
+ *
+ * 段文件名为20位序号加.seg，文件预分配为固定大小，未写入部分为0。
+ * 记录格式：[int 长度][int CRC32][载荷]，先写载荷和校验值，最后写长度；
+ * 长度为0或校验失败表示该段结束（进程崩溃时最后一条可能不完整）。
+ * 每次启动都从新段开始追加，旧段只读。
+ * 检查点文件保存下一条待入库记录的位置（段序号:偏移），通过临时文件改名原子更新。
+ *
+ * 写入只进入页缓存，进程崩溃不丢数据；操作系统崩溃时可能丢失最近一次force之后的记录
+ */
+@Slf4j
+final class AuditJournal {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+
+    // 追加在请求线程上执行，且会写映射内存、刷盘和滚动段文件，用ReentrantLock避免虚拟线程在IO时占住载体线程
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 写入端，在lock内访问
+    private MappedByteBuffer activeBuffer;
+    private long activeSeq;
+    private int activeLimit;
+    private final Encoder encoder = new Encoder();
+    private final CRC32 writeCrc = new CRC32();
+
+    // 读取端，只在写入线程中访问
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private long checkpointSeq;
+    private int checkpointOffset;
+    private long readSeq;
+    private int readOffset;
+    private ByteBuffer readBuffer;
+    private long readBufferSeq = -1;
+    private final CRC32 readCrc = new CRC32();
+    private long forcedSeq;
+    private int forcedUpTo;
+
+    AuditJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * 加载已有段和检查点，并创建新的活动段
+     */
+    void open() throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .forEach(path -> segments.put(segmentSeq(path), path));
+            }
+
+            Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+            if (Files.exists(checkpoint)) {
+                String[] parts = Files.readString(checkpoint).trim().split(":");
+                checkpointSeq = Long.parseLong(parts[0]);
+                checkpointOffset = Integer.parseInt(parts[1]);
+            } else if (!segments.isEmpty()) {
+                checkpointSeq = segments.firstKey();
+            }
+            // 检查点之前的段已全部入库
+            segments.headMap(checkpointSeq).values().forEach(this::deleteQuietly);
+            segments.headMap(checkpointSeq).clear();
+
+            long next = segments.isEmpty() ? checkpointSeq + 1 : segments.lastKey() + 1;
+            if (segments.isEmpty()) {
+                // 没有待入库的段，从新段开头读取
+                checkpointSeq = next;
+                checkpointOffset = 0;
+            }
+            readSeq = checkpointSeq;
+            readOffset = checkpointOffset;
+            roll(next);
+            if (segments.size() > 1) {
+                log.info("审计日志文件待入库段: {}，从 {}:{} 继续", segments.size() - 1, checkpointSeq, checkpointOffset);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 追加一条记录
+     */
+    void append(AuditLog auditLog) throws IOException {
+        lock.lock();
+        try {
+            ByteBuffer payload = encoder.encode(auditLog);
+            int length = payload.remaining();
+            if (HEADER_SIZE + length > segmentSize) {
+                throw new IOException("审计记录超过段大小: " + length);
+            }
+            if (activeLimit + HEADER_SIZE + length > segmentSize) {
+                activeBuffer.force();
+                roll(activeSeq + 1);
+            }
+
+            writeCrc.reset();
+            writeCrc.update(payload.duplicate());
+            int position = activeLimit;
+            activeBuffer.put(position + HEADER_SIZE, payload, 0, length);
+            activeBuffer.putInt(position + 4, (int) writeCrc.getValue());
+            activeBuffer.putInt(position, length);
+            activeLimit = position + HEADER_SIZE + length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 从当前读取位置读出至多max条记录，不推进检查点
+     */
+    List<AuditLog> read(int max) throws IOException {
+        long limitSeq;
+        int limit;
+        lock.lock();
+        try {
+            limitSeq = activeSeq;
+            limit = activeLimit;
+        } finally {
+            lock.unlock();
+        }
+
+        List<AuditLog> records = new ArrayList<>(max);
+        while (records.size() < max) {
+            boolean active = readSeq == limitSeq;
+            int end = active ? limit : segmentSize;
+            ByteBuffer buffer = segmentBuffer(readSeq);
+            if (buffer == null || !readRecord(buffer, end, records)) {
+                if (active) {
+                    break;
+                }
+                // 已封存的段读完，进入下一段
+                Long next;
+                lock.lock();
+                try {
+                    next = segments.higherKey(readSeq);
+                } finally {
+                    lock.unlock();
+                }
+                if (next == null) {
+                    break;
+                }
+                readSeq = next;
+                readOffset = 0;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 记录已入库，推进检查点并删除已读完的段
+     */
+    void commit() throws IOException {
+        if (readSeq == checkpointSeq && readOffset == checkpointOffset) {
+            return;
+        }
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, readSeq + ":" + readOffset);
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointSeq = readSeq;
+        checkpointOffset = readOffset;
+
+        lock.lock();
+        try {
+            segments.headMap(checkpointSeq).values().forEach(this::deleteQuietly);
+            segments.headMap(checkpointSeq).clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 入库失败，回到检查点重新读取
+     */
+    void rewind() {
+        readSeq = checkpointSeq;
+        readOffset = checkpointOffset;
+    }
+
+    /**
+     * 把活动段新追加的部分刷到磁盘
+     */
+    void force() {
+        MappedByteBuffer buffer;
+        int limit;
+        lock.lock();
+        try {
+            buffer = activeBuffer;
+            limit = activeLimit;
+            if (forcedSeq != activeSeq) {
+                // 已滚动到新段，旧段在滚动时已整体刷盘
+                forcedSeq = activeSeq;
+                forcedUpTo = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (limit > forcedUpTo) {
+            buffer.force(forcedUpTo, limit - forcedUpTo);
+            forcedUpTo = limit;
+        }
+    }
+
+    /**
+     * 是否还有未入库的记录
+     */
+    boolean hasPending() {
+        lock.lock();
+        try {
+            return checkpointSeq < activeSeq || checkpointOffset < activeLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 未入库的字节数（近似值，已封存的段按整段计算）
+     */
+    long pendingBytes() {
+        lock.lock();
+        try {
+            long pending = 0;
+            for (long seq : segments.subMap(checkpointSeq, true, activeSeq, false).keySet()) {
+                pending += seq == checkpointSeq ? segmentSize - checkpointOffset : segmentSize;
+            }
+            return pending + (checkpointSeq == activeSeq ? activeLimit - checkpointOffset : activeLimit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            if (activeBuffer != null) {
+                activeBuffer.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 从readOffset读取一条记录，没有完整记录时返回false
+     */
+    private boolean readRecord(ByteBuffer buffer, int end, List<AuditLog> records) {
+        if (readOffset + HEADER_SIZE > end) {
+            return false;
+        }
+        int length = buffer.getInt(readOffset);
+        if (length <= 0 || readOffset + HEADER_SIZE + length > end) {
+            return false;
+        }
+        ByteBuffer payload = buffer.slice(readOffset + HEADER_SIZE, length);
+        readCrc.reset();
+        readCrc.update(payload.duplicate());
+        if ((int) readCrc.getValue() != buffer.getInt(readOffset + 4)) {
+            log.warn("审计日志记录校验失败，跳过该段剩余部分: {}:{}", readSeq, readOffset);
+            return false;
+        }
+        records.add(Encoder.decode(payload));
+        readOffset += HEADER_SIZE + length;
+        return true;
+    }
+
+    private ByteBuffer segmentBuffer(long seq) throws IOException {
+        if (readBufferSeq == seq) {
+            return readBuffer;
+        }
+        Path path;
+        lock.lock();
+        try {
+            path = segments.get(seq);
+        } finally {
+            lock.unlock();
+        }
+        if (path == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        readBufferSeq = seq;
+        return readBuffer;
+    }
+
+    private void roll(long seq) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", seq, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            activeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        activeSeq = seq;
+        activeLimit = 0;
+        segments.put(seq, path);
+        log.debug("审计日志文件滚动到新段: {}", path);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除已入库的审计日志段失败: {}", path, e);
+        }
+    }
+
+    private static long segmentSeq(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 审计记录的二进制编码，按固定字段顺序写入，可空字段带标记
+     */
+    static final class Encoder {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        ByteBuffer encode(AuditLog auditLog) {
+            buffer.clear();
+            putLong(auditLog.getUserId());
+            putString(auditLog.getUsername());
+            putString(auditLog.getAction());
+            putString(auditLog.getResourceType());
+            putLong(auditLog.getResourceId());
+            putString(auditLog.getIpAddress());
+            putString(auditLog.getUserAgent());
+            putString(auditLog.getRequestUri());
+            putString(auditLog.getRequestMethod());
+            putString(auditLog.getRequestParams());
+            putLong(auditLog.getResponseStatus() != null ? auditLog.getResponseStatus().longValue() : null);
+            putString(auditLog.getErrorMessage());
+            putLong(auditLog.getExecutionTime());
+            putString(auditLog.getOperationType().name());
+            putString(auditLog.getResult().name());
+            ensure(12);
+            buffer.putLong(auditLog.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(auditLog.getCreatedAt().getNano());
+            return buffer.flip();
+        }
+
+        static AuditLog decode(ByteBuffer buffer) {
+            AuditLog auditLog = new AuditLog();
+            auditLog.setUserId(getLong(buffer));
+            auditLog.setUsername(getString(buffer));
+            auditLog.setAction(getString(buffer));
+            auditLog.setResourceType(getString(buffer));
+            auditLog.setResourceId(getLong(buffer));
+            auditLog.setIpAddress(getString(buffer));
+            auditLog.setUserAgent(getString(buffer));
+            auditLog.setRequestUri(getString(buffer));
+            auditLog.setRequestMethod(getString(buffer));
+            auditLog.setRequestParams(getString(buffer));
+            Long responseStatus = getLong(buffer);
+            auditLog.setResponseStatus(responseStatus != null ? responseStatus.intValue() : null);
+            auditLog.setErrorMessage(getString(buffer));
+            auditLog.setExecutionTime(getLong(buffer));
+            auditLog.setOperationType(AuditLog.OperationType.valueOf(getString(buffer)));
+            auditLog.setResult(AuditLog.OperationResult.valueOf(getString(buffer)));
+            long epochSecond = buffer.getLong();
+            int nano = buffer.getInt();
+            auditLog.setCreatedAt(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+            return auditLog;
+        }
+
+        private void putLong(Long value) {
+            ensure(9);
+            if (value == null) {
+                buffer.put((byte) 0);
+            } else {
+                buffer.put((byte) 1).putLong(value);
+            }
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                ensure(4);
+                buffer.putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        private static Long getLong(ByteBuffer buffer) {
+            return buffer.get() == 0 ? null : buffer.getLong();
+        }
+
+        private static String getString(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
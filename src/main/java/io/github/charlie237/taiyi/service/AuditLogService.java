@@ -1,20 +1,24 @@
 package io.github.charlie237.taiyi.service;
 
+import io.github.charlie237.taiyi.config.TaiyiProperties;
 import io.github.charlie237.taiyi.entity.AuditLog;
 import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.filter.RequestTimingFilter;
 import io.github.charlie237.taiyi.repository.AuditLogRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * 审计日志服务
@@ -24,17 +28,23 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AuditLogService {
     
+    private static final int MAX_PARAMS_LENGTH = 1000;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Pattern SENSITIVE_PARAM = Pattern.compile("(?i)((?:token|password|secret)[^=&]*)=[^&]*");
+    
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final TaiyiProperties taiyiProperties;
     
     /**
      * 记录审计日志（异步）
+     * 请求信息在当前线程采集，入库由AuditLogWriter批量完成
      */
-    @Async
     public void logAsync(User user, String action, AuditLog.OperationType operationType, 
                         String resourceType, Long resourceId, AuditLog.OperationResult result) {
         try {
             AuditLog auditLog = createAuditLog(user, action, operationType, resourceType, resourceId, result);
-            auditLogRepository.save(auditLog);
+            auditLogWriter.submit(auditLog);
         } catch (Exception e) {
             log.error("记录审计日志失败", e);
         }
@@ -52,7 +62,85 @@ public class AuditLogService {
             auditLog.setErrorMessage(errorMessage);
         }
         
-        auditLogRepository.save(auditLog);
+        auditLogWriter.submit(auditLog);
+    }
+    
+    /**
+     * 记录请求审计日志（由RequestTimingFilter在请求完成后调用，可能在异步回调线程中）
+     * 只从请求对象读取信息，不依赖RequestContextHolder和安全上下文
+     */
+    public void logRequest(HttpServletRequest request, String uriTemplate, int status,
+                           long executionTime, Throwable failure) {
+        AuditLog auditLog = new AuditLog();
+        Object userId = request.getAttribute(RequestTimingFilter.USER_ID_ATTRIBUTE);
+        auditLog.setUserId(userId instanceof Long id ? id : null);
+        auditLog.setUsername((String) request.getAttribute(RequestTimingFilter.USERNAME_ATTRIBUTE));
+        auditLog.setAction(request.getMethod() + " " + uriTemplate);
+        auditLog.setOperationType(operationType(request.getMethod()));
+        auditLog.setResourceType(resourceType(uriTemplate));
+        auditLog.setResourceId(resourceId(request));
+        auditLog.setResult(failure == null && status < 400
+                ? AuditLog.OperationResult.SUCCESS : AuditLog.OperationResult.FAILURE);
+        auditLog.setResponseStatus(status);
+        auditLog.setExecutionTime(executionTime);
+        auditLog.setIpAddress(getClientIp(request));
+        auditLog.setUserAgent(truncate(request.getHeader("User-Agent"), 500));
+        auditLog.setRequestUri(truncate(request.getRequestURI(), 500));
+        auditLog.setRequestMethod(request.getMethod());
+        if (taiyiProperties.getAudit().getRequestLog().isIncludeQueryString() && request.getQueryString() != null) {
+            auditLog.setRequestParams(truncate(SENSITIVE_PARAM.matcher(request.getQueryString()).replaceAll("$1=***"),
+                    MAX_PARAMS_LENGTH));
+        }
+        if (failure != null) {
+            auditLog.setErrorMessage(truncate(failure.getMessage(), MAX_ERROR_LENGTH));
+        }
+        auditLogWriter.submit(auditLog);
+    }
+    
+    private static AuditLog.OperationType operationType(String method) {
+        return switch (method) {
+            case "POST" -> AuditLog.OperationType.CREATE;
+            case "PUT", "PATCH" -> AuditLog.OperationType.UPDATE;
+            case "DELETE" -> AuditLog.OperationType.DELETE;
+            default -> AuditLog.OperationType.VIEW;
+        };
+    }
+    
+    /**
+     * 取URI模板的资源段作为资源类型，如 /api/nodes/{nodeId} -> NODES
+     */
+    private static String resourceType(String uriTemplate) {
+        for (String segment : uriTemplate.split("/")) {
+            if (!segment.isEmpty() && !"api".equals(segment) && !segment.startsWith("{")) {
+                return truncate(segment.toUpperCase(), 50);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 取路径变量中的数字主键（id或以Id结尾的变量）
+     */
+    @SuppressWarnings("unchecked")
+    private static Long resourceId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(variables instanceof Map<?, ?> map)) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : ((Map<String, String>) map).entrySet()) {
+            if ("id".equals(entry.getKey()) || entry.getKey().endsWith("Id")) {
+                try {
+                    return Long.valueOf(entry.getValue());
+                } catch (NumberFormatException e) {
+                    // 节点标识等非数字变量
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
     }
     
     /**
@@ -0,0 +1,426 @@
+package io.github.charlie237.taiyi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.entity.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 审计日志批量写入器
+ * 请求线程只把审计记录放入有界队列，由单个写入线程批量取出后通过JDBC批量插入audit_logs。
+ * 队列满时按配置的策略处理：BLOCK 阻塞请求线程至多block-timeout后丢弃；DROP_OLDEST 丢弃最早的一条；
+ * SPILL 追加到本地溢出文件（JSON行），下次启动时回放入库。
+ * 指标：taiyi.audit.queue.size（积压条数）、taiyi.audit.lag.seconds（最早一条的等待时间）、
+ * taiyi.audit.written、taiyi.audit.spilled、taiyi.audit.dropped（按reason区分）
+ *
+ * taiyi.audit.mode=JOURNAL 时不使用内存队列：请求线程把记录追加到本地内存映射日志文件（AuditJournal），
+ * 写入线程从检查点开始读取日志文件批量入库，入库成功后推进检查点。数据库短暂不可用时记录保留在文件中重试，
+ * 不会丢弃；积压通过taiyi.audit.journal.pending.bytes观察
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    private static final String INSERT_AUDIT_LOG_SQL = "INSERT INTO audit_logs (user_id, username, action, "
+            + "resource_type, resource_id, ip_address, user_agent, request_uri, request_method, request_params, "
+            + "response_status, error_message, execution_time, operation_type, result, created_at) "
+            + "VALUES (:userId, :username, :action, :resourceType, :resourceId, :ipAddress, :userAgent, "
+            + ":requestUri, :requestMethod, :requestParams, :responseStatus, :errorMessage, :executionTime, "
+            + ":operationType, :result, :createdAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TaiyiProperties.Audit config;
+    private final BlockingQueue<AuditLog> queue;
+    private AuditJournal journal;
+
+    private final Counter writtenCounter;
+    private final Counter spilledCounter;
+    private final Counter overflowDroppedCounter;
+    private final Counter writeErrorDroppedCounter;
+
+    // 溢出文件写入可能发生在请求线程上，用ReentrantLock避免虚拟线程在文件IO时占住载体线程
+    private final ReentrantLock spillLock = new ReentrantLock();
+    private BufferedWriter spillWriter;
+
+    private volatile double journalLagSeconds;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditLogWriter(NamedParameterJdbcTemplate jdbcTemplate,
+                          ObjectMapper objectMapper,
+                          TaiyiProperties taiyiProperties,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.config = taiyiProperties.getAudit();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        Gauge.builder("taiyi.audit.queue.size", queue, BlockingQueue::size)
+                .description("Audit log records waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("taiyi.audit.lag.seconds", this, AuditLogWriter::lagSeconds)
+                .description("Age of the oldest audit log record waiting to be written")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("taiyi.audit.written")
+                .description("Audit log records written to the database")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder("taiyi.audit.spilled")
+                .description("Audit log records spilled to the local file")
+                .register(meterRegistry);
+        this.overflowDroppedCounter = Counter.builder("taiyi.audit.dropped")
+                .description("Audit log records dropped")
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        this.writeErrorDroppedCounter = Counter.builder("taiyi.audit.dropped")
+                .description("Audit log records dropped")
+                .tag("reason", "write_error")
+                .register(meterRegistry);
+        Gauge.builder("taiyi.audit.journal.pending.bytes", this,
+                        writer -> writer.journal != null ? writer.journal.pendingBytes() : 0)
+                .description("Audit journal bytes not yet shipped to the database")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        replaySpillFile();
+        if (config.getMode() == TaiyiProperties.Audit.Mode.JOURNAL) {
+            journal = new AuditJournal(Paths.get(config.getJournalDir()), (int) config.getSegmentSize().toBytes());
+            journal.open();
+        }
+        running = true;
+        writerThread = journal != null
+                ? new Thread(this::runShipper, "audit-shipper")
+                : new Thread(this::runWriter, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("审计日志写入器已启动: 模式 {}, 队列容量 {}, 批量 {}, 溢出策略 {}", config.getMode(),
+                config.getQueueCapacity(), config.getBatchSize(), config.getOverflowPolicy());
+    }
+
+    /**
+     * 停止时写完队列中剩余的记录
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(Duration.ofSeconds(30).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        spillLock.lock();
+        try {
+            closeSpillWriter();
+        } finally {
+            spillLock.unlock();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("审计日志写入器停止时仍有 {} 条未写入", queue.size());
+        }
+    }
+
+    /**
+     * 提交一条审计记录，由请求线程调用，不访问数据库
+     */
+    public void submit(AuditLog auditLog) {
+        if (auditLog.getCreatedAt() == null) {
+            // JDBC写入不经过@PrePersist，以提交时间作为记录时间
+            auditLog.setCreatedAt(LocalDateTime.now());
+        }
+        if (journal != null) {
+            try {
+                journal.append(auditLog);
+            } catch (IOException e) {
+                log.error("追加审计日志文件失败: {}", e.getMessage());
+                writeErrorDroppedCounter.increment();
+            }
+            return;
+        }
+        if (queue.offer(auditLog)) {
+            return;
+        }
+
+        switch (config.getOverflowPolicy()) {
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(auditLog, config.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                        overflowDroppedCounter.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    overflowDroppedCounter.increment();
+                }
+            }
+            case DROP_OLDEST -> {
+                // 写入线程可能同时取走记录，循环直到放入
+                while (!queue.offer(auditLog)) {
+                    if (queue.poll() != null) {
+                        overflowDroppedCounter.increment();
+                    }
+                }
+            }
+            case SPILL -> spill(List.of(auditLog));
+        }
+    }
+
+    /**
+     * 当前积压条数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(config.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(config.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("审计日志写入线程异常", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * JOURNAL模式：从日志文件读取并入库，失败时回到检查点重试
+     */
+    private void runShipper() {
+        while (running || journal.hasPending()) {
+            try {
+                journal.force();
+                List<AuditLog> batch = journal.read(config.getBatchSize());
+                if (!batch.isEmpty()) {
+                    journalLagSeconds = ageSeconds(batch.get(0));
+                    insert(batch);
+                    writtenCounter.increment(batch.size());
+                }
+                // 读完已封存的段时即使没有新记录也推进检查点，以便删除旧段
+                journal.commit();
+                if (batch.size() < config.getBatchSize()) {
+                    journalLagSeconds = 0.0;
+                    if (running) {
+                        Thread.sleep(config.getFlushInterval().toMillis());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("审计日志文件入库失败，稍后重试: {}", e.getMessage());
+                journal.rewind();
+                if (!running) {
+                    // 停止过程中不再重试，剩余记录下次启动继续入库
+                    break;
+                }
+                try {
+                    Thread.sleep(config.getFlushInterval().toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在flush-interval内尽量凑满一批，停止过程中不再等待
+     */
+    private void fillBatch(List<AuditLog> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + config.getFlushInterval().toNanos();
+        queue.drainTo(batch, config.getBatchSize() - batch.size());
+        while (running && batch.size() < config.getBatchSize()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, config.getBatchSize() - batch.size());
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        try {
+            insert(batch);
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            if (config.getOverflowPolicy() == TaiyiProperties.Audit.OverflowPolicy.SPILL) {
+                log.error("批量写入审计日志失败，{} 条写入溢出文件: {}", batch.size(), e.getMessage());
+                spill(batch);
+            } else {
+                log.error("批量写入审计日志失败，丢弃 {} 条", batch.size(), e);
+                writeErrorDroppedCounter.increment(batch.size());
+            }
+        }
+    }
+
+    private void insert(List<AuditLog> batch) {
+        SqlParameterSource[] batchArgs = new SqlParameterSource[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            AuditLog auditLog = batch.get(i);
+            batchArgs[i] = new MapSqlParameterSource()
+                    .addValue("userId", auditLog.getUserId())
+                    .addValue("username", auditLog.getUsername())
+                    .addValue("action", auditLog.getAction())
+                    .addValue("resourceType", auditLog.getResourceType())
+                    .addValue("resourceId", auditLog.getResourceId())
+                    .addValue("ipAddress", auditLog.getIpAddress())
+                    .addValue("userAgent", auditLog.getUserAgent())
+                    .addValue("requestUri", auditLog.getRequestUri())
+                    .addValue("requestMethod", auditLog.getRequestMethod())
+                    .addValue("requestParams", auditLog.getRequestParams())
+                    .addValue("responseStatus", auditLog.getResponseStatus())
+                    .addValue("errorMessage", auditLog.getErrorMessage())
+                    .addValue("executionTime", auditLog.getExecutionTime())
+                    .addValue("operationType", auditLog.getOperationType().name())
+                    .addValue("result", auditLog.getResult().name())
+                    .addValue("createdAt", auditLog.getCreatedAt());
+        }
+        jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG_SQL, batchArgs);
+    }
+
+    /**
+     * 追加到溢出文件，文件也写不进去时只能丢弃
+     */
+    private void spill(List<AuditLog> auditLogs) {
+        spillLock.lock();
+        try {
+            if (spillWriter == null) {
+                Path path = Paths.get(config.getSpillFile());
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                spillWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (AuditLog auditLog : auditLogs) {
+                spillWriter.write(objectMapper.writeValueAsString(auditLog));
+                spillWriter.newLine();
+            }
+            spillWriter.flush();
+            spilledCounter.increment(auditLogs.size());
+        } catch (IOException e) {
+            log.error("写入审计日志溢出文件失败，丢弃 {} 条: {}", auditLogs.size(), e.getMessage());
+            overflowDroppedCounter.increment(auditLogs.size());
+            closeSpillWriter();
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * 启动时把上次溢出的记录回放入库
+     * 先改名再回放，回放过程中进程退出时下次启动继续回放该文件（可能产生少量重复记录）
+     */
+    private void replaySpillFile() {
+        Path path = Paths.get(config.getSpillFile());
+        Path replaying = path.resolveSibling(path.getFileName() + ".replaying");
+        try {
+            if (Files.exists(path) && !Files.exists(replaying)) {
+                Files.move(path, replaying, StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (!Files.exists(replaying)) {
+                return;
+            }
+
+            int replayed = 0;
+            List<AuditLog> batch = new ArrayList<>(config.getBatchSize());
+            try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    batch.add(objectMapper.readValue(line, AuditLog.class));
+                    if (batch.size() >= config.getBatchSize()) {
+                        insert(batch);
+                        replayed += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                insert(batch);
+                replayed += batch.size();
+            }
+            Files.delete(replaying);
+            log.info("已回放审计日志溢出文件: {} 条", replayed);
+        } catch (Exception e) {
+            log.error("回放审计日志溢出文件失败，保留文件待下次启动: {}", replaying, e);
+        }
+    }
+
+    private void closeSpillWriter() {
+        if (spillWriter == null) {
+            return;
+        }
+        try {
+            spillWriter.close();
+        } catch (IOException e) {
+            log.debug("关闭审计日志溢出文件失败", e);
+        }
+        spillWriter = null;
+    }
+
+    private static double lagSeconds(AuditLogWriter writer) {
+        if (writer.journal != null) {
+            return writer.journalLagSeconds;
+        }
+        return ageSeconds(writer.queue.peek());
+    }
+
+    private static double ageSeconds(AuditLog auditLog) {
+        if (auditLog == null || auditLog.getCreatedAt() == null) {
+            return 0.0;
+        }
+        return Duration.between(auditLog.getCreatedAt(), LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.event.NodeDeletedEvent;
+import io.github.charlie237.taiyi.event.NodeStatusEvent;
+import io.github.charlie237.taiyi.event.UserChangeEvent;
+import io.github.charlie237.taiyi.repository.NodeRepository;
+import io.github.charlie237.taiyi.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 仪表盘计数器
+ * 用户总数/活跃数、节点总数/在线数保存在内存中，由实体变更事件在事务提交后增量维护，
+ * 仪表盘读取时不再执行COUNT查询；路由计数直接取自内存路由表。
+ * 每个实体记录最近一次已知状态，按状态变化计算增量，重复到达的事件不会重复计数。
+ * 绕过服务层的写入（如初始化数据、直接SQL）由定时对账修正，对账以数据库为准并记录偏差
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardCounters {
+
+    private final UserRepository userRepository;
+    private final NodeRepository nodeRepository;
+    private final RoutingTable routingTable;
+
+    private final Map<Long, User.Status> userStatuses = new HashMap<>();
+    private final Map<Long, Node.Status> nodeStatuses = new HashMap<>();
+    private volatile long totalUsers;
+    private volatile long activeUsers;
+    private volatile long totalNodes;
+    private volatile long onlineNodes;
+
+    /**
+     * 启动完成后（初始化数据写入之后）首次加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * 定时与数据库对账
+     */
+    @Scheduled(fixedDelayString = "${taiyi.monitoring.counters-reconcile-interval:PT5M}",
+            initialDelayString = "${taiyi.monitoring.counters-reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        long[] previous = {totalUsers, activeUsers, totalNodes, onlineNodes};
+
+        userStatuses.clear();
+        for (Object[] row : userRepository.findAllIdAndStatus()) {
+            userStatuses.put((Long) row[0], (User.Status) row[1]);
+        }
+        nodeStatuses.clear();
+        for (Object[] row : nodeRepository.findAllIdAndStatus()) {
+            nodeStatuses.put((Long) row[0], (Node.Status) row[1]);
+        }
+        totalUsers = userStatuses.size();
+        activeUsers = userStatuses.values().stream().filter(status -> status == User.Status.ACTIVE).count();
+        totalNodes = nodeStatuses.size();
+        onlineNodes = nodeStatuses.values().stream().filter(status -> status == Node.Status.ONLINE).count();
+
+        if (previous[0] != totalUsers || previous[1] != activeUsers
+                || previous[2] != totalNodes || previous[3] != onlineNodes) {
+            log.info("仪表盘计数对账: 用户 {}/{} -> {}/{}, 节点 {}/{} -> {}/{}",
+                    previous[0], previous[1], totalUsers, activeUsers,
+                    previous[2], previous[3], totalNodes, onlineNodes);
+        }
+    }
+
+    /**
+     * 用户新增、状态变化或删除
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChange(UserChangeEvent event) {
+        User.Status previous = event.status() != null
+                ? userStatuses.put(event.userId(), event.status())
+                : userStatuses.remove(event.userId());
+        totalUsers = userStatuses.size();
+        activeUsers += delta(previous == User.Status.ACTIVE, event.status() == User.Status.ACTIVE);
+    }
+
+    /**
+     * 节点新增或状态变化
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onNodeStatus(NodeStatusEvent event) {
+        Node.Status previous = nodeStatuses.put(event.nodeId(), event.status());
+        totalNodes = nodeStatuses.size();
+        onlineNodes += delta(previous == Node.Status.ONLINE, event.status() == Node.Status.ONLINE);
+    }
+
+    /**
+     * 节点删除
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onNodeDeleted(NodeDeletedEvent event) {
+        Node.Status previous = nodeStatuses.remove(event.nodeId());
+        totalNodes = nodeStatuses.size();
+        onlineNodes += delta(previous == Node.Status.ONLINE, false);
+    }
+
+    public long totalUsers() {
+        return totalUsers;
+    }
+
+    public long activeUsers() {
+        return activeUsers;
+    }
+
+    public long totalNodes() {
+        return totalNodes;
+    }
+
+    public long onlineNodes() {
+        return onlineNodes;
+    }
+
+    /**
+     * 所有节点的最近已知状态（副本）
+     */
+    public synchronized Map<Long, Node.Status> nodeStatuses() {
+        return new HashMap<>(nodeStatuses);
+    }
+
+    public long totalRoutes() {
+        return routingTable.size();
+    }
+
+    public long activeRoutes() {
+        return routingTable.countActive();
+    }
+
+    private static int delta(boolean before, boolean after) {
+        return (after ? 1 : 0) - (before ? 1 : 0);
+    }
+}
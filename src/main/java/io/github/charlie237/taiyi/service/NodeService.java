@@ -1,16 +1,24 @@
 package io.github.charlie237.taiyi.service;
 
+import io.github.charlie237.taiyi.dto.CursorPage;
+import io.github.charlie237.taiyi.dto.NodeView;
 import io.github.charlie237.taiyi.entity.Node;
 import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.event.NodeChangeEvent;
+import io.github.charlie237.taiyi.event.NodeDeletedEvent;
+import io.github.charlie237.taiyi.event.NodeStatusEvent;
 import io.github.charlie237.taiyi.repository.NodeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,6 +32,9 @@ import java.util.UUID;
 public class NodeService {
     
     private final NodeRepository nodeRepository;
+    private final PortAllocator portAllocator;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * 注册新节点
@@ -46,7 +57,10 @@ public class NodeService {
         node.setTotalBytesIn(0L);
         node.setTotalBytesOut(0L);
         
-        return nodeRepository.save(node);
+        Node savedNode = nodeRepository.save(node);
+        eventPublisher.publishEvent(new NodeChangeEvent(savedNode.getId()));
+        publishStatus(savedNode);
+        return savedNode;
     }
     
     /**
@@ -70,6 +84,7 @@ public class NodeService {
         node.setLastHeartbeat(LocalDateTime.now());
         
         nodeRepository.save(node);
+        publishStatus(node);
         log.info("节点上线: {}", nodeId);
     }
     
@@ -85,6 +100,7 @@ public class NodeService {
         node.setCurrentConnections(0);
         
         nodeRepository.save(node);
+        publishStatus(node);
         log.info("节点离线: {}", nodeId);
     }
     
@@ -99,31 +115,31 @@ public class NodeService {
         node.setLastHeartbeat(LocalDateTime.now());
         if (node.getStatus() == Node.Status.OFFLINE) {
             node.setStatus(Node.Status.ONLINE);
+            publishStatus(node);
         }
         
         nodeRepository.save(node);
     }
     
     /**
-     * 更新节点统计信息
+     * 根据ID查找节点
      */
-    @Transactional
-    public void updateNodeStats(String nodeId, Integer connections, Long bytesIn, Long bytesOut) {
-        Node node = nodeRepository.findByNodeId(nodeId)
-                .orElseThrow(() -> new RuntimeException("节点不存在"));
-        
-        node.setCurrentConnections(connections);
-        node.setTotalBytesIn(node.getTotalBytesIn() + bytesIn);
-        node.setTotalBytesOut(node.getTotalBytesOut() + bytesOut);
-        
-        nodeRepository.save(node);
+    public Optional<Node> findById(Long id) {
+        return nodeRepository.findById(id);
     }
     
     /**
-     * 根据ID查找节点
+     * 节点是否属于指定用户（供@PreAuthorize表达式使用）
      */
-    public Optional<Node> findById(Long id) {
-        return nodeRepository.findById(id);
+    public boolean isOwner(Long id, String username) {
+        return nodeRepository.existsByIdAndUserUsername(id, username);
+    }
+    
+    /**
+     * 根据ID批量查找节点
+     */
+    public List<Node> findAllById(Collection<Long> ids) {
+        return nodeRepository.findAllById(ids);
     }
     
     /**
@@ -162,10 +178,14 @@ public class NodeService {
     }
     
     /**
-     * 根据关键字搜索节点
+     * 根据关键字搜索节点（全文索引，按相关度排序）
      */
-    public List<Node> searchNodes(String keyword) {
-        return nodeRepository.findByKeyword(keyword);
+    public List<NodeView> searchNodes(String keyword, int limit) {
+        List<Long> ids = searchIndexService.search(SearchIndexService.Type.NODE, keyword, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return SearchIndexService.orderByIds(ids, nodeRepository.findViewsByIdIn(ids), NodeView::id);
     }
     
     /**
@@ -189,7 +209,9 @@ public class NodeService {
             node.setProtocol(nodeDetails.getProtocol());
         }
         
-        return nodeRepository.save(node);
+        Node savedNode = nodeRepository.save(node);
+        eventPublisher.publishEvent(new NodeChangeEvent(id));
+        return savedNode;
     }
     
     /**
@@ -207,6 +229,9 @@ public class NodeService {
         }
         
         nodeRepository.deleteById(id);
+        // 路由随节点级联删除，同时回收节点的端口池
+        portAllocator.removeNodeAfterCommit(id);
+        eventPublisher.publishEvent(new NodeDeletedEvent(id));
     }
     
     /**
@@ -222,6 +247,7 @@ public class NodeService {
                 node.setStatus(Node.Status.OFFLINE);
                 node.setCurrentConnections(0);
                 nodeRepository.save(node);
+                publishStatus(node);
                 log.info("节点超时离线: {}", node.getNodeId());
             }
         }
@@ -254,6 +280,48 @@ public class NodeService {
     public Page<Node> getAllNodes(Pageable pageable) {
         return nodeRepository.findAll(pageable);
     }
+    
+    /**
+     * 游标分页获取节点（按ID倒序，不执行COUNT）
+     */
+    public Slice<NodeView> findAfter(Long cursor, int size) {
+        return nodeRepository.findViewsByIdLessThan(CursorPage.afterId(cursor), CursorPage.limit(size));
+    }
+    
+    /**
+     * 获取节点列表视图（分页）
+     */
+    public Page<NodeView> findViews(Pageable pageable) {
+        return nodeRepository.findAllViews(pageable);
+    }
+    
+    /**
+     * 获取用户的节点视图
+     */
+    public List<NodeView> findViewsByUserId(Long userId) {
+        return nodeRepository.findViewsByUserId(userId);
+    }
+    
+    /**
+     * 获取在线节点视图
+     */
+    public List<NodeView> findOnlineViews() {
+        return nodeRepository.findViewsByStatus(Node.Status.ONLINE);
+    }
+    
+    /**
+     * 根据ID获取节点视图
+     */
+    public Optional<NodeView> findViewById(Long id) {
+        return nodeRepository.findViewById(id);
+    }
+    
+    /**
+     * 根据节点标识获取节点视图
+     */
+    public Optional<NodeView> findViewByNodeId(String nodeId) {
+        return nodeRepository.findViewByNodeId(nodeId);
+    }
 
     /**
      * 获取在线节点列表
@@ -267,7 +335,10 @@ public class NodeService {
      */
     @Transactional
     public Node updateNode(Node node) {
-        return nodeRepository.save(node);
+        Node savedNode = nodeRepository.save(node);
+        eventPublisher.publishEvent(new NodeChangeEvent(savedNode.getId()));
+        publishStatus(savedNode);
+        return savedNode;
     }
 
     /**
@@ -278,9 +349,18 @@ public class NodeService {
         Optional<Node> nodeOpt = nodeRepository.findByNodeId(nodeId);
         if (nodeOpt.isPresent()) {
             nodeRepository.delete(nodeOpt.get());
+            portAllocator.removeNodeAfterCommit(nodeOpt.get().getId());
+            eventPublisher.publishEvent(new NodeDeletedEvent(nodeOpt.get().getId()));
             log.info("删除节点: {}", nodeId);
             return true;
         }
         return false;
     }
+
+    /**
+     * 发布节点状态事件（事务提交后由计数器等订阅方处理）
+     */
+    private void publishStatus(Node node) {
+        eventPublisher.publishEvent(new NodeStatusEvent(node.getId(), node.getStatus()));
+    }
 }
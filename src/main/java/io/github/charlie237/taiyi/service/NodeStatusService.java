@@ -2,10 +2,12 @@ package io.github.charlie237.taiyi.service;
 
 import io.github.charlie237.taiyi.entity.Node;
 import io.github.charlie237.taiyi.entity.NodeStatus;
+import io.github.charlie237.taiyi.event.NodeMetricsEvent;
 import io.github.charlie237.taiyi.repository.NodeRepository;
 import io.github.charlie237.taiyi.repository.NodeStatusRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -28,6 +30,7 @@ public class NodeStatusService {
     private final NodeRepository nodeRepository;
     private final NodeStatusRepository nodeStatusRepository;
     private final AlertService alertService;
+    private final ApplicationEventPublisher eventPublisher;
     
     // 告警阈值配置
     private static final double CPU_WARNING_THRESHOLD = 80.0;
@@ -60,6 +63,8 @@ public class NodeStatusService {
             
             // 保存状态记录
             nodeStatusRepository.save(status);
+            eventPublisher.publishEvent(new NodeMetricsEvent(node.getId(), nodeId, status.getCpuUsage(), status.getMemoryUsage(),
+                    status.getDiskUsage(), status.getConnectionCount(), status.getPingLatency(), status.getRecordedAt()));
             
             // 检查告警条件
             checkAlerts(node, status);
@@ -75,7 +80,7 @@ public class NodeStatusService {
     /**
      * 解析状态数据
      */
-    private void parseStatusData(NodeStatus status, Map<String, Object> data) {
+    void parseStatusData(NodeStatus status, Map<String, Object> data) {
         // CPU使用率
         if (data.containsKey("cpuUsage")) {
             status.setCpuUsage(((Number) data.get("cpuUsage")).doubleValue());
@@ -136,7 +141,7 @@ public class NodeStatusService {
     /**
      * 检查告警条件
      */
-    private void checkAlerts(Node node, NodeStatus status) {
+    void checkAlerts(Node node, NodeStatus status) {
         String nodeId = node.getNodeId();
         
         // CPU告警检查
@@ -0,0 +1,225 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.dto.PortCapacity;
+import io.github.charlie237.taiyi.repository.RouteRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 远程端口分配器
+ * 每个边缘节点有独立的端口空间，分配器按节点分片：每个节点一个内存位图，
+ * 启动时从路由表加载已占用端口，之后的分配和释放不再访问数据库。
+ * 分配从上次分配位置开始查找下一个空闲位，到达末尾后回绕，均摊O(1)；
+ * 同一节点的操作在该节点的锁内完成，不同节点之间互不阻塞。
+ * 数据库(node_id, remote_port)唯一约束作为最后的兜底
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PortAllocator {
+
+    private final RouteRepository routeRepository;
+    private final TaiyiProperties taiyiProperties;
+
+    private final Map<Long, NodePorts> pools = new ConcurrentHashMap<>();
+    private volatile int rangeStart;
+    private volatile int rangeEnd;
+
+    @PostConstruct
+    public void load() {
+        TaiyiProperties.Tunnel.PortRange range = taiyiProperties.getTunnel().getPortRange();
+        if (range.getStart() > range.getEnd()) {
+            throw new IllegalStateException("端口范围配置错误: " + range.getStart() + "-" + range.getEnd());
+        }
+        rangeStart = range.getStart();
+        rangeEnd = range.getEnd();
+        pools.clear();
+
+        int loaded = 0;
+        for (Object[] row : routeRepository.findAllNodeRemotePorts()) {
+            Long nodeId = (Long) row[0];
+            Integer port = (Integer) row[1];
+            if (poolFor(nodeId).reserve(port)) {
+                loaded++;
+            }
+        }
+        log.info("端口分配器加载完成: 范围 {}-{}, 节点 {}, 已占用 {}",
+                rangeStart, rangeEnd, pools.size(), loaded);
+    }
+
+    /**
+     * 为节点分配一个空闲端口
+     */
+    public int allocate(Long nodeId) {
+        return poolFor(nodeId).allocate();
+    }
+
+    /**
+     * 预留节点的指定端口，已被占用时返回false；范围外的端口不由分配器管理，直接返回true
+     */
+    public boolean reserve(Long nodeId, int port) {
+        return !isInRange(port) || poolFor(nodeId).reserve(port);
+    }
+
+    /**
+     * 释放节点的端口
+     */
+    public void release(Long nodeId, int port) {
+        NodePorts pool = pools.get(nodeId);
+        if (pool != null && isInRange(port)) {
+            pool.release(port);
+        }
+    }
+
+    /**
+     * 端口是否已被节点占用
+     */
+    public boolean isAllocated(Long nodeId, int port) {
+        NodePorts pool = pools.get(nodeId);
+        return pool != null && isInRange(port) && pool.isAllocated(port);
+    }
+
+    /**
+     * 事务回滚时归还端口；没有事务时不处理
+     */
+    public void releaseOnRollback(Long nodeId, int port) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(nodeId, port);
+                }
+            }
+        });
+    }
+
+    /**
+     * 事务提交后释放端口，避免回滚时端口已被他人分配；没有事务时立即释放
+     */
+    public void releaseAfterCommit(Long nodeId, int port) {
+        afterCommit(() -> release(nodeId, port));
+    }
+
+    /**
+     * 事务提交后移除节点的端口池（节点删除时其路由级联删除）
+     */
+    public void removeNodeAfterCommit(Long nodeId) {
+        afterCommit(() -> pools.remove(nodeId));
+    }
+
+    /**
+     * 查询节点端口容量
+     */
+    public PortCapacity capacity(Long nodeId) {
+        NodePorts pool = pools.get(nodeId);
+        int allocated = pool != null ? pool.allocated() : 0;
+        return new PortCapacity(nodeId, rangeStart, rangeEnd, size(), allocated, size() - allocated);
+    }
+
+    /**
+     * 查询所有已有端口池的节点容量
+     */
+    public List<PortCapacity> capacities() {
+        return pools.keySet().stream()
+                .sorted(Comparator.naturalOrder())
+                .map(this::capacity)
+                .toList();
+    }
+
+    /**
+     * 每个节点的端口总数
+     */
+    public int size() {
+        return rangeEnd - rangeStart + 1;
+    }
+
+    private NodePorts poolFor(Long nodeId) {
+        return pools.computeIfAbsent(nodeId, id -> new NodePorts(rangeStart, size()));
+    }
+
+    /**
+     * 端口是否在分配器管理的范围内
+     */
+    public boolean isInRange(int port) {
+        return port >= rangeStart && port <= rangeEnd;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 单个节点的端口位图，第i位表示端口start + i已被占用
+     */
+    private static final class NodePorts {
+
+        private final int start;
+        private final int size;
+        private final BitSet used;
+        private int cursor;
+
+        NodePorts(int start, int size) {
+            this.start = start;
+            this.size = size;
+            this.used = new BitSet(size);
+        }
+
+        synchronized int allocate() {
+            int index = used.nextClearBit(cursor);
+            if (index >= size) {
+                // 回绕到范围开头查找
+                index = used.nextClearBit(0);
+                if (index >= size) {
+                    throw new RuntimeException("节点无可用端口");
+                }
+            }
+            used.set(index);
+            cursor = index + 1 < size ? index + 1 : 0;
+            return start + index;
+        }
+
+        synchronized boolean reserve(int port) {
+            int index = port - start;
+            if (index < 0 || index >= size || used.get(index)) {
+                return false;
+            }
+            used.set(index);
+            return true;
+        }
+
+        synchronized void release(int port) {
+            used.clear(port - start);
+        }
+
+        synchronized boolean isAllocated(int port) {
+            return used.get(port - start);
+        }
+
+        synchronized int allocated() {
+            return used.cardinality();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.common.Constants;
+import io.github.charlie237.taiyi.dto.RouteConfig;
+import io.github.charlie237.taiyi.dto.RouteSnapshot;
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.event.RouteChangeEvent;
+import io.github.charlie237.taiyi.repository.NodeRepository;
+import io.github.charlie237.taiyi.websocket.NodeWebSocketHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 路由配置下发服务
+ * 为每个在线节点维护一份已下发的路由配置和版本号。节点连接时全量下发；
+ * 路由变更时只下发新增/修改/删除的路由，并携带基线版本，节点版本不一致时请求全量重新同步
+ *
+ * 消息格式（type=route_config）：
+ * 全量 {mode: "full", version, routes: [...]}
+ * 增量 {mode: "delta", baseVersion, version, added: [...], changed: [...], removed: [routeId...]}
+ */
+@Slf4j
+@Service
+public class RouteConfigPushService {
+
+    private final NodeRepository nodeRepository;
+    private final RoutingTable routingTable;
+    private final NodeWebSocketHandler nodeWebSocketHandler;
+
+    // 按节点主键保存的已下发配置，只保存在线节点
+    private final Map<Long, NodeConfig> configs = new ConcurrentHashMap<>();
+    // 节点标识到节点主键的映射
+    private final Map<String, Long> idsByNodeId = new ConcurrentHashMap<>();
+
+    public RouteConfigPushService(NodeRepository nodeRepository,
+                                  RoutingTable routingTable,
+                                  @Lazy NodeWebSocketHandler nodeWebSocketHandler) {
+        this.nodeRepository = nodeRepository;
+        this.routingTable = routingTable;
+        this.nodeWebSocketHandler = nodeWebSocketHandler;
+    }
+
+    /**
+     * 节点连接后全量下发配置
+     */
+    public void onNodeConnected(String nodeId) {
+        Node node = nodeRepository.findByNodeId(nodeId).orElse(null);
+        if (node == null) {
+            log.warn("节点不存在，跳过配置下发: {}", nodeId);
+            return;
+        }
+        idsByNodeId.put(nodeId, node.getId());
+        NodeConfig config = configs.computeIfAbsent(node.getId(), id -> new NodeConfig(nodeId));
+        config.lock.lock();
+        try {
+            pushFull(node.getId(), config);
+        } finally {
+            config.lock.unlock();
+        }
+    }
+
+    /**
+     * 节点断开后丢弃其配置状态，重连时重新全量下发
+     */
+    public void onNodeDisconnected(String nodeId) {
+        Long id = idsByNodeId.remove(nodeId);
+        if (id != null) {
+            configs.remove(id);
+        }
+    }
+
+    /**
+     * 节点请求全量重新同步（本地版本与增量基线不一致）
+     */
+    public void resync(String nodeId, Long nodeVersion) {
+        Long id = idsByNodeId.get(nodeId);
+        NodeConfig config = id != null ? configs.get(id) : null;
+        if (config == null) {
+            return;
+        }
+        config.lock.lock();
+        try {
+            log.info("节点请求重新同步路由配置: {} 节点版本 {}, 当前版本 {}", nodeId, nodeVersion, config.version);
+            pushFull(id, config);
+        } finally {
+            config.lock.unlock();
+        }
+    }
+
+    /**
+     * 记录节点确认已应用的配置版本
+     */
+    public void onAck(String nodeId, Long nodeVersion) {
+        Long id = idsByNodeId.get(nodeId);
+        NodeConfig config = id != null ? configs.get(id) : null;
+        if (config == null || nodeVersion == null) {
+            return;
+        }
+        config.lock.lock();
+        try {
+            config.ackedVersion = Math.max(config.ackedVersion, nodeVersion);
+        } finally {
+            config.lock.unlock();
+        }
+    }
+
+    /**
+     * 路由变更提交后计算增量并下发
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChange(RouteChangeEvent event) {
+        NodeConfig config = configs.get(event.nodeId());
+        if (config == null) {
+            // 节点不在线，重连时全量下发
+            return;
+        }
+
+        // 在节点锁内读取最新状态，保证同一节点的增量按提交顺序计算；
+        // 路由表已由更高优先级的监听器按本次变更更新，下发路径不再访问数据库
+        config.lock.lock();
+        try {
+            Map<Long, RouteConfig> latest = new HashMap<>();
+            for (Long routeId : event.routeIds()) {
+                routingTable.find(routeId)
+                        .filter(route -> Objects.equals(route.nodeId(), event.nodeId()))
+                        .ifPresent(route -> latest.put(routeId, RouteConfig.from(route)));
+            }
+
+            List<RouteConfig> added = new ArrayList<>();
+            List<RouteConfig> changed = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            for (Long routeId : event.routeIds()) {
+                RouteConfig previous = config.routes.get(routeId);
+                RouteConfig current = latest.get(routeId);
+                if (current == null) {
+                    if (previous != null) {
+                        removed.add(routeId);
+                        config.routes.remove(routeId);
+                    }
+                } else if (previous == null) {
+                    added.add(current);
+                    config.routes.put(routeId, current);
+                } else if (!previous.equals(current)) {
+                    changed.add(current);
+                    config.routes.put(routeId, current);
+                }
+            }
+            if (added.isEmpty() && changed.isEmpty() && removed.isEmpty()) {
+                return;
+            }
+
+            long baseVersion = config.version;
+            config.version++;
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("mode", "delta");
+            data.put("baseVersion", baseVersion);
+            data.put("version", config.version);
+            data.put("added", added);
+            data.put("changed", changed);
+            data.put("removed", removed);
+            nodeWebSocketHandler.sendMessageToNode(config.nodeId, Constants.MessageType.ROUTE_CONFIG, "路由配置增量", data);
+
+            log.debug("下发路由配置增量: {} v{} 新增 {}, 修改 {}, 删除 {}",
+                    config.nodeId, config.version, added.size(), changed.size(), removed.size());
+        } finally {
+            config.lock.unlock();
+        }
+    }
+
+    /**
+     * 路由是否在已下发给该节点的配置中，节点不在线时返回false
+     */
+    public boolean hasRoute(String nodeId, Long routeId) {
+        Long id = idsByNodeId.get(nodeId);
+        NodeConfig config = id != null ? configs.get(id) : null;
+        if (config == null) {
+            return false;
+        }
+        config.lock.lock();
+        try {
+            return config.routes.containsKey(routeId);
+        } finally {
+            config.lock.unlock();
+        }
+    }
+
+    /**
+     * 获取节点当前配置版本和已确认版本，节点不在线时返回空
+     */
+    public Map<String, Long> getVersions(Long nodeId) {
+        NodeConfig config = configs.get(nodeId);
+        if (config == null) {
+            return Map.of();
+        }
+        config.lock.lock();
+        try {
+            return Map.of("version", config.version, "ackedVersion", config.ackedVersion);
+        } finally {
+            config.lock.unlock();
+        }
+    }
+
+    /**
+     * 全量下发（调用方持有config.lock）
+     */
+    private void pushFull(Long id, NodeConfig config) {
+        config.routes.clear();
+        for (RouteSnapshot route : routingTable.findByNode(id)) {
+            config.routes.put(route.id(), RouteConfig.from(route));
+        }
+        config.version++;
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("mode", "full");
+        data.put("version", config.version);
+        data.put("routes", List.copyOf(config.routes.values()));
+        nodeWebSocketHandler.sendMessageToNode(config.nodeId, Constants.MessageType.ROUTE_CONFIG, "路由配置全量", data);
+
+        log.info("下发路由配置全量: {} v{} 路由 {}", config.nodeId, config.version, config.routes.size());
+    }
+
+    /**
+     * 单个节点的已下发配置
+     * 版本号在进程内单调递增，节点重连时重新从全量开始
+     */
+    private static final class NodeConfig {
+
+        // 锁内会发送WebSocket消息，用ReentrantLock避免虚拟线程在阻塞时占住载体线程
+        private final ReentrantLock lock = new ReentrantLock();
+        private final String nodeId;
+        private final Map<Long, RouteConfig> routes = new HashMap<>();
+        private long version;
+        private long ackedVersion;
+
+        NodeConfig(String nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+}
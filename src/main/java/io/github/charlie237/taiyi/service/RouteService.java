@@ -1,20 +1,40 @@
 package io.github.charlie237.taiyi.service;
 
+import io.github.charlie237.taiyi.dto.CursorPage;
+import io.github.charlie237.taiyi.dto.RouteBatchItem;
+import io.github.charlie237.taiyi.dto.RouteSnapshot;
+import io.github.charlie237.taiyi.dto.RouteView;
 import io.github.charlie237.taiyi.entity.Node;
 import io.github.charlie237.taiyi.entity.Route;
+import io.github.charlie237.taiyi.event.RouteChangeEvent;
 import io.github.charlie237.taiyi.repository.RouteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 路由服务类
@@ -25,12 +45,18 @@ import java.util.Random;
 public class RouteService {
     
     private final RouteRepository routeRepository;
+    private final PortAllocator portAllocator;
+    private final RoutingTable routingTable;
+    private final SearchIndexService searchIndexService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
-    @Value("${tunnel.port-range.start:10000}")
-    private Integer portRangeStart;
-    
-    @Value("${tunnel.port-range.end:20000}")
-    private Integer portRangeEnd;
+    private static final String INSERT_ROUTE_SQL = "INSERT INTO routes (name, description, node_id, local_ip, "
+            + "local_port, remote_port, protocol, status, max_connections, current_connections, total_bytes_in, "
+            + "total_bytes_out, bandwidth_limit, compression_enabled, encryption_enabled, created_at, updated_at) "
+            + "VALUES (:name, :description, :nodeId, :localIp, :localPort, :remotePort, :protocol, :status, "
+            + ":maxConnections, :currentConnections, :totalBytesIn, :totalBytesOut, :bandwidthLimit, "
+            + ":compressionEnabled, :encryptionEnabled, :createdAt, :updatedAt)";
     
     /**
      * 创建路由
@@ -44,58 +70,256 @@ public class RouteService {
             throw new RuntimeException("本地IP和端口已被使用");
         }
         
-        // 分配远程端口
+        // 在路由所属节点的端口空间内分配远程端口，事务回滚时归还
+        Long nodeId = route.getNode().getId();
         if (route.getRemotePort() == null) {
-            route.setRemotePort(allocateRemotePort());
+            route.setRemotePort(portAllocator.allocate(nodeId));
         } else {
-            // 检查指定的远程端口是否可用
-            if (routeRepository.existsByRemotePort(route.getRemotePort())) {
+            // 检查指定的远程端口是否可用（范围外端口不在位图中，仍需查库）
+            if (!portAllocator.reserve(nodeId, route.getRemotePort())) {
+                throw new RuntimeException("远程端口已被占用");
+            }
+            boolean occupied;
+            try {
+                occupied = routeRepository.existsByNodeIdAndRemotePort(nodeId, route.getRemotePort());
+            } catch (RuntimeException e) {
+                portAllocator.release(nodeId, route.getRemotePort());
+                throw e;
+            }
+            if (occupied) {
+                // 库中已有该端口（例如其他实例写入），保留预留使位图与数据库一致
                 throw new RuntimeException("远程端口已被占用");
             }
         }
+        portAllocator.releaseOnRollback(nodeId, route.getRemotePort());
         
-        // 设置默认值
-        if (route.getStatus() == null) {
-            route.setStatus(Route.Status.INACTIVE);
+        applyDefaults(route);
+        
+        try {
+            Route saved = routeRepository.save(route);
+            eventPublisher.publishEvent(RouteChangeEvent.of(nodeId, saved.getId()));
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            // 唯一约束兜底（例如其他实例写入了同一端口）
+            throw new RuntimeException("远程端口已被占用");
         }
-        if (route.getMaxConnections() == null) {
-            route.setMaxConnections(10);
+    }
+    
+    /**
+     * 批量创建路由
+     * 本地地址冲突在内存中一次校验，端口在一轮内分配，合法的路由通过JDBC批量插入；
+     * 单个路由校验失败不影响其他路由，结果按请求顺序逐项返回。
+     * 批量插入触发唯一约束（例如其他实例写入了同一端口）时整批失败并回滚，不退回逐行插入，预留的端口随回滚释放；
+     * 此时部分行可能已在数据库中执行，事务内无法可靠地逐行重试
+     */
+    @Transactional
+    public List<RouteBatchItem> createRoutes(List<Route> routes) {
+        List<RouteBatchItem> results = new ArrayList<>(routes.size());
+        
+        // 一次查出请求涉及的本地IP上已被使用的本地地址
+        Set<String> localIps = routes.stream()
+                .map(Route::getLocalIp)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> usedEndpoints = new HashSet<>();
+        if (!localIps.isEmpty()) {
+            for (Object[] row : routeRepository.findLocalEndpointsByLocalIpIn(localIps)) {
+                usedEndpoints.add(row[0] + ":" + row[1]);
+            }
         }
-        if (route.getCurrentConnections() == null) {
-            route.setCurrentConnections(0);
+        
+        List<Route> accepted = new ArrayList<>();
+        List<RouteBatchItem> acceptedItems = new ArrayList<>();
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            RouteBatchItem item = new RouteBatchItem(i);
+            results.add(item);
+            
+            String error = validateBatchRoute(route);
+            if (error == null && !usedEndpoints.add(route.getLocalIp() + ":" + route.getLocalPort())) {
+                error = "本地IP和端口已被使用";
+            }
+            if (error == null) {
+                error = assignRemotePort(route);
+            }
+            if (error != null) {
+                item.setError(error);
+                continue;
+            }
+            
+            applyDefaults(route);
+            accepted.add(route);
+            acceptedItems.add(item);
         }
-        if (route.getTotalBytesIn() == null) {
-            route.setTotalBytesIn(0L);
+        
+        try {
+            insertRoutes(accepted);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("批量创建失败，远程端口已被占用，请重试");
         }
-        if (route.getTotalBytesOut() == null) {
-            route.setTotalBytesOut(0L);
+        for (int i = 0; i < accepted.size(); i++) {
+            acceptedItems.get(i).setRouteId(accepted.get(i).getId());
+            acceptedItems.get(i).setRemotePort(accepted.get(i).getRemotePort());
         }
+        publishChanges(accepted);
         
-        return routeRepository.save(route);
+        log.info("批量创建路由: 请求 {}, 成功 {}", routes.size(), accepted.size());
+        return results;
     }
     
     /**
-     * 分配可用的远程端口
+     * 批量激活路由
+     * 一次加载所有路由，状态变更在事务提交时由Hibernate批量更新
      */
-    private Integer allocateRemotePort() {
-        Random random = new Random();
-        int maxAttempts = 100;
+    @Transactional
+    public List<RouteBatchItem> activateRoutes(List<Long> ids) {
+        Map<Long, Route> routes = routeRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+                .collect(Collectors.toMap(Route::getId, Function.identity()));
         
-        for (int i = 0; i < maxAttempts; i++) {
-            int port = portRangeStart + random.nextInt(portRangeEnd - portRangeStart + 1);
-            if (!routeRepository.existsByRemotePort(port)) {
-                return port;
+        List<RouteBatchItem> results = new ArrayList<>(ids.size());
+        List<Route> activated = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            RouteBatchItem item = new RouteBatchItem(i);
+            item.setRouteId(ids.get(i));
+            results.add(item);
+            
+            Route route = routes.get(ids.get(i));
+            if (route == null) {
+                item.setError("路由不存在");
+                continue;
+            }
+            item.setRemotePort(route.getRemotePort());
+            if (route.getStatus() != Route.Status.ACTIVE) {
+                route.setStatus(Route.Status.ACTIVE);
+                activated.add(route);
             }
         }
         
-        // 如果随机分配失败，尝试顺序分配
-        for (int port = portRangeStart; port <= portRangeEnd; port++) {
-            if (!routeRepository.existsByRemotePort(port)) {
-                return port;
+        // 只为状态实际变化的路由发布事件
+        publishChanges(activated);
+        log.info("批量激活路由: 请求 {}, 激活 {}", ids.size(), activated.size());
+        return results;
+    }
+    
+    /**
+     * 按节点分组发布路由变更事件
+     */
+    private void publishChanges(Collection<Route> routes) {
+        routes.stream()
+                .collect(Collectors.groupingBy(route -> route.getNode().getId(),
+                        Collectors.mapping(Route::getId, Collectors.toList())))
+                .forEach((nodeId, routeIds) -> eventPublisher.publishEvent(new RouteChangeEvent(nodeId, routeIds)));
+    }
+    
+    /**
+     * 校验批量创建的单个路由，返回错误信息，合法时返回null
+     */
+    private String validateBatchRoute(Route route) {
+        if (route.getNode() == null) {
+            return "节点不存在";
+        }
+        if (route.getName() == null || route.getName().isBlank()) {
+            return "路由名称不能为空";
+        }
+        if (route.getLocalIp() == null || route.getLocalPort() == null) {
+            return "本地IP和端口不能为空";
+        }
+        return null;
+    }
+    
+    /**
+     * 为批量创建的路由分配或预留远程端口，返回错误信息，成功时返回null
+     * 批量创建只接受配置范围内的指定端口，范围内端口的占用情况全部由内存位图判断
+     */
+    private String assignRemotePort(Route route) {
+        Long nodeId = route.getNode().getId();
+        if (route.getRemotePort() == null) {
+            try {
+                route.setRemotePort(portAllocator.allocate(nodeId));
+            } catch (RuntimeException e) {
+                return e.getMessage();
             }
+        } else if (!portAllocator.isInRange(route.getRemotePort())) {
+            return "远程端口超出可分配范围";
+        } else if (!portAllocator.reserve(nodeId, route.getRemotePort())) {
+            return "远程端口已被占用";
+        }
+        portAllocator.releaseOnRollback(nodeId, route.getRemotePort());
+        return null;
+    }
+    
+    /**
+     * JDBC批量插入路由并回填ID
+     * 路由主键为IDENTITY，Hibernate无法对其批量插入，这里直接使用JDBC批处理
+     */
+    private void insertRoutes(List<Route> routes) {
+        if (routes.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        SqlParameterSource[] batchArgs = new SqlParameterSource[routes.size()];
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            route.setCreatedAt(now);
+            route.setUpdatedAt(now);
+            batchArgs[i] = new MapSqlParameterSource()
+                    .addValue("name", route.getName())
+                    .addValue("description", route.getDescription())
+                    .addValue("nodeId", route.getNode().getId())
+                    .addValue("localIp", route.getLocalIp())
+                    .addValue("localPort", route.getLocalPort())
+                    .addValue("remotePort", route.getRemotePort())
+                    .addValue("protocol", route.getProtocol().name())
+                    .addValue("status", route.getStatus().name())
+                    .addValue("maxConnections", route.getMaxConnections())
+                    .addValue("currentConnections", route.getCurrentConnections())
+                    .addValue("totalBytesIn", route.getTotalBytesIn())
+                    .addValue("totalBytesOut", route.getTotalBytesOut())
+                    .addValue("bandwidthLimit", route.getBandwidthLimit())
+                    .addValue("compressionEnabled", route.getCompressionEnabled())
+                    .addValue("encryptionEnabled", route.getEncryptionEnabled())
+                    .addValue("createdAt", now)
+                    .addValue("updatedAt", now);
         }
         
-        throw new RuntimeException("无可用端口");
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_ROUTE_SQL, batchArgs, keyHolder, new String[]{"id"});
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < routes.size(); i++) {
+            // 不同驱动返回的主键列名不同（id/GENERATED_KEY），取唯一的一列
+            Number id = (Number) keys.get(i).values().iterator().next();
+            routes.get(i).setId(id.longValue());
+        }
+    }
+    
+    /**
+     * 补全路由默认值
+     */
+    private void applyDefaults(Route route) {
+        if (route.getProtocol() == null) {
+            route.setProtocol(Route.Protocol.TCP);
+        }
+        if (route.getStatus() == null) {
+            route.setStatus(Route.Status.INACTIVE);
+        }
+        if (route.getMaxConnections() == null) {
+            route.setMaxConnections(10);
+        }
+        if (route.getCurrentConnections() == null) {
+            route.setCurrentConnections(0);
+        }
+        if (route.getTotalBytesIn() == null) {
+            route.setTotalBytesIn(0L);
+        }
+        if (route.getTotalBytesOut() == null) {
+            route.setTotalBytesOut(0L);
+        }
+        if (route.getCompressionEnabled() == null) {
+            route.setCompressionEnabled(false);
+        }
+        if (route.getEncryptionEnabled() == null) {
+            route.setEncryptionEnabled(false);
+        }
     }
     
     /**
@@ -108,6 +332,7 @@ public class RouteService {
         
         route.setStatus(Route.Status.ACTIVE);
         routeRepository.save(route);
+        eventPublisher.publishEvent(RouteChangeEvent.of(route.getNode().getId(), id));
         
         log.info("路由激活: {} -> {}", route.getLocalIp() + ":" + route.getLocalPort(), route.getRemotePort());
     }
@@ -123,31 +348,23 @@ public class RouteService {
         route.setStatus(Route.Status.INACTIVE);
         route.setCurrentConnections(0);
         routeRepository.save(route);
+        eventPublisher.publishEvent(RouteChangeEvent.of(route.getNode().getId(), id));
         
         log.info("路由停用: {} -> {}", route.getLocalIp() + ":" + route.getLocalPort(), route.getRemotePort());
     }
     
     /**
-     * 更新路由统计信息
+     * 根据ID查找路由
      */
-    @Transactional
-    public void updateRouteStats(Long id, Integer connections, Long bytesIn, Long bytesOut) {
-        Route route = routeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("路由不存在"));
-        
-        route.setCurrentConnections(connections);
-        route.setTotalBytesIn(route.getTotalBytesIn() + bytesIn);
-        route.setTotalBytesOut(route.getTotalBytesOut() + bytesOut);
-        route.setLastUsedAt(LocalDateTime.now());
-        
-        routeRepository.save(route);
+    public Optional<Route> findById(Long id) {
+        return routeRepository.findById(id);
     }
     
     /**
-     * 根据ID查找路由
+     * 根据ID查找路由，同时加载所属节点和用户（供请求线程之外使用）
      */
-    public Optional<Route> findById(Long id) {
-        return routeRepository.findById(id);
+    public Optional<Route> findByIdWithOwner(Long id) {
+        return routeRepository.findWithOwnerById(id);
     }
     
     /**
@@ -158,10 +375,17 @@ public class RouteService {
     }
     
     /**
-     * 根据节点ID查找路由
+     * 根据节点ID查找路由（内存路由表）
+     */
+    public List<RouteSnapshot> findByNodeId(Long nodeId) {
+        return routingTable.findByNode(nodeId);
+    }
+    
+    /**
+     * 根据节点和远程端口查找路由（内存路由表）
      */
-    public List<Route> findByNodeId(Long nodeId) {
-        return routeRepository.findByNodeId(nodeId);
+    public Optional<RouteSnapshot> findByRemotePort(Long nodeId, int remotePort) {
+        return routingTable.findByRemotePort(nodeId, remotePort);
     }
     
     /**
@@ -172,17 +396,42 @@ public class RouteService {
     }
     
     /**
-     * 获取激活的路由
+     * 游标分页获取路由（按ID倒序，不执行COUNT）
+     */
+    public Slice<RouteView> findAfter(Long cursor, int size) {
+        return routeRepository.findViewsByIdLessThan(CursorPage.afterId(cursor), CursorPage.limit(size));
+    }
+    
+    /**
+     * 获取路由列表视图（分页）
+     */
+    public Page<RouteView> findViews(Pageable pageable) {
+        return routeRepository.findAllViews(pageable);
+    }
+    
+    /**
+     * 根据ID获取路由视图
      */
-    public List<Route> findActiveRoutes() {
-        return routeRepository.findActiveRoutes();
+    public Optional<RouteView> findViewById(Long id) {
+        return routeRepository.findViewById(id);
     }
     
     /**
-     * 根据关键字搜索路由
+     * 获取激活的路由（内存路由表）
      */
-    public List<Route> searchRoutes(String keyword) {
-        return routeRepository.findByKeyword(keyword);
+    public List<RouteSnapshot> findActiveRoutes() {
+        return routingTable.findActive();
+    }
+    
+    /**
+     * 根据关键字搜索路由（全文索引，按相关度排序）
+     */
+    public List<RouteView> searchRoutes(String keyword, int limit) {
+        List<Long> ids = searchIndexService.search(SearchIndexService.Type.ROUTE, keyword, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return SearchIndexService.orderByIds(ids, routeRepository.findViewsByIdIn(ids), RouteView::id);
     }
     
     /**
@@ -212,7 +461,9 @@ public class RouteService {
             route.setEncryptionEnabled(routeDetails.getEncryptionEnabled());
         }
         
-        return routeRepository.save(route);
+        Route saved = routeRepository.save(route);
+        eventPublisher.publishEvent(RouteChangeEvent.of(route.getNode().getId(), id));
+        return saved;
     }
     
     /**
@@ -230,20 +481,24 @@ public class RouteService {
         }
         
         routeRepository.deleteById(id);
+        
+        // 提交后再释放端口，避免回滚时端口已被他人分配
+        portAllocator.releaseAfterCommit(route.getNode().getId(), route.getRemotePort());
+        eventPublisher.publishEvent(RouteChangeEvent.of(route.getNode().getId(), id));
     }
     
     /**
      * 统计路由数量
      */
     public long countRoutes() {
-        return routeRepository.count();
+        return routingTable.size();
     }
     
     /**
      * 统计激活的路由数量
      */
     public long countActiveRoutes() {
-        return routeRepository.countByStatus(Route.Status.ACTIVE);
+        return routingTable.countActive();
     }
     
     /**
@@ -0,0 +1,171 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.dto.RouteSnapshot;
+import io.github.charlie237.taiyi.entity.Route;
+import io.github.charlie237.taiyi.event.NodeDeletedEvent;
+import io.github.charlie237.taiyi.event.RouteChangeEvent;
+import io.github.charlie237.taiyi.repository.RouteRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内存路由表
+ * 按路由ID、节点+远程端口、节点三种维度索引路由快照，读路径和数据面查询不再访问数据库。
+ * 启动时从数据库全量构建；之后在路由变更事务提交后按事件增量更新。
+ * 写操作串行执行，读操作无锁；全量重建时先构建新索引再整体替换，读方不会看到半成品
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoutingTable {
+
+    private final RouteRepository routeRepository;
+
+    private volatile Index index = new Index();
+
+    /**
+     * 从数据库全量重建路由表
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        Index rebuilt = new Index();
+        for (Route route : routeRepository.findAll()) {
+            rebuilt.put(RouteSnapshot.from(route));
+        }
+        index = rebuilt;
+        log.info("路由表构建完成: 路由 {}, 节点 {}", rebuilt.byId.size(), rebuilt.byNode.size());
+    }
+
+    /**
+     * 路由变更提交后按ID重新读取并更新路由表（先于配置下发等其他订阅方执行）
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRouteChange(RouteChangeEvent event) {
+        Set<Long> remaining = new HashSet<>(event.routeIds());
+        for (Route route : routeRepository.findAllById(event.routeIds())) {
+            index.put(RouteSnapshot.from(route));
+            remaining.remove(route.getId());
+        }
+        // 数据库中已不存在的路由
+        remaining.forEach(index::remove);
+    }
+
+    /**
+     * 节点删除提交后移除节点下所有路由
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onNodeDeleted(NodeDeletedEvent event) {
+        Map<Integer, RouteSnapshot> routes = index.byNode.get(event.nodeId());
+        if (routes != null) {
+            List.copyOf(routes.values()).forEach(route -> index.remove(route.id()));
+        }
+    }
+
+    /**
+     * 根据路由ID查找
+     */
+    public Optional<RouteSnapshot> find(Long routeId) {
+        return Optional.ofNullable(index.byId.get(routeId));
+    }
+
+    /**
+     * 根据节点和远程端口查找
+     */
+    public Optional<RouteSnapshot> findByRemotePort(Long nodeId, int remotePort) {
+        Map<Integer, RouteSnapshot> routes = index.byNode.get(nodeId);
+        return routes != null ? Optional.ofNullable(routes.get(remotePort)) : Optional.empty();
+    }
+
+    /**
+     * 获取节点的所有路由（按ID排序）
+     */
+    public List<RouteSnapshot> findByNode(Long nodeId) {
+        Map<Integer, RouteSnapshot> routes = index.byNode.get(nodeId);
+        if (routes == null) {
+            return List.of();
+        }
+        return routes.values().stream()
+                .sorted(Comparator.comparing(RouteSnapshot::id))
+                .toList();
+    }
+
+    /**
+     * 获取所有激活的路由（按ID排序）
+     */
+    public List<RouteSnapshot> findActive() {
+        return index.byId.values().stream()
+                .filter(RouteSnapshot::isActive)
+                .sorted(Comparator.comparing(RouteSnapshot::id))
+                .toList();
+    }
+
+    /**
+     * 路由总数
+     */
+    public int size() {
+        return index.byId.size();
+    }
+
+    /**
+     * 激活的路由数量
+     */
+    public long countActive() {
+        return index.active.get();
+    }
+
+    /**
+     * 路由索引
+     */
+    private static final class Index {
+
+        private final Map<Long, RouteSnapshot> byId = new ConcurrentHashMap<>();
+        // 节点主键 -> 远程端口 -> 路由
+        private final Map<Long, Map<Integer, RouteSnapshot>> byNode = new ConcurrentHashMap<>();
+        // 激活路由数，随写操作维护，读取为O(1)
+        private final AtomicInteger active = new AtomicInteger();
+
+        void put(RouteSnapshot route) {
+            RouteSnapshot previous = byId.put(route.id(), route);
+            if (previous != null) {
+                removeFromNode(previous);
+            }
+            if (route.isActive()) {
+                active.incrementAndGet();
+            }
+            byNode.computeIfAbsent(route.nodeId(), id -> new ConcurrentHashMap<>())
+                    .put(route.remotePort(), route);
+        }
+
+        void remove(Long routeId) {
+            RouteSnapshot previous = byId.remove(routeId);
+            if (previous != null) {
+                removeFromNode(previous);
+            }
+        }
+
+        private void removeFromNode(RouteSnapshot route) {
+            if (route.isActive()) {
+                active.decrementAndGet();
+            }
+            byNode.computeIfPresent(route.nodeId(), (id, routes) -> {
+                routes.remove(route.remotePort(), route);
+                return routes.isEmpty() ? null : routes;
+            });
+        }
+    }
+}
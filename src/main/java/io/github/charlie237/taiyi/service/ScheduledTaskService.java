@@ -55,11 +55,7 @@ public class ScheduledTaskService {
     public void updateTrafficStats() {
         try {
             // 获取所有活跃的Token
-            List<ApiToken> activeTokens = apiTokenService.getTokens(
-                org.springframework.data.domain.Pageable.unpaged()
-            ).getContent().stream()
-            .filter(token -> token.getStatus() == ApiToken.Status.ACTIVE)
-            .toList();
+            List<ApiToken> activeTokens = apiTokenService.getActiveTokens();
             
             for (ApiToken token : activeTokens) {
                 updateTokenTrafficStats(token);
@@ -0,0 +1,376 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.entity.Route;
+import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.event.NodeChangeEvent;
+import io.github.charlie237.taiyi.event.NodeDeletedEvent;
+import io.github.charlie237.taiyi.event.RouteChangeEvent;
+import io.github.charlie237.taiyi.event.UserChangeEvent;
+import io.github.charlie237.taiyi.repository.NodeRepository;
+import io.github.charlie237.taiyi.repository.RouteRepository;
+import io.github.charlie237.taiyi.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 全文搜索索引
+ * 进程内Lucene倒排索引，收录用户、节点、路由的名称和描述等文本字段，替代LIKE '%keyword%'全表扫描。
+ * 中文按二元分词、英文按单词切分，查询时每个词依次尝试精确、前缀、模糊（编辑距离1）匹配，名称命中权重更高。
+ * 启动时从数据库全量构建；之后在实体变更事务提交后按事件增量更新。
+ * 增量更新只写入IndexWriter，由后台线程合并刷新搜索视图，变更最迟约1秒后可被搜到。
+ * 搜索只返回按相关度排序的ID，调用方再按ID查询数据库，索引中残留的已删除记录会自然被过滤掉
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexService {
+
+    /**
+     * 单次搜索最多返回的结果数
+     */
+    public static final int MAX_RESULTS = 100;
+
+    // 参与模糊匹配的最短词长，过短的词模糊匹配噪声太大
+    private static final int FUZZY_MIN_LENGTH = 4;
+
+    // 搜索视图刷新间隔（秒）：无人等待时最长间隔，有人等待指定写入可见时最短间隔
+    private static final double MAX_STALE_SECONDS = 1.0;
+    private static final double MIN_STALE_SECONDS = 0.1;
+
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_OWNER = "owner";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_TEXT = "text";
+
+    /**
+     * 索引的文档类型
+     */
+    public enum Type {
+        USER, NODE, ROUTE
+    }
+
+    private final UserRepository userRepository;
+    private final NodeRepository nodeRepository;
+    private final RouteRepository routeRepository;
+
+    private final Analyzer analyzer = new CJKAnalyzer();
+    private final Directory directory = new ByteBuffersDirectory();
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    // 最近一次写入的序号，用于等待写入可见
+    private long generation;
+
+    @PostConstruct
+    public void init() throws IOException {
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        searcherManager = new SearcherManager(writer, null);
+        reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager,
+                MAX_STALE_SECONDS, MIN_STALE_SECONDS);
+        reopenThread.setName("search-index-reopen");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        rebuild();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * 从数据库全量重建索引，返回时重建结果已可搜索
+     */
+    public void rebuild() {
+        long rebuilt;
+        synchronized (this) {
+            try {
+                writer.deleteAll();
+                for (User user : userRepository.findAll()) {
+                    writer.addDocument(toDocument(user));
+                }
+                for (Node node : nodeRepository.findAll()) {
+                    writer.addDocument(toDocument(node));
+                }
+                for (Route route : routeRepository.findAll()) {
+                    writer.addDocument(toDocument(route));
+                }
+                rebuilt = writer.getMaxCompletedSequenceNumber();
+                written(rebuilt);
+                log.info("搜索索引构建完成: 文档 {}", writer.getDocStats().numDocs);
+            } catch (IOException e) {
+                throw new UncheckedIOException("搜索索引构建失败", e);
+            }
+        }
+        awaitGeneration(rebuilt);
+    }
+
+    /**
+     * 等待此前的全部索引更新可被搜索
+     */
+    public void awaitRefresh() {
+        long target;
+        synchronized (this) {
+            target = generation;
+        }
+        awaitGeneration(target);
+    }
+
+    private void awaitGeneration(long target) {
+        try {
+            reopenThread.waitForGeneration(target);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 路由变更提交后重新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRouteChange(RouteChangeEvent event) {
+        Set<Long> remaining = new HashSet<>(event.routeIds());
+        try {
+            for (Route route : routeRepository.findAllById(event.routeIds())) {
+                written(writer.updateDocument(key(Type.ROUTE, route.getId()), toDocument(route)));
+                remaining.remove(route.getId());
+            }
+            for (Long routeId : remaining) {
+                written(writer.deleteDocuments(key(Type.ROUTE, routeId)));
+            }
+        } catch (IOException e) {
+            log.error("路由索引更新失败: {}", event.routeIds(), e);
+        }
+    }
+
+    /**
+     * 节点新增或修改提交后重新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onNodeChange(NodeChangeEvent event) {
+        try {
+            Node node = nodeRepository.findById(event.nodeId()).orElse(null);
+            if (node != null) {
+                written(writer.updateDocument(key(Type.NODE, node.getId()), toDocument(node)));
+            } else {
+                written(writer.deleteDocuments(key(Type.NODE, event.nodeId())));
+            }
+        } catch (IOException e) {
+            log.error("节点索引更新失败: {}", event.nodeId(), e);
+        }
+    }
+
+    /**
+     * 节点删除提交后移除节点及其路由
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onNodeDeleted(NodeDeletedEvent event) {
+        try {
+            written(writer.deleteDocuments(key(Type.NODE, event.nodeId()),
+                    new Term(FIELD_OWNER, ownerOf(event.nodeId()))));
+        } catch (IOException e) {
+            log.error("节点索引删除失败: {}", event.nodeId(), e);
+        }
+    }
+
+    /**
+     * 用户变更提交后重新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChange(UserChangeEvent event) {
+        try {
+            User user = userRepository.findById(event.userId()).orElse(null);
+            if (user != null) {
+                written(writer.updateDocument(key(Type.USER, user.getId()), toDocument(user)));
+            } else {
+                written(writer.deleteDocuments(key(Type.USER, event.userId())));
+            }
+        } catch (IOException e) {
+            log.error("用户索引更新失败: {}", event.userId(), e);
+        }
+    }
+
+    /**
+     * 搜索指定类型的文档，返回按相关度排序的ID
+     *
+     * @param type    文档类型
+     * @param keyword 关键字，多个词之间为“且”关系
+     * @param limit   最多返回数量，不超过{@link #MAX_RESULTS}
+     */
+    public List<Long> search(Type type, String keyword, int limit) {
+        List<String> terms = analyze(keyword);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(FIELD_TYPE, type.name())), BooleanClause.Occur.FILTER);
+        for (String term : terms) {
+            query.add(termQuery(term), BooleanClause.Occur.MUST);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs hits = searcher.search(query.build(), Math.max(1, Math.min(limit, MAX_RESULTS)));
+                List<Long> ids = new ArrayList<>(hits.scoreDocs.length);
+                for (ScoreDoc hit : hits.scoreDocs) {
+                    ids.add(searcher.storedFields().document(hit.doc).getField(FIELD_ID).numericValue().longValue());
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("搜索失败", e);
+        }
+    }
+
+    /**
+     * 按搜索结果的ID顺序排列查询到的记录，丢弃已不存在的ID
+     */
+    public static <T> List<T> orderByIds(List<Long> ids, List<T> records, Function<T, Long> idGetter) {
+        Map<Long, T> byId = records.stream().collect(Collectors.toMap(idGetter, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * 单个词的匹配：精确 > 前缀 > 模糊，名称字段加权
+     */
+    private Query termQuery(String term) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String field : List.of(FIELD_NAME, FIELD_TEXT)) {
+            float weight = FIELD_NAME.equals(field) ? 2f : 1f;
+            builder.add(new BoostQuery(new TermQuery(new Term(field, term)), 3f * weight), BooleanClause.Occur.SHOULD);
+            builder.add(new BoostQuery(new PrefixQuery(new Term(field, term)), 2f * weight), BooleanClause.Occur.SHOULD);
+            if (term.length() >= FUZZY_MIN_LENGTH) {
+                builder.add(new BoostQuery(new FuzzyQuery(new Term(field, term), 1), weight), BooleanClause.Occur.SHOULD);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 使用索引分词器切分关键字，保持顺序并去重
+     */
+    private List<String> analyze(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream stream = analyzer.tokenStream(FIELD_TEXT, keyword)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(attribute.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException("关键字分词失败", e);
+        }
+        return List.copyOf(terms);
+    }
+
+    private void written(long sequenceNumber) {
+        generation = Math.max(generation, sequenceNumber);
+    }
+
+    private Document toDocument(User user) {
+        return document(Type.USER, user.getId(), null, user.getUsername(),
+                user.getEmail(), user.getRealName(), user.getPhone());
+    }
+
+    private Document toDocument(Node node) {
+        return document(Type.NODE, node.getId(), null, node.getName(),
+                node.getNodeId(), node.getDescription());
+    }
+
+    private Document toDocument(Route route) {
+        return document(Type.ROUTE, route.getId(), ownerOf(route.getNode().getId()), route.getName(),
+                route.getDescription(), route.getLocalIp());
+    }
+
+    private Document document(Type type, Long id, String owner, String name, String... texts) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_KEY, keyOf(type, id), Field.Store.NO));
+        document.add(new StringField(FIELD_TYPE, type.name(), Field.Store.NO));
+        document.add(new StoredField(FIELD_ID, id));
+        if (owner != null) {
+            document.add(new StringField(FIELD_OWNER, owner, Field.Store.NO));
+        }
+        if (name != null) {
+            document.add(new TextField(FIELD_NAME, name, Field.Store.NO));
+        }
+        String text = Stream.of(texts)
+                .filter(value -> value != null && !value.isBlank())
+                .collect(Collectors.joining(" "));
+        if (!text.isEmpty()) {
+            document.add(new TextField(FIELD_TEXT, text, Field.Store.NO));
+        }
+        return document;
+    }
+
+    private static Term key(Type type, Long id) {
+        return new Term(FIELD_KEY, keyOf(type, id));
+    }
+
+    private static String keyOf(Type type, Long id) {
+        return type.name() + ":" + id;
+    }
+
+    private static String ownerOf(Long nodeId) {
+        return "node:" + nodeId;
+    }
+}
@@ -0,0 +1,376 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.repository.NodeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 节点与路由流量计量
+ * 节点状态上报（status_update）中的连接数和字节增量只累加到内存，不再每次上报都查询并更新一行；
+ * 按taiyi.monitoring.traffic-flush-interval把期间的增量合并成一条UPDATE，通过JDBC批量写回
+ * server_nodes / routes 的累计字段，写入失败时增量退回下个周期重试。
+ *
+ * 每个节点和路由维护1分钟窗口的字节速率EWMA（按taiyi.monitoring.traffic-rate-interval采样）。
+ * 为控制序列数，只有速率最高的traffic-top-k个节点/路由导出独立序列
+ * （taiyi.node.throughput、taiyi.node.connections、taiyi.route.throughput、taiyi.route.connections），
+ * 其余合并到node="other" / route="other"；排名变化时移除跌出的序列
+ */
+@Slf4j
+@Component
+public class TrafficMeter {
+
+    private static final String UPDATE_NODE_SQL = "UPDATE server_nodes SET current_connections = :connections, "
+            + "total_bytes_in = total_bytes_in + :bytesIn, total_bytes_out = total_bytes_out + :bytesOut, "
+            + "updated_at = :now WHERE node_id = :key";
+    private static final String UPDATE_ROUTE_SQL = "UPDATE routes SET current_connections = :connections, "
+            + "total_bytes_in = total_bytes_in + :bytesIn, total_bytes_out = total_bytes_out + :bytesOut, "
+            + "last_used_at = :now, updated_at = :now WHERE id = :key";
+
+    // 速率EWMA的时间窗口
+    private static final Duration RATE_WINDOW = Duration.ofMinutes(1);
+    private static final String OTHER = "other";
+    private static final String UNKNOWN_PROTOCOL = "UNKNOWN";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NodeRepository nodeRepository;
+    private final Meter.MeterProvider<Counter> dataTransferCounter;
+    private final int topK;
+    private final double tickSeconds;
+    private final double alpha;
+
+    private final Series<String> nodes;
+    private final Series<Long> routes;
+    // 节点协议只在节点首次上报时查询一次，用作流量计数器的标签
+    private final Map<String, String> nodeProtocols = new ConcurrentHashMap<>();
+
+    public TrafficMeter(NamedParameterJdbcTemplate jdbcTemplate,
+                        NodeRepository nodeRepository,
+                        Meter.MeterProvider<Counter> dataTransferCounter,
+                        TaiyiProperties taiyiProperties,
+                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeRepository = nodeRepository;
+        this.dataTransferCounter = dataTransferCounter;
+        TaiyiProperties.Monitoring config = taiyiProperties.getMonitoring();
+        this.topK = config.getTrafficTopK();
+        this.tickSeconds = config.getTrafficRateInterval().toMillis() / 1000.0;
+        this.alpha = 1 - Math.exp(-tickSeconds / RATE_WINDOW.toSeconds());
+        this.nodes = new Series<>("taiyi.node", "node", UPDATE_NODE_SQL, meterRegistry);
+        this.routes = new Series<>("taiyi.route", "route", UPDATE_ROUTE_SQL, meterRegistry);
+    }
+
+    /**
+     * 记录节点上报：连接数为当前值，字节数为自上次上报以来的增量
+     */
+    public void recordNode(String nodeId, int connections, long bytesIn, long bytesOut) {
+        if (invalid(connections, bytesIn, bytesOut)) {
+            log.warn("忽略无效的节点流量上报: {} 连接 {}, 入 {}, 出 {}", nodeId, connections, bytesIn, bytesOut);
+            return;
+        }
+        nodes.stats(nodeId, nodeId).record(connections, bytesIn, bytesOut);
+
+        // 查询放在computeIfAbsent之外，避免持有ConcurrentHashMap的桶锁访问数据库
+        String protocol = nodeProtocols.get(nodeId);
+        if (protocol == null) {
+            protocol = nodeRepository.findProtocolByNodeId(nodeId)
+                    .map(Enum::name)
+                    .orElse(UNKNOWN_PROTOCOL);
+            nodeProtocols.putIfAbsent(nodeId, protocol);
+        }
+        dataTransferCounter.withTags("direction", "in", "protocol", protocol).increment(bytesIn);
+        dataTransferCounter.withTags("direction", "out", "protocol", protocol).increment(bytesOut);
+    }
+
+    /**
+     * 记录节点上报中单条路由的连接数和字节增量
+     * 调用方负责确认路由属于该节点
+     */
+    public void recordRoute(String nodeId, Long routeId, int connections, long bytesIn, long bytesOut) {
+        if (invalid(connections, bytesIn, bytesOut)) {
+            log.warn("忽略无效的路由流量上报: {} 路由 {} 连接 {}, 入 {}, 出 {}", nodeId, routeId, connections, bytesIn, bytesOut);
+            return;
+        }
+        routes.stats(routeId, nodeId).record(connections, bytesIn, bytesOut);
+    }
+
+    // 连接数和字节增量不能为负，否则会冲减数据库中的累计值
+    private static boolean invalid(int connections, long bytesIn, long bytesOut) {
+        return connections < 0 || bytesIn < 0 || bytesOut < 0;
+    }
+
+    /**
+     * 节点断开：节点及其路由的连接数归零，未入库的增量仍在下次刷新时写回
+     */
+    public void nodeDisconnected(String nodeId) {
+        nodes.disconnect(stats -> nodeId.equals(stats.nodeId));
+        routes.disconnect(stats -> nodeId.equals(stats.nodeId));
+        nodeProtocols.remove(nodeId);
+    }
+
+    /**
+     * 在线节点上报的连接数之和
+     */
+    public long activeConnections() {
+        return nodes.stats.values().stream().mapToLong(stats -> stats.connections).sum();
+    }
+
+    /**
+     * 单个节点上报的最大连接数
+     */
+    public int maxNodeConnections() {
+        return nodes.stats.values().stream().mapToInt(stats -> stats.connections).max().orElse(0);
+    }
+
+    /**
+     * 更新速率并调整导出的序列
+     */
+    @Scheduled(fixedRateString = "${taiyi.monitoring.traffic-rate-interval:PT5S}")
+    public void tick() {
+        nodes.tick();
+        routes.tick();
+    }
+
+    /**
+     * 把累计的增量批量写回数据库
+     */
+    @Scheduled(fixedDelayString = "${taiyi.monitoring.traffic-flush-interval:PT30S}",
+            initialDelayString = "${taiyi.monitoring.traffic-flush-interval:PT30S}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        nodes.flush(now);
+        routes.flush(now);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * 单个节点或路由的流量状态
+     * 上报线程写入连接数并累加字节数，采样和刷新在调度线程中读取并清零
+     */
+    private static final class Stats {
+
+        private final String nodeId;
+        private volatile int connections;
+        private volatile boolean connected = true;
+        // 连接数自上次入库后是否变化
+        private volatile boolean dirty;
+        private final AtomicLong pendingIn = new AtomicLong();
+        private final AtomicLong pendingOut = new AtomicLong();
+        private final AtomicLong tickIn = new AtomicLong();
+        private final AtomicLong tickOut = new AtomicLong();
+        // 以下只在采样线程中写入
+        private volatile double rateIn;
+        private volatile double rateOut;
+        private boolean sampled;
+
+        private Stats(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        private void record(int connections, long bytesIn, long bytesOut) {
+            this.connections = connections;
+            this.connected = true;
+            this.dirty = true;
+            pendingIn.addAndGet(bytesIn);
+            pendingOut.addAndGet(bytesOut);
+            tickIn.addAndGet(bytesIn);
+            tickOut.addAndGet(bytesOut);
+        }
+
+        private double rate() {
+            return rateIn + rateOut;
+        }
+
+        /**
+         * 已断开、没有待入库增量且速率已衰减到接近0，可以移除
+         */
+        private boolean idle() {
+            return !connected && !dirty && pendingIn.get() == 0 && pendingOut.get() == 0 && rate() < 1;
+        }
+    }
+
+    /**
+     * 一类计量对象（节点或路由）的状态、导出序列和入库语句
+     */
+    private final class Series<K> {
+
+        private final String prefix;
+        private final String tagKey;
+        private final String updateSql;
+        private final MeterRegistry meterRegistry;
+        private final Counter flushed;
+        private final Map<K, Stats> stats = new ConcurrentHashMap<>();
+        // 当前导出独立序列的对象，只在采样线程中访问
+        private final Map<K, List<Meter>> published = new HashMap<>();
+        private volatile double otherIn;
+        private volatile double otherOut;
+
+        private Series(String prefix, String tagKey, String updateSql, MeterRegistry meterRegistry) {
+            this.prefix = prefix;
+            this.tagKey = tagKey;
+            this.updateSql = updateSql;
+            this.meterRegistry = meterRegistry;
+            this.flushed = Counter.builder(prefix + ".flushed")
+                    .description("Rows written back by the traffic flush")
+                    .register(meterRegistry);
+            Gauge.builder(prefix + ".throughput", this, series -> series.otherIn)
+                    .description("Bytes per second, 1 minute EWMA")
+                    .baseUnit("bytes")
+                    .tags(tagKey, OTHER, "direction", "in")
+                    .register(meterRegistry);
+            Gauge.builder(prefix + ".throughput", this, series -> series.otherOut)
+                    .description("Bytes per second, 1 minute EWMA")
+                    .baseUnit("bytes")
+                    .tags(tagKey, OTHER, "direction", "out")
+                    .register(meterRegistry);
+        }
+
+        private Stats stats(K key, String nodeId) {
+            return stats.computeIfAbsent(key, k -> new Stats(nodeId));
+        }
+
+        private void disconnect(Predicate<Stats> owned) {
+            stats.values().stream().filter(owned).forEach(entry -> {
+                entry.connected = false;
+                entry.connections = 0;
+                entry.dirty = true;
+            });
+        }
+
+        private void tick() {
+            for (Stats entry : stats.values()) {
+                entry.rateIn = ewma(entry, entry.rateIn, entry.tickIn.getAndSet(0));
+                entry.rateOut = ewma(entry, entry.rateOut, entry.tickOut.getAndSet(0));
+                entry.sampled = true;
+            }
+            stats.entrySet().removeIf(entry -> entry.getValue().idle());
+
+            Set<K> top = stats.entrySet().stream()
+                    .filter(entry -> entry.getValue().rate() > 0 || entry.getValue().connections > 0)
+                    .sorted(Comparator.comparingDouble((Map.Entry<K, Stats> entry) -> entry.getValue().rate())
+                            .reversed())
+                    .limit(topK)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+
+            published.entrySet().removeIf(entry -> {
+                if (top.contains(entry.getKey())) {
+                    return false;
+                }
+                entry.getValue().forEach(meterRegistry::remove);
+                return true;
+            });
+            for (K key : top) {
+                published.computeIfAbsent(key, k -> register(k, stats.get(k)));
+            }
+
+            double in = 0;
+            double out = 0;
+            for (Map.Entry<K, Stats> entry : stats.entrySet()) {
+                if (!top.contains(entry.getKey())) {
+                    in += entry.getValue().rateIn;
+                    out += entry.getValue().rateOut;
+                }
+            }
+            otherIn = in;
+            otherOut = out;
+        }
+
+        private double ewma(Stats entry, double rate, long bytes) {
+            double instant = bytes / tickSeconds;
+            return entry.sampled ? rate + alpha * (instant - rate) : instant;
+        }
+
+        private List<Meter> register(K key, Stats entry) {
+            String tagValue = String.valueOf(key);
+            List<Meter> meters = new ArrayList<>(3);
+            meters.add(Gauge.builder(prefix + ".throughput", entry, s -> s.rateIn)
+                    .description("Bytes per second, 1 minute EWMA")
+                    .baseUnit("bytes")
+                    .tags(tagKey, tagValue, "direction", "in")
+                    .strongReference(true)
+                    .register(meterRegistry));
+            meters.add(Gauge.builder(prefix + ".throughput", entry, s -> s.rateOut)
+                    .description("Bytes per second, 1 minute EWMA")
+                    .baseUnit("bytes")
+                    .tags(tagKey, tagValue, "direction", "out")
+                    .strongReference(true)
+                    .register(meterRegistry));
+            meters.add(Gauge.builder(prefix + ".connections", entry, s -> s.connections)
+                    .description("Connections reported by the node")
+                    .tags(tagKey, tagValue)
+                    .strongReference(true)
+                    .register(meterRegistry));
+            return meters;
+        }
+
+        private void flush(LocalDateTime now) {
+            List<K> keys = new ArrayList<>();
+            List<long[]> deltas = new ArrayList<>();
+            List<SqlParameterSource> batch = new ArrayList<>();
+            stats.forEach((key, entry) -> {
+                if (!entry.dirty && entry.pendingIn.get() == 0 && entry.pendingOut.get() == 0) {
+                    return;
+                }
+                entry.dirty = false;
+                long bytesIn = entry.pendingIn.getAndSet(0);
+                long bytesOut = entry.pendingOut.getAndSet(0);
+                keys.add(key);
+                deltas.add(new long[]{bytesIn, bytesOut});
+                batch.add(new MapSqlParameterSource()
+                        .addValue("key", key)
+                        .addValue("connections", entry.connections)
+                        .addValue("bytesIn", bytesIn)
+                        .addValue("bytesOut", bytesOut)
+                        .addValue("now", now));
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                jdbcTemplate.batchUpdate(updateSql, batch.toArray(SqlParameterSource[]::new));
+                flushed.increment(batch.size());
+                log.debug("流量统计已入库: {} {} 条", tagKey, batch.size());
+            } catch (Exception e) {
+                log.warn("流量统计入库失败，下个周期重试: {} {} 条 - {}", tagKey, batch.size(), e.getMessage());
+                for (int i = 0; i < keys.size(); i++) {
+                    // 期间已被移除的对象重新建立，入库成功后再次移除
+                    Stats entry = stats.computeIfAbsent(keys.get(i), k -> {
+                        Stats restored = new Stats(null);
+                        restored.connected = false;
+                        return restored;
+                    });
+                    entry.pendingIn.addAndGet(deltas.get(i)[0]);
+                    entry.pendingOut.addAndGet(deltas.get(i)[1]);
+                    entry.dirty = true;
+                }
+            }
+        }
+    }
+}
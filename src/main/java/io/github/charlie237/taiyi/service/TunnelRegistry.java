@@ -0,0 +1,208 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.entity.Tunnel;
+import io.github.charlie237.taiyi.repository.TunnelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 隧道注册表
+ * 持久化路由与zrok隧道的对应关系，并在内存中维护按路由ID的索引；
+ * 索引中的对象只替换不修改，全量加载完成前未命中的查询回源数据库。
+ * 状态变更统一通过transition进行，由Tunnel.State校验迁移是否合法
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TunnelRegistry {
+    
+    private final TunnelRepository tunnelRepository;
+    
+    private final Map<Long, Tunnel> index = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+    
+    /**
+     * 按路由ID分段的锁，保证同一路由的状态迁移串行执行
+     */
+    private final Lock[] locks = createLocks(64);
+    
+    /**
+     * 从数据库全量加载索引
+     */
+    public void load() {
+        List<Tunnel> tunnels = tunnelRepository.findAll();
+        // 加载期间发生的写入比快照更新，不覆盖
+        tunnels.forEach(tunnel -> index.putIfAbsent(tunnel.getRouteId(), tunnel));
+        loaded = true;
+        log.info("隧道注册表加载完成，记录数: {}", tunnels.size());
+    }
+    
+    /**
+     * 根据路由ID查找隧道记录
+     */
+    public Optional<Tunnel> find(Long routeId) {
+        Tunnel tunnel = index.get(routeId);
+        if (tunnel == null && !loaded) {
+            tunnel = tunnelRepository.findById(routeId).orElse(null);
+            if (tunnel != null) {
+                index.putIfAbsent(routeId, tunnel);
+            }
+        }
+        return Optional.ofNullable(tunnel);
+    }
+    
+    /**
+     * 获取路由运行中的zrok隧道ID，没有则返回null
+     */
+    public String findActiveTunnelId(Long routeId) {
+        return find(routeId)
+                .filter(tunnel -> tunnel.getState() == Tunnel.State.ACTIVE)
+                .map(Tunnel::getTunnelId)
+                .orElse(null);
+    }
+    
+    /**
+     * 是否有记录关联到指定的zrok隧道ID（只读内存索引）
+     */
+    public boolean containsTunnelId(String tunnelId) {
+        return index.values().stream()
+                .anyMatch(tunnel -> tunnelId.equals(tunnel.getTunnelId()));
+    }
+    
+    /**
+     * 获取所有运行中的隧道
+     */
+    public List<Tunnel> findAllActive() {
+        return index.values().stream()
+                .filter(tunnel -> tunnel.getState() == Tunnel.State.ACTIVE)
+                .toList();
+    }
+    
+    /**
+     * 统计运行中的隧道数量
+     */
+    public long countActive() {
+        return index.values().stream()
+                .filter(tunnel -> tunnel.getState() == Tunnel.State.ACTIVE)
+                .count();
+    }
+    
+    /**
+     * 统计指定状态的隧道数量（只读内存索引）
+     */
+    public long countByState(Tunnel.State state) {
+        return index.values().stream()
+                .filter(tunnel -> tunnel.getState() == state)
+                .count();
+    }
+    
+    /**
+     * 获取全部隧道记录
+     */
+    public List<Tunnel> findAll() {
+        return List.copyOf(index.values());
+    }
+    
+    /**
+     * 状态迁移（按路由加锁的比较并交换）
+     * nextState根据当前记录决定目标状态，返回null表示不迁移；目标状态不合法时同样不迁移。
+     * 路由没有记录时视为STOPPED。迁移成功返回新记录，否则返回空
+     */
+    public Optional<Tunnel> transition(Long routeId, Function<Tunnel, Tunnel.State> nextState,
+                                       Consumer<Tunnel> changes) {
+        Lock lock = lockFor(routeId);
+        lock.lock();
+        try {
+            Tunnel current = find(routeId).orElseGet(() -> {
+                Tunnel stopped = new Tunnel();
+                stopped.setRouteId(routeId);
+                return stopped;
+            });
+            Tunnel.State target = nextState.apply(current);
+            if (target == null) {
+                return Optional.empty();
+            }
+            if (!current.getState().canTransitionTo(target)) {
+                log.warn("非法的隧道状态迁移: {} {} -> {}", routeId, current.getState(), target);
+                return Optional.empty();
+            }
+            return Optional.of(update(routeId, tunnel -> {
+                tunnel.setState(target);
+                changes.accept(tunnel);
+            }));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 设置期望状态
+     */
+    public void setDesiredState(Long routeId, Tunnel.State desiredState) {
+        Lock lock = lockFor(routeId);
+        lock.lock();
+        try {
+            update(routeId, tunnel -> tunnel.setDesiredState(desiredState));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 删除隧道记录
+     */
+    public void remove(Long routeId) {
+        Lock lock = lockFor(routeId);
+        lock.lock();
+        try {
+            tunnelRepository.deleteById(routeId);
+            index.remove(routeId);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static Lock[] createLocks(int stripes) {
+        Lock[] locks = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+    
+    private Lock lockFor(Long routeId) {
+        return locks[Math.floorMod(routeId.hashCode(), locks.length)];
+    }
+    
+    /**
+     * 基于当前记录的副本修改并保存，保存成功后替换索引中的对象
+     */
+    private Tunnel update(Long routeId, Consumer<Tunnel> changes) {
+        Tunnel tunnel = new Tunnel();
+        tunnel.setRouteId(routeId);
+        find(routeId).ifPresent(existing -> {
+            tunnel.setNodeId(existing.getNodeId());
+            tunnel.setTunnelId(existing.getTunnelId());
+            tunnel.setPublicUrl(existing.getPublicUrl());
+            tunnel.setState(existing.getState());
+            tunnel.setDesiredState(existing.getDesiredState());
+            tunnel.setLastError(existing.getLastError());
+            tunnel.setCreatedAt(existing.getCreatedAt());
+        });
+        changes.accept(tunnel);
+        
+        Tunnel saved = tunnelRepository.save(tunnel);
+        index.put(routeId, saved);
+        return saved;
+    }
+}
@@ -1,16 +1,43 @@
 package io.github.charlie237.taiyi.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.dto.TunnelBatchItem;
 import io.github.charlie237.taiyi.entity.Route;
+import io.github.charlie237.taiyi.entity.Tunnel;
 import io.github.charlie237.taiyi.service.ZrokIntegrationService.ZrokTunnelResponse;
 import io.github.charlie237.taiyi.service.ZrokIntegrationService.ZrokTunnelStatus;
 import io.github.charlie237.taiyi.service.ZrokIntegrationService.ZrokTrafficStats;
-import io.github.charlie237.taiyi.websocket.NodeWebSocketHandler;
+import io.github.charlie237.taiyi.util.AsyncBatch;
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 隧道管理服务
@@ -22,114 +49,409 @@ public class TunnelService {
 
     private final ZrokIntegrationService zrokService;
     private final RouteService routeService;
-    private final NodeWebSocketHandler nodeWebSocketHandler;
+    private final TaiyiProperties taiyiProperties;
+    private final TunnelRegistry tunnelRegistry;
+    private final Counter tunnelCreationCounter;
+
+    // 各路由进行中的启动/停止操作，同一路由的并发请求共享同一个操作；
+    // 只在TunnelRegistry.transition的路由锁内登记和读取，与状态迁移保持一致
+    private final Map<Long, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+    // 按zrok隧道ID缓存的状态和流量查询结果，同一隧道的并发查询共享同一个进行中的请求
+    private AsyncCache<String, ZrokTunnelStatus> statusCache;
+    private AsyncCache<String, ZrokTrafficStats> trafficStatsCache;
+
+    @PostConstruct
+    void initCaches() {
+        Duration ttl = taiyiProperties.getTunnel().getStatusCacheTtl();
+        statusCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(10000)
+                .buildAsync();
+        trafficStatsCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(10000)
+                .buildAsync();
+    }
 
-    // 存储路由ID到zrok隧道ID的映射
-    private final Map<Long, String> routeToTunnelMap = new ConcurrentHashMap<>();
-    
     /**
-     * 启动隧道
+     * 启动时对账：加载隧道注册表，与zrok上实际存在的隧道比对，
+     * 重新关联仍存在的隧道，清理zrok上无主的隧道，并将已丢失的隧道标记为停止
      */
-    public void startTunnel(Route route) {
-        try {
-            // 检查是否已存在隧道
-            if (routeToTunnelMap.containsKey(route.getId())) {
-                log.warn("隧道已存在: {}", route.getId());
-                return;
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        tunnelRegistry.load();
+        List<Tunnel> registered = tunnelRegistry.findAll().stream()
+                .filter(tunnel -> tunnel.getTunnelId() != null)
+                .toList();
+
+        zrokService.listTunnelsAsync()
+                .thenCompose(zrokTunnels -> reconcile(registered, zrokTunnels))
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        log.warn("隧道启动对账失败，保留注册表中的记录: {}", errorMessage(e));
+                    }
+                });
+    }
+
+    private CompletableFuture<Void> reconcile(List<Tunnel> registered, List<ZrokTunnelResponse> zrokTunnels) {
+        Map<String, Tunnel> registeredByTunnelId = registered.stream()
+                .collect(Collectors.toMap(Tunnel::getTunnelId, Function.identity(), (a, b) -> a));
+
+        Set<String> liveTunnelIds = new HashSet<>();
+        List<String> orphanTunnelIds = new ArrayList<>();
+        for (ZrokTunnelResponse zrokTunnel : zrokTunnels) {
+            if (zrokTunnel.getTunnelId() == null) {
+                continue;
+            }
+            liveTunnelIds.add(zrokTunnel.getTunnelId());
+            if (!registeredByTunnelId.containsKey(zrokTunnel.getTunnelId())) {
+                orphanTunnelIds.add(zrokTunnel.getTunnelId());
+            }
+        }
+
+        // zrok上已不存在的隧道：注册表标记停止并停用路由，期望运行的由对账任务重新启动。
+        // 快照之后记录可能已关联新隧道，只处理仍关联快照中隧道ID的记录
+        List<Tunnel> lost = registered.stream()
+                .filter(tunnel -> !liveTunnelIds.contains(tunnel.getTunnelId()))
+                .toList();
+        for (Tunnel tunnel : lost) {
+            try {
+                Optional<Tunnel> stopped = tunnelRegistry.transition(tunnel.getRouteId(),
+                        current -> tunnel.getTunnelId().equals(current.getTunnelId()) ? Tunnel.State.STOPPED : null,
+                        this::clearTunnel);
+                if (stopped.isPresent()) {
+                    routeService.deactivateRoute(tunnel.getRouteId());
+                }
+            } catch (Exception e) {
+                log.warn("处理失效隧道失败: {} - {}", tunnel.getRouteId(), e.getMessage());
             }
+        }
+
+        int relinked = registered.size() - lost.size();
+        // 注册表快照早于zrok列表，期间新建的隧道也会出现在孤立列表中，删除前按当前注册表重新确认；
+        // 有隧道正在启动时，zrok已创建但尚未写入注册表的隧道无法区分，本次不清理
+        return AsyncBatch.forEach(orphanTunnelIds, taiyiProperties.getTunnel().getBatchConcurrency(),
+                        tunnelId -> {
+                            if (tunnelRegistry.containsTunnelId(tunnelId)
+                                    || tunnelRegistry.countByState(Tunnel.State.STARTING) > 0) {
+                                log.info("隧道可能已被注册，跳过清理: {}", tunnelId);
+                                return CompletableFuture.completedFuture(null);
+                            }
+                            return zrokService.deleteTunnelAsync(tunnelId).whenComplete((v, e) -> {
+                                if (e != null) {
+                                    log.warn("清理孤立zrok隧道失败: {} - {}", tunnelId, errorMessage(e));
+                                }
+                            });
+                        })
+                .thenRun(() -> log.info("隧道启动对账完成: 重新关联 {}, 清理孤立隧道 {}, 失效记录 {}",
+                        relinked, orphanTunnelIds.size(), lost.size()));
+    }
+
+    /**
+     * 异步启动隧道（幂等）
+     * 已运行时直接完成；启动中时返回进行中的操作；停止中时等停止完成后再启动。
+     * 返回的Future在zrok隧道创建并激活路由后完成，失败时以异常完成
+     */
+    public CompletableFuture<Void> startTunnelAsync(Route route) {
+        Long routeId = route.getId();
+        // 关联实体在调用线程中读取，异步回调中不再访问懒加载属性
+        Long nodeId = route.getNode().getId();
+        String userId = route.getNode().getUser().getId().toString();
 
-            // 使用zrok创建隧道
-            String userId = route.getNode().getUser().getId().toString();
-            ZrokTunnelResponse response = zrokService.createTunnel(
-                    userId,
-                    route.getLocalIp(),
-                    route.getLocalPort(),
-                    route.getProtocol().name()
-            );
-
-            if (response != null && response.getTunnelId() != null) {
-                // 保存隧道映射
-                routeToTunnelMap.put(route.getId(), response.getTunnelId());
-
-                // 更新路由状态和公网URL
-                route.setStatus(Route.Status.ACTIVE);
-                // 如果Route实体有publicUrl字段，可以设置：
-                // route.setPublicUrl(response.getPublicUrl());
-                routeService.updateRoute(route.getId(), route);
-
-                log.info("zrok隧道启动成功: {} -> {}:{}, 公网地址: {}",
-                        route.getRemotePort(), route.getLocalIp(), route.getLocalPort(),
-                        response.getPublicUrl());
-            } else {
-                throw new RuntimeException("zrok隧道创建失败");
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        AtomicReference<Observed> observed = new AtomicReference<>();
+        Optional<Tunnel> claimed = claim(routeId, future, observed, current -> switch (current.getState()) {
+            case PENDING, STOPPED -> Tunnel.State.STARTING;
+            // 停止失败的隧道仍在zrok上，直接恢复运行
+            case ERROR -> current.getTunnelId() != null ? Tunnel.State.ACTIVE : Tunnel.State.STARTING;
+            default -> null;
+        }, tunnel -> {
+            tunnel.setDesiredState(Tunnel.State.ACTIVE);
+            tunnel.setNodeId(nodeId);
+            tunnel.setLastError(null);
+            if (tunnel.getState() == Tunnel.State.STARTING) {
+                inFlight.put(routeId, future);
             }
+        });
 
-        } catch (Exception e) {
-            log.error("启动隧道失败: {}", e.getMessage());
-            throw new RuntimeException("启动隧道失败: " + e.getMessage());
+        if (claimed.isEmpty()) {
+            Tunnel current = observed.get().tunnel();
+            CompletableFuture<Void> running = observed.get().running();
+            switch (current.getState()) {
+                case ACTIVE -> {
+                    log.debug("隧道已在运行: {}", routeId);
+                    return CompletableFuture.completedFuture(null);
+                }
+                case STARTING -> {
+                    return running != null ? running : CompletableFuture.completedFuture(null);
+                }
+                case STOPPING -> {
+                    tunnelRegistry.setDesiredState(routeId, Tunnel.State.ACTIVE);
+                    if (running != null) {
+                        return running.handle((v, e) -> null).thenCompose(v -> startTunnelAsync(route));
+                    }
+                    return CompletableFuture.failedFuture(new IllegalStateException("隧道正在停止，稍后将自动重新启动"));
+                }
+                default -> {
+                    return CompletableFuture.failedFuture(
+                            new IllegalStateException("隧道当前状态不允许启动: " + current.getState()));
+                }
+            }
         }
+
+        if (claimed.get().getState() == Tunnel.State.ACTIVE) {
+            try {
+                routeService.activateRoute(routeId);
+            } catch (RuntimeException e) {
+                // 路由未能激活时退回ERROR并保留隧道ID，由对账任务重试
+                tunnelRegistry.transition(routeId,
+                        current -> current.getState() == Tunnel.State.ACTIVE ? Tunnel.State.ERROR : null,
+                        tunnel -> tunnel.setLastError(errorMessage(e)));
+                return CompletableFuture.failedFuture(e);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        zrokService.createTunnelAsync(
+                        userId,
+                        route.getLocalIp(),
+                        route.getLocalPort(),
+                        route.getProtocol().name())
+                .thenAccept(response -> {
+                    // 先激活路由再迁移到ACTIVE，激活失败时隧道停留在STARTING并随后进入ERROR
+                    try {
+                        routeService.activateRoute(routeId);
+                    } catch (RuntimeException e) {
+                        zrokService.deleteTunnelAsync(response.getTunnelId());
+                        throw e;
+                    }
+                    Optional<Tunnel> active = tunnelRegistry.transition(routeId,
+                            current -> current.getState() == Tunnel.State.STARTING ? Tunnel.State.ACTIVE : null,
+                            tunnel -> {
+                                tunnel.setTunnelId(response.getTunnelId());
+                                tunnel.setPublicUrl(response.getPublicUrl());
+                            });
+                    if (active.isEmpty()) {
+                        // 状态已被其他操作改变，撤销刚激活的路由和新建的zrok隧道避免泄漏
+                        zrokService.deleteTunnelAsync(response.getTunnelId());
+                        routeService.deactivateRoute(routeId);
+                        throw new IllegalStateException("隧道状态已变化，已撤销新建的zrok隧道");
+                    }
+                    tunnelCreationCounter.increment();
+
+                    log.info("zrok隧道启动成功: {} -> {}:{}, 公网地址: {}",
+                            route.getRemotePort(), route.getLocalIp(), route.getLocalPort(),
+                            response.getPublicUrl());
+                })
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        tunnelRegistry.transition(routeId,
+                                current -> current.getState() == Tunnel.State.STARTING ? Tunnel.State.ERROR : null,
+                                tunnel -> tunnel.setLastError(errorMessage(e)));
+                    }
+                    complete(routeId, future, e);
+                });
+        return future;
     }
-    
+
     /**
-     * 停止隧道
+     * 异步停止隧道（幂等）
+     * 已停止时直接完成；停止中时返回进行中的操作；启动中时等启动完成后再停止。
+     * zrok删除失败时进入ERROR并保留隧道ID，由对账任务重试
      */
-    public void stopTunnel(Long routeId) {
-        try {
-            String tunnelId = routeToTunnelMap.remove(routeId);
-            if (tunnelId != null) {
-                // 使用zrok删除隧道
-                boolean success = zrokService.deleteTunnel(tunnelId);
+    public CompletableFuture<Void> stopTunnelAsync(Long routeId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        AtomicReference<Observed> observed = new AtomicReference<>();
+        Optional<Tunnel> claimed = claim(routeId, future, observed, current -> switch (current.getState()) {
+            case ACTIVE -> Tunnel.State.STOPPING;
+            case ERROR -> current.getTunnelId() != null ? Tunnel.State.STOPPING : Tunnel.State.STOPPED;
+            case PENDING -> Tunnel.State.STOPPED;
+            default -> null;
+        }, tunnel -> {
+            tunnel.setDesiredState(Tunnel.State.STOPPED);
+            if (tunnel.getState() == Tunnel.State.STOPPING) {
+                inFlight.put(routeId, future);
+            }
+        });
 
-                if (success) {
+        if (claimed.isEmpty()) {
+            // 没有记录的路由按STOPPED处理
+            Tunnel current = observed.get().tunnel();
+            CompletableFuture<Void> running = observed.get().running();
+            if (current.getState() == Tunnel.State.STOPPED) {
+                log.warn("未找到运行中的隧道: {}", routeId);
+                return CompletableFuture.completedFuture(null);
+            }
+            if (current.getState() == Tunnel.State.STARTING) {
+                tunnelRegistry.setDesiredState(routeId, Tunnel.State.STOPPED);
+                if (running != null) {
+                    return running.handle((v, e) -> null).thenCompose(v -> stopTunnelAsync(routeId));
+                }
+            }
+            return running != null ? running : CompletableFuture.completedFuture(null);
+        }
+
+        Tunnel tunnel = claimed.get();
+        if (tunnel.getState() == Tunnel.State.STOPPED) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String tunnelId = tunnel.getTunnelId();
+        zrokService.deleteTunnelAsync(tunnelId)
+                .thenRun(() -> {
+                    tunnelRegistry.transition(routeId,
+                            current -> current.getState() == Tunnel.State.STOPPING ? Tunnel.State.STOPPED : null,
+                            this::clearTunnel);
+                    statusCache.synchronous().invalidate(tunnelId);
+                    trafficStatsCache.synchronous().invalidate(tunnelId);
                     // 停用路由
                     routeService.deactivateRoute(routeId);
                     log.info("zrok隧道停止成功: {}", routeId);
-                } else {
-                    log.error("zrok隧道停止失败: {}", routeId);
-                    // 重新添加映射，以便后续重试
-                    routeToTunnelMap.put(routeId, tunnelId);
-                }
-            } else {
-                log.warn("未找到隧道映射: {}", routeId);
-            }
-        } catch (Exception e) {
-            log.error("停止隧道失败: {}", e.getMessage());
+                })
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        tunnelRegistry.transition(routeId,
+                                current -> current.getState() == Tunnel.State.STOPPING ? Tunnel.State.ERROR : null,
+                                t -> t.setLastError(errorMessage(e)));
+                    }
+                    complete(routeId, future, e);
+                });
+        return future;
+    }
+
+    /**
+     * 状态迁移并在同一路由锁内登记进行中的操作
+     * 迁移未发生时observed记录锁内看到的状态和进行中的操作，两者一致；
+     * 保存失败时撤销已登记的操作
+     */
+    private Optional<Tunnel> claim(Long routeId, CompletableFuture<Void> future, AtomicReference<Observed> observed,
+                                   Function<Tunnel, Tunnel.State> nextState, Consumer<Tunnel> changes) {
+        try {
+            return tunnelRegistry.transition(routeId, current -> {
+                observed.set(new Observed(current, inFlight.get(routeId)));
+                return nextState.apply(current);
+            }, changes);
+        } catch (RuntimeException e) {
+            inFlight.remove(routeId, future);
+            throw e;
         }
     }
-    
 
-    
+    /**
+     * 停止隧道，不等待完成，失败时记录日志
+     */
+    public void stopTunnel(Long routeId) {
+        stopTunnelAsync(routeId).whenComplete((v, e) -> {
+            if (e != null) {
+                log.error("停止隧道失败: {} - {}", routeId, errorMessage(e));
+            }
+        });
+    }
 
-    
     /**
-     * 通知节点停止隧道
+     * 对账任务：将状态与期望状态不一致的隧道按有限并发驱动到期望状态，
+     * 并回收长时间停留在过渡状态的记录（例如进程在启动/停止过程中退出）
      */
-    private void notifyNodeTunnelStop(Route route) {
+    @Scheduled(fixedDelayString = "${taiyi.tunnel.reconcile-interval:PT30S}",
+            initialDelayString = "${taiyi.tunnel.reconcile-interval:PT30S}")
+    public void reconcileDesiredState() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture<Void> batch;
         try {
-            String nodeId = route.getNode().getNodeId();
-            Map<String, Object> data = Map.of(
-                    "routeId", route.getId(),
-                    "remotePort", route.getRemotePort()
-            );
-            
-            nodeWebSocketHandler.sendMessageToNode(nodeId, "tunnel_stop", "停止隧道", data);
+            List<Tunnel> candidates = tunnelRegistry.findAll().stream()
+                    .filter(this::needsReconcile)
+                    .toList();
+            if (candidates.isEmpty()) {
+                reconciling.set(false);
+                return;
+            }
+            log.info("隧道对账: {} 条记录与期望状态不一致", candidates.size());
+            batch = AsyncBatch.forEach(candidates, taiyiProperties.getTunnel().getBatchConcurrency(),
+                    tunnel -> reconcileTunnel(tunnel).whenComplete((v, e) -> {
+                        if (e != null) {
+                            log.warn("隧道对账失败: {} - {}", tunnel.getRouteId(), errorMessage(e));
+                        }
+                    }));
         } catch (Exception e) {
-            log.error("通知节点停止隧道失败: {}", e.getMessage());
+            log.error("隧道对账任务失败", e);
+            reconciling.set(false);
+            return;
+        }
+        // 不在调度线程上等待，本轮全部完成后才允许下一轮开始
+        batch.whenComplete((v, e) -> reconciling.set(false));
+    }
+
+    private boolean needsReconcile(Tunnel tunnel) {
+        if (inFlight.containsKey(tunnel.getRouteId())) {
+            return false;
         }
+        if (tunnel.getState().isTransitional()) {
+            Duration staleAfter = taiyiProperties.getZrok().getApi().getAsyncTimeout().multipliedBy(2);
+            return tunnel.getUpdatedAt() != null
+                    && tunnel.getUpdatedAt().isBefore(LocalDateTime.now().minus(staleAfter));
+        }
+        return switch (tunnel.getState()) {
+            case ACTIVE -> tunnel.getDesiredState() == Tunnel.State.STOPPED;
+            case PENDING, STOPPED -> tunnel.getDesiredState() == Tunnel.State.ACTIVE;
+            case ERROR -> true;
+            default -> false;
+        };
     }
-    
+
+    private CompletableFuture<Void> reconcileTunnel(Tunnel tunnel) {
+        Long routeId = tunnel.getRouteId();
+        if (tunnel.getState().isTransitional()) {
+            tunnelRegistry.transition(routeId,
+                    current -> current.getState() == tunnel.getState() ? Tunnel.State.ERROR : null,
+                    t -> t.setLastError("操作超时未完成"));
+            return CompletableFuture.completedFuture(null);
+        }
+        if (tunnel.getDesiredState() == Tunnel.State.ACTIVE) {
+            Optional<Route> route = routeService.findByIdWithOwner(routeId);
+            if (route.isEmpty()) {
+                // 路由已被删除，不再需要隧道
+                tunnelRegistry.setDesiredState(routeId, Tunnel.State.STOPPED);
+                return stopTunnelAsync(routeId);
+            }
+            return startTunnelAsync(route.get());
+        }
+        return stopTunnelAsync(routeId);
+    }
+
+    private void clearTunnel(Tunnel tunnel) {
+        tunnel.setTunnelId(null);
+        tunnel.setPublicUrl(null);
+    }
+
+    /**
+     * 结束进行中的操作
+     */
+    private void complete(Long routeId, CompletableFuture<Void> future, Throwable error) {
+        inFlight.remove(routeId, future);
+        if (error != null) {
+            future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error);
+        } else {
+            future.complete(null);
+        }
+    }
+
     /**
      * 获取活跃隧道数量
      */
     public int getActiveTunnelCount() {
-        return routeToTunnelMap.size();
+        return (int) tunnelRegistry.countActive();
     }
 
     /**
      * 检查隧道是否活跃
      */
     public boolean isTunnelActive(Long routeId) {
-        String tunnelId = routeToTunnelMap.get(routeId);
+        String tunnelId = tunnelRegistry.findActiveTunnelId(routeId);
         if (tunnelId != null) {
             ZrokTunnelStatus status = zrokService.getTunnelStatus(tunnelId);
             return status != null && "active".equalsIgnoreCase(status.getStatus());
@@ -138,18 +460,39 @@ public class TunnelService {
     }
 
     /**
-     * 停止所有隧道
+     * 异步检查隧道是否活跃，查询失败视为不活跃
      */
-    public void stopAllTunnels() {
+    public CompletableFuture<Boolean> isTunnelActiveAsync(Long routeId) {
+        String tunnelId = tunnelRegistry.findActiveTunnelId(routeId);
+        if (tunnelId == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return loadTunnelStatus(tunnelId)
+                .thenApply(status -> status != null && "active".equalsIgnoreCase(status.getStatus()))
+                .exceptionally(e -> false);
+    }
+
+    /**
+     * 停止所有隧道（有限并发），返回的Future在全部停止操作结束后完成
+     */
+    public CompletableFuture<Void> stopAllTunnels() {
         log.info("停止所有zrok隧道");
-        routeToTunnelMap.keySet().forEach(this::stopTunnel);
+        List<Long> routeIds = tunnelRegistry.findAllActive().stream()
+                .map(Tunnel::getRouteId)
+                .toList();
+        return AsyncBatch.forEach(routeIds, taiyiProperties.getTunnel().getBatchConcurrency(),
+                routeId -> stopTunnelAsync(routeId).whenComplete((v, e) -> {
+                    if (e != null) {
+                        log.error("停止隧道失败: {} - {}", routeId, errorMessage(e));
+                    }
+                }));
     }
 
     /**
      * 获取隧道流量统计
      */
     public ZrokTrafficStats getTunnelTrafficStats(Long routeId) {
-        String tunnelId = routeToTunnelMap.get(routeId);
+        String tunnelId = tunnelRegistry.findActiveTunnelId(routeId);
         if (tunnelId != null) {
             return zrokService.getTrafficStats(tunnelId);
         }
@@ -160,10 +503,75 @@ public class TunnelService {
      * 获取隧道状态
      */
     public ZrokTunnelStatus getTunnelStatus(Long routeId) {
-        String tunnelId = routeToTunnelMap.get(routeId);
+        String tunnelId = tunnelRegistry.findActiveTunnelId(routeId);
         if (tunnelId != null) {
             return zrokService.getTunnelStatus(tunnelId);
         }
         return null;
     }
+
+    /**
+     * 批量获取隧道状态
+     */
+    public CompletableFuture<List<TunnelBatchItem<ZrokTunnelStatus>>> getTunnelStatuses(Collection<Long> routeIds) {
+        return batchLookup(routeIds, this::loadTunnelStatus);
+    }
+
+    /**
+     * 批量获取隧道流量统计
+     */
+    public CompletableFuture<List<TunnelBatchItem<ZrokTrafficStats>>> getTunnelTrafficStats(Collection<Long> routeIds) {
+        return batchLookup(routeIds, this::loadTrafficStats);
+    }
+
+    private CompletableFuture<ZrokTunnelStatus> loadTunnelStatus(String tunnelId) {
+        return statusCache.get(tunnelId, (key, executor) -> zrokService.getTunnelStatusAsync(key));
+    }
+
+    private CompletableFuture<ZrokTrafficStats> loadTrafficStats(String tunnelId) {
+        return trafficStatsCache.get(tunnelId, (key, executor) -> zrokService.getTrafficStatsAsync(key));
+    }
+
+    /**
+     * 批量查询：路由ID去重，已缓存的直接返回，未命中的以batchConcurrency为上限并行请求zrok
+     */
+    private <T> CompletableFuture<List<TunnelBatchItem<T>>> batchLookup(
+            Collection<Long> routeIds, Function<String, CompletableFuture<T>> loader) {
+        List<TunnelBatchItem<T>> items = new ArrayList<>();
+        List<TunnelBatchItem<T>> pending = new ArrayList<>();
+        for (Long routeId : new LinkedHashSet<>(routeIds)) {
+            TunnelBatchItem<T> item = new TunnelBatchItem<>(routeId, tunnelRegistry.findActiveTunnelId(routeId));
+            items.add(item);
+            if (item.getTunnelId() != null) {
+                pending.add(item);
+            }
+        }
+
+        return AsyncBatch.forEach(pending, taiyiProperties.getTunnel().getBatchConcurrency(),
+                        item -> loader.apply(item.getTunnelId()).whenComplete((data, error) -> {
+                            if (error != null) {
+                                item.setError(errorMessage(error));
+                            } else {
+                                item.setData(data);
+                            }
+                        }))
+                .thenApply(v -> items);
+    }
+
+    /**
+     * 迁移未发生时锁内看到的隧道记录和进行中的操作
+     */
+    private record Observed(Tunnel tunnel, CompletableFuture<Void> running) {
+    }
+
+    /**
+     * 提取异步调用失败原因
+     */
+    private static String errorMessage(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+            return "zrok调用超时";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
 }
@@ -1,11 +1,16 @@
 package io.github.charlie237.taiyi.service;
 
+import io.github.charlie237.taiyi.dto.CursorPage;
+import io.github.charlie237.taiyi.dto.UserView;
 import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.event.UserChangeEvent;
 import io.github.charlie237.taiyi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -27,6 +32,8 @@ public class UserService implements UserDetailsService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -62,7 +69,9 @@ public class UserService implements UserDetailsService {
             user.setStatus(User.Status.ACTIVE);
         }
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangeEvent(savedUser.getId(), savedUser.getStatus()));
+        return savedUser;
     }
     
     /**
@@ -117,10 +126,35 @@ public class UserService implements UserDetailsService {
     }
     
     /**
-     * 根据关键字搜索用户
+     * 游标分页获取用户（按ID倒序，不执行COUNT）
      */
-    public List<User> searchUsers(String keyword) {
-        return userRepository.findByKeyword(keyword);
+    public Slice<UserView> findAfter(Long cursor, int size) {
+        return userRepository.findViewsByIdLessThan(CursorPage.afterId(cursor), CursorPage.limit(size));
+    }
+    
+    /**
+     * 获取用户列表视图（分页）
+     */
+    public Page<UserView> findViews(Pageable pageable) {
+        return userRepository.findAllViews(pageable);
+    }
+    
+    /**
+     * 根据ID获取用户视图
+     */
+    public Optional<UserView> findViewById(Long id) {
+        return userRepository.findViewById(id);
+    }
+    
+    /**
+     * 根据关键字搜索用户（全文索引，按相关度排序）
+     */
+    public List<UserView> searchUsers(String keyword, int limit) {
+        List<Long> ids = searchIndexService.search(SearchIndexService.Type.USER, keyword, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return SearchIndexService.orderByIds(ids, userRepository.findViewsByIdIn(ids), UserView::id);
     }
     
     /**
@@ -142,7 +176,9 @@ public class UserService implements UserDetailsService {
             user.setRealName(userDetails.getRealName());
         }
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangeEvent(id, savedUser.getStatus()));
+        return savedUser;
     }
     
     /**
@@ -183,6 +219,7 @@ public class UserService implements UserDetailsService {
         
         user.setStatus(status);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangeEvent(id, status));
     }
     
     /**
@@ -194,6 +231,7 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("用户不存在");
         }
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangeEvent(id, null));
     }
     
     /**
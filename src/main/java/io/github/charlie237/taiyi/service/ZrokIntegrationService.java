@@ -1,67 +1,99 @@
 package io.github.charlie237.taiyi.service;
 
-import lombok.RequiredArgsConstructor;
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.exception.ZrokApiException;
+import io.github.charlie237.taiyi.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * zrok集成服务
  * 负责与zrok引擎的通信和管理
+ *
+ * 同步接口失败时返回null/false；异步接口返回CompletableFuture，失败时以ZrokApiException异常完成，
+ * 并带有总超时、指数退避重试和熔断保护
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ZrokIntegrationService {
     
+    private static final String REQUEST_METRIC = "taiyi.zrok.client.requests";
+    
     private final RestTemplate restTemplate;
+    private final Executor zrokExecutor;
+    private final TaiyiProperties taiyiProperties;
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * 请求头在启动时构建一次，所有调用共享（只读）
+     */
+    private HttpHeaders authHeaders;
+    private HttpHeaders jsonHeaders;
+    
+    private TaiyiProperties.Zrok.Api apiConfig;
+    private CircuitBreaker circuitBreaker;
     
-    @Value("${zrok.api.base-url:http://localhost:18080}")
-    private String zrokApiBaseUrl;
+    public ZrokIntegrationService(@Qualifier("zrokRestTemplate") RestTemplate restTemplate,
+                                  @Qualifier("zrokExecutor") Executor zrokExecutor,
+                                  TaiyiProperties taiyiProperties,
+                                  MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.zrokExecutor = zrokExecutor;
+        this.taiyiProperties = taiyiProperties;
+        this.meterRegistry = meterRegistry;
+    }
     
-    @Value("${zrok.api.token:}")
-    private String zrokApiToken;
+    @PostConstruct
+    void init() {
+        apiConfig = taiyiProperties.getZrok().getApi();
+        
+        HttpHeaders headers = new HttpHeaders();
+        if (StringUtils.hasText(apiConfig.getToken())) {
+            headers.setBearerAuth(apiConfig.getToken());
+        }
+        authHeaders = HttpHeaders.readOnlyHttpHeaders(headers);
+        
+        HttpHeaders json = new HttpHeaders();
+        json.putAll(headers);
+        json.setContentType(MediaType.APPLICATION_JSON);
+        jsonHeaders = HttpHeaders.readOnlyHttpHeaders(json);
+        
+        circuitBreaker = new CircuitBreaker("zrok", apiConfig.getCircuitFailureThreshold(),
+                apiConfig.getCircuitOpenDuration().toMillis());
+    }
     
     /**
      * 创建zrok隧道
      */
     public ZrokTunnelResponse createTunnel(String userId, String localAddress, int localPort, String protocol) {
         try {
-            String url = zrokApiBaseUrl + "/api/v1/tunnels";
-            
-            Map<String, Object> request = new HashMap<>();
-            request.put("userId", userId);
-            request.put("localAddress", localAddress);
-            request.put("localPort", localPort);
-            request.put("protocol", protocol.toLowerCase());
-            request.put("subdomain", generateSubdomain(userId));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            if (!zrokApiToken.isEmpty()) {
-                headers.setBearerAuth(zrokApiToken);
-            }
-            
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
-            
-            ResponseEntity<ZrokTunnelResponse> response = restTemplate.postForEntity(
-                    url, entity, ZrokTunnelResponse.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK) {
-                log.info("zrok隧道创建成功: {}", response.getBody());
-                return response.getBody();
-            } else {
-                log.error("zrok隧道创建失败: {}", response.getStatusCode());
-                return null;
-            }
-            
+            return doCreateTunnel(userId, localAddress, localPort, protocol);
         } catch (Exception e) {
-            log.error("调用zrok API失败", e);
+            log.error("调用zrok API失败: {}", e.getMessage());
             return null;
         }
     }
@@ -71,24 +103,10 @@ public class ZrokIntegrationService {
      */
     public boolean deleteTunnel(String tunnelId) {
         try {
-            String url = zrokApiBaseUrl + "/api/v1/tunnels/" + tunnelId;
-            
-            HttpHeaders headers = new HttpHeaders();
-            if (!zrokApiToken.isEmpty()) {
-                headers.setBearerAuth(zrokApiToken);
-            }
-            
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-            
-            ResponseEntity<Void> response = restTemplate.exchange(
-                    url, HttpMethod.DELETE, entity, Void.class);
-            
-            boolean success = response.getStatusCode() == HttpStatus.OK;
-            log.info("zrok隧道删除{}: {}", success ? "成功" : "失败", tunnelId);
-            return success;
-            
+            doDeleteTunnel(tunnelId);
+            return true;
         } catch (Exception e) {
-            log.error("删除zrok隧道失败", e);
+            log.error("删除zrok隧道失败: {}", e.getMessage());
             return false;
         }
     }
@@ -98,26 +116,11 @@ public class ZrokIntegrationService {
      */
     public ZrokTunnelStatus getTunnelStatus(String tunnelId) {
         try {
-            String url = zrokApiBaseUrl + "/api/v1/tunnels/" + tunnelId + "/status";
-            
-            HttpHeaders headers = new HttpHeaders();
-            if (!zrokApiToken.isEmpty()) {
-                headers.setBearerAuth(zrokApiToken);
-            }
-            
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-            
-            ResponseEntity<ZrokTunnelStatus> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, ZrokTunnelStatus.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK) {
-                return response.getBody();
-            }
-            
+            return doGetTunnelStatus(tunnelId);
         } catch (Exception e) {
-            log.error("获取zrok隧道状态失败", e);
+            log.error("获取zrok隧道状态失败: {}", e.getMessage());
+            return null;
         }
-        return null;
     }
     
     /**
@@ -125,26 +128,205 @@ public class ZrokIntegrationService {
      */
     public ZrokTrafficStats getTrafficStats(String tunnelId) {
         try {
-            String url = zrokApiBaseUrl + "/api/v1/tunnels/" + tunnelId + "/stats";
-            
-            HttpHeaders headers = new HttpHeaders();
-            if (!zrokApiToken.isEmpty()) {
-                headers.setBearerAuth(zrokApiToken);
+            return doGetTrafficStats(tunnelId);
+        } catch (Exception e) {
+            log.error("获取zrok流量统计失败: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 异步创建zrok隧道
+     */
+    public CompletableFuture<ZrokTunnelResponse> createTunnelAsync(String userId, String localAddress,
+                                                                  int localPort, String protocol) {
+        return callAsync("create_tunnel", () -> doCreateTunnel(userId, localAddress, localPort, protocol));
+    }
+    
+    /**
+     * 异步删除zrok隧道
+     */
+    public CompletableFuture<Void> deleteTunnelAsync(String tunnelId) {
+        return callAsync("delete_tunnel", () -> {
+            doDeleteTunnel(tunnelId);
+            return null;
+        });
+    }
+    
+    /**
+     * 异步获取隧道状态
+     */
+    public CompletableFuture<ZrokTunnelStatus> getTunnelStatusAsync(String tunnelId) {
+        return callAsync("tunnel_status", () -> doGetTunnelStatus(tunnelId));
+    }
+    
+    /**
+     * 异步获取隧道流量统计
+     */
+    public CompletableFuture<ZrokTrafficStats> getTrafficStatsAsync(String tunnelId) {
+        return callAsync("tunnel_stats", () -> doGetTrafficStats(tunnelId));
+    }
+    
+    /**
+     * 异步列出zrok上的全部隧道
+     */
+    public CompletableFuture<List<ZrokTunnelResponse>> listTunnelsAsync() {
+        return callAsync("list_tunnels", this::doListTunnels);
+    }
+    
+    private List<ZrokTunnelResponse> doListTunnels() {
+        HttpEntity<Void> entity = new HttpEntity<>(authHeaders);
+        
+        ZrokTunnelResponse[] tunnels = execute("list_tunnels", true, () -> restTemplate.exchange(
+                apiConfig.getBaseUrl() + "/api/v1/tunnels", HttpMethod.GET, entity, ZrokTunnelResponse[].class)).getBody();
+        return tunnels != null ? Arrays.asList(tunnels) : List.of();
+    }
+    
+    private ZrokTunnelResponse doCreateTunnel(String userId, String localAddress, int localPort, String protocol) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("userId", userId);
+        request.put("localAddress", localAddress);
+        request.put("localPort", localPort);
+        request.put("protocol", protocol.toLowerCase());
+        request.put("subdomain", generateSubdomain(userId));
+        
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, jsonHeaders);
+        
+        // 创建隧道不是幂等操作，只有请求确定未发出时才允许重试
+        ResponseEntity<ZrokTunnelResponse> response = execute("create_tunnel", false, () -> restTemplate.postForEntity(
+                apiConfig.getBaseUrl() + "/api/v1/tunnels", entity, ZrokTunnelResponse.class));
+        
+        ZrokTunnelResponse body = response.getBody();
+        if (body == null || body.getTunnelId() == null) {
+            throw new ZrokApiException("create_tunnel", "zrok隧道创建失败: 响应缺少隧道ID", false);
+        }
+        log.info("zrok隧道创建成功: {}", body);
+        return body;
+    }
+    
+    private void doDeleteTunnel(String tunnelId) {
+        HttpEntity<Void> entity = new HttpEntity<>(authHeaders);
+        
+        try {
+            execute("delete_tunnel", true, () -> restTemplate.exchange(
+                    apiConfig.getBaseUrl() + "/api/v1/tunnels/{tunnelId}", HttpMethod.DELETE, entity, Void.class, tunnelId));
+        } catch (ZrokApiException e) {
+            // 隧道已不存在即视为删除成功，保证删除幂等
+            if (e.getCause() instanceof HttpClientErrorException.NotFound) {
+                log.info("zrok隧道已不存在: {}", tunnelId);
+                return;
             }
-            
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-            
-            ResponseEntity<ZrokTrafficStats> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, ZrokTrafficStats.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK) {
-                return response.getBody();
+            throw e;
+        }
+        log.info("zrok隧道删除成功: {}", tunnelId);
+    }
+    
+    private ZrokTunnelStatus doGetTunnelStatus(String tunnelId) {
+        HttpEntity<Void> entity = new HttpEntity<>(authHeaders);
+        
+        return execute("tunnel_status", true, () -> restTemplate.exchange(
+                apiConfig.getBaseUrl() + "/api/v1/tunnels/{tunnelId}/status", HttpMethod.GET, entity,
+                ZrokTunnelStatus.class, tunnelId)).getBody();
+    }
+    
+    private ZrokTrafficStats doGetTrafficStats(String tunnelId) {
+        HttpEntity<Void> entity = new HttpEntity<>(authHeaders);
+        
+        return execute("tunnel_stats", true, () -> restTemplate.exchange(
+                apiConfig.getBaseUrl() + "/api/v1/tunnels/{tunnelId}/stats", HttpMethod.GET, entity,
+                ZrokTrafficStats.class, tunnelId)).getBody();
+    }
+    
+    /**
+     * 执行一次zrok调用：经过熔断器，按接口记录耗时分布，并将失败统一转换为ZrokApiException
+     */
+    private <T> ResponseEntity<T> execute(String endpoint, boolean idempotent, Supplier<ResponseEntity<T>> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new ZrokApiException(endpoint, "zrok控制器暂不可用（熔断中）", false);
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        try {
+            ResponseEntity<T> response = call.get();
+            circuitBreaker.onSuccess();
+            return response;
+        } catch (RestClientResponseException e) {
+            outcome = "HTTP_" + e.getStatusCode().value();
+            if (e.getStatusCode().is5xxServerError()) {
+                circuitBreaker.onFailure();
+                throw new ZrokApiException(endpoint, "zrok控制器返回错误: " + e.getStatusCode().value(), idempotent, e);
             }
-            
-        } catch (Exception e) {
-            log.error("获取zrok流量统计失败", e);
+            // 4xx说明控制器本身可用，不计入熔断
+            circuitBreaker.onSuccess();
+            throw new ZrokApiException(endpoint, "zrok请求被拒绝: " + e.getStatusCode().value(), false, e);
+        } catch (ResourceAccessException e) {
+            outcome = "IO_ERROR";
+            circuitBreaker.onFailure();
+            boolean notSent = e.getCause() instanceof ConnectException || e.getCause() instanceof UnknownHostException;
+            throw new ZrokApiException(endpoint, "无法访问zrok控制器: " + e.getMessage(), idempotent || notSent, e);
+        } catch (RuntimeException e) {
+            outcome = "ERROR";
+            circuitBreaker.onFailure();
+            throw new ZrokApiException(endpoint, "调用zrok失败: " + e.getMessage(), false, e);
+        } finally {
+            sample.stop(Timer.builder(REQUEST_METRIC)
+                    .description("zrok controller API call duration")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+    
+    /**
+     * 在zrok执行器上异步调用，失败且可重试时按指数退避加随机抖动重试，整体受asyncTimeout限制
+     */
+    private <T> CompletableFuture<T> callAsync(String endpoint, Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(endpoint, call, 0, result);
+        return result.orTimeout(apiConfig.getAsyncTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    private <T> void attemptAsync(String endpoint, Supplier<T> call, int attempt, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            // 已超时，不再发起新的尝试
+            return;
         }
-        return null;
+        
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(call, zrokExecutor);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new ZrokApiException(endpoint, "zrok调用队列已满", false, e));
+            return;
+        }
+        
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (attempt < apiConfig.getMaxRetries() && cause instanceof ZrokApiException zrokError
+                    && zrokError.isRetryable()) {
+                long delay = retryDelay(attempt);
+                log.warn("zrok调用失败，{}ms后进行第{}次重试: {} - {}", delay, attempt + 1, endpoint, cause.getMessage());
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                        .execute(() -> attemptAsync(endpoint, call, attempt + 1, result));
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+    
+    /**
+     * 计算重试等待时间：基准时间按2的幂次增长，在[base/2, base]之间随机抖动，避免重试同时打到zrok
+     */
+    private long retryDelay(int attempt) {
+        long base = apiConfig.getRetryBackoff().toMillis() << attempt;
+        return ThreadLocalRandom.current().nextLong(base / 2, base + 1);
     }
     
     /**
@@ -0,0 +1,46 @@
+package io.github.charlie237.taiyi.util;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * 异步批处理工具
+ */
+public final class AsyncBatch {
+    
+    private AsyncBatch() {
+    }
+    
+    /**
+     * 以有限并发对每个元素执行异步操作，全部执行完后完成
+     * 每条通道依次处理队列中的下一项，通道数即最大并发数；单项失败不影响其他项，失败需由操作自行处理
+     */
+    public static <T> CompletableFuture<Void> forEach(Collection<T> items, int concurrency,
+                                                      Function<T, CompletableFuture<?>> action) {
+        Queue<T> pending = new ConcurrentLinkedQueue<>(items);
+        int lanes = Math.min(Math.max(concurrency, 1), pending.size());
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[lanes];
+        for (int i = 0; i < lanes; i++) {
+            futures[i] = drain(pending, action);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+    
+    private static <T> CompletableFuture<Void> drain(Queue<T> pending, Function<T, CompletableFuture<?>> action) {
+        T item = pending.poll();
+        if (item == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<?> future;
+        try {
+            future = action.apply(item);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.handle((result, error) -> (Void) null)
+                .thenCompose(v -> drain(pending, action));
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.charlie237.taiyi.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 简单的熔断器实现
+ * 连续失败达到阈值后熔断，熔断期结束后放行一个探测请求，探测成功则恢复
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMs;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final AtomicLong openedAt = new AtomicLong(0);
+
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMs) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+    }
+
+    /**
+     * 尝试获取调用许可
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.currentTimeMillis() - openedAt.get() >= openDurationMs) {
+            // 熔断期结束，只放行一个探测请求
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    /**
+     * 记录调用成功
+     */
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("熔断器[{}]已恢复", name);
+        }
+    }
+
+    /**
+     * 记录调用失败
+     */
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            // 先记录熔断时间再切换状态，避免其他线程读到旧的熔断时间
+            openedAt.set(System.currentTimeMillis());
+            if (state.compareAndSet(current, State.OPEN)) {
+                log.warn("熔断器[{}]已打开，连续失败次数: {}", name, failures);
+            }
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+}
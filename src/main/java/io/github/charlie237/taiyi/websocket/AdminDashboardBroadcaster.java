@@ -0,0 +1,251 @@
+package io.github.charlie237.taiyi.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.charlie237.taiyi.common.Constants;
+import io.github.charlie237.taiyi.event.AlertEvent;
+import io.github.charlie237.taiyi.event.NodeDeletedEvent;
+import io.github.charlie237.taiyi.event.NodeMetricsEvent;
+import io.github.charlie237.taiyi.event.NodeStatusEvent;
+import io.github.charlie237.taiyi.service.DashboardCounters;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 管理端实时面板推送
+ * 节点上下线、节点最新硬件指标、告警事件先在内存中合并，按固定节奏（taiyi.monitoring.dashboard-push-interval）
+ * 生成一条增量消息，序列化一次后发给所有在线面板；同一节点在一个周期内多次变化只推送最新值。
+ * 计数器只在变化时推送。新连接先收到一份全量快照，之后只接收增量。
+ * 快照和增量中的nodes、metrics均以节点主键为键，与管理接口/nodes/{id}一致。
+ * 发送经过带缓冲上限的会话包装，慢客户端超限会被断开，重连后重新拿到快照，不会拖慢其他面板；
+ * 每个面板的发送作为独立任务交给websocketExecutor，推送线程不做网络IO
+ */
+@Slf4j
+@Component
+public class AdminDashboardBroadcaster {
+
+    // 单个周期最多推送的告警数，超出部分只推送丢弃数量
+    private static final int MAX_ALERTS_PER_PUSH = 50;
+    // 快照中保留的最近告警数
+    private static final int RECENT_ALERTS = 20;
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int BUFFER_SIZE_LIMIT = 512 * 1024;
+
+    private final DashboardCounters dashboardCounters;
+    private final ObjectMapper objectMapper;
+    private final Executor websocketExecutor;
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    // 待推送的增量，在lock内读写
+    private final Object lock = new Object();
+    private Map<Long, String> pendingNodeStatus = new HashMap<>();
+    private Map<Long, NodeMetricsEvent> pendingMetrics = new HashMap<>();
+    private List<AlertEvent> pendingAlerts = new ArrayList<>();
+    private int droppedAlerts;
+
+    // 快照用的最新状态
+    private final Map<Long, NodeMetricsEvent> latestMetrics = new ConcurrentHashMap<>();
+    private final Deque<AlertEvent> recentAlerts = new ArrayDeque<>();
+
+    // 上次推送的计数器，只在推送线程中访问
+    private Map<String, Long> lastCounters = Map.of();
+
+    public AdminDashboardBroadcaster(DashboardCounters dashboardCounters,
+                                     ObjectMapper objectMapper,
+                                     @Qualifier("websocketExecutor") Executor websocketExecutor) {
+        this.dashboardCounters = dashboardCounters;
+        this.objectMapper = objectMapper;
+        this.websocketExecutor = websocketExecutor;
+    }
+
+    /**
+     * 注册面板连接并发送全量快照
+     */
+    public void register(WebSocketSession session) {
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, BUFFER_SIZE_LIMIT);
+        sessions.put(session.getId(), decorated);
+        send(decorated, createMessage(Constants.MessageType.DASHBOARD_SNAPSHOT, "面板快照", snapshot()));
+    }
+
+    /**
+     * 移除面板连接
+     */
+    public void unregister(WebSocketSession session) {
+        sessions.remove(session.getId());
+    }
+
+    /**
+     * 在线面板数量
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNodeStatus(NodeStatusEvent event) {
+        synchronized (lock) {
+            pendingNodeStatus.put(event.nodeId(), event.status().name());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNodeDeleted(NodeDeletedEvent event) {
+        latestMetrics.remove(event.nodeId());
+        synchronized (lock) {
+            pendingNodeStatus.put(event.nodeId(), "DELETED");
+            pendingMetrics.remove(event.nodeId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNodeMetrics(NodeMetricsEvent event) {
+        latestMetrics.put(event.id(), event);
+        synchronized (lock) {
+            pendingMetrics.put(event.id(), event);
+        }
+    }
+
+    @EventListener
+    public void onAlert(AlertEvent event) {
+        synchronized (lock) {
+            if (pendingAlerts.size() < MAX_ALERTS_PER_PUSH) {
+                pendingAlerts.add(event);
+            } else {
+                droppedAlerts++;
+            }
+            recentAlerts.addLast(event);
+            if (recentAlerts.size() > RECENT_ALERTS) {
+                recentAlerts.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * 合并本周期的增量并推送，没有在线面板或没有变化时不推送
+     */
+    @Scheduled(fixedDelayString = "${taiyi.monitoring.dashboard-push-interval:PT1S}")
+    public void flush() {
+        Map<Long, String> nodes;
+        Map<Long, NodeMetricsEvent> metrics;
+        List<AlertEvent> alerts;
+        int dropped;
+        synchronized (lock) {
+            nodes = pendingNodeStatus;
+            metrics = pendingMetrics;
+            alerts = pendingAlerts;
+            dropped = droppedAlerts;
+            pendingNodeStatus = new HashMap<>();
+            pendingMetrics = new HashMap<>();
+            pendingAlerts = new ArrayList<>();
+            droppedAlerts = 0;
+        }
+        if (sessions.isEmpty()) {
+            // 没有观众时直接丢弃增量，新连接会拿到快照
+            return;
+        }
+
+        Map<String, Long> counters = counters();
+        boolean countersChanged = !counters.equals(lastCounters);
+        if (nodes.isEmpty() && metrics.isEmpty() && alerts.isEmpty() && !countersChanged) {
+            return;
+        }
+        lastCounters = counters;
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        if (countersChanged) {
+            data.put("counters", counters);
+        }
+        if (!nodes.isEmpty()) {
+            data.put("nodes", nodes);
+        }
+        if (!metrics.isEmpty()) {
+            data.put("metrics", metrics);
+        }
+        if (!alerts.isEmpty()) {
+            data.put("alerts", alerts);
+        }
+        if (dropped > 0) {
+            data.put("droppedAlerts", dropped);
+        }
+
+        String message = createMessage(Constants.MessageType.DASHBOARD_DELTA, "面板增量", data);
+        sessions.values().forEach(session -> {
+            try {
+                websocketExecutor.execute(() -> send(session, message));
+            } catch (RejectedExecutionException e) {
+                // 本周期跳过该面板，下个周期的增量仍会送达；漏掉的节点状态需重连拿快照补齐
+                log.debug("广播执行器繁忙，跳过面板: {}", session.getId());
+            }
+        });
+    }
+
+    private Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("counters", counters());
+        data.put("nodes", dashboardCounters.nodeStatuses());
+        data.put("metrics", Map.copyOf(latestMetrics));
+        synchronized (lock) {
+            data.put("alerts", List.copyOf(recentAlerts));
+        }
+        return data;
+    }
+
+    private Map<String, Long> counters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("totalUsers", dashboardCounters.totalUsers());
+        counters.put("activeUsers", dashboardCounters.activeUsers());
+        counters.put("totalNodes", dashboardCounters.totalNodes());
+        counters.put("onlineNodes", dashboardCounters.onlineNodes());
+        counters.put("totalRoutes", dashboardCounters.totalRoutes());
+        counters.put("activeRoutes", dashboardCounters.activeRoutes());
+        counters.put("dashboards", (long) sessions.size());
+        return counters;
+    }
+
+    private void send(WebSocketSession session, String message) {
+        if (!session.isOpen()) {
+            sessions.remove(session.getId());
+            return;
+        }
+        try {
+            session.sendMessage(new TextMessage(message));
+        } catch (Exception e) {
+            // 发送超时或缓冲超限时装饰器会关闭连接
+            log.debug("面板推送失败，移除连接: {} - {}", session.getId(), e.getMessage());
+            sessions.remove(session.getId());
+        }
+    }
+
+    private String createMessage(String type, String message, Object data) {
+        try {
+            Map<String, Object> messageMap = Map.of(
+                    "type", type,
+                    "message", message,
+                    "data", data,
+                    "timestamp", System.currentTimeMillis()
+            );
+            return objectMapper.writeValueAsString(messageMap);
+        } catch (Exception e) {
+            log.error("创建面板消息失败: {}", e.getMessage());
+            return "{}";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.charlie237.taiyi.websocket;
+
+import io.github.charlie237.taiyi.security.JwtTokenProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * 管理端WebSocket握手鉴权
+ * 浏览器WebSocket无法设置请求头，JWT优先从查询参数token读取，其次读取Authorization头；只允许管理员连接
+ */
+@Slf4j
+@Component
+public class AdminHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USERNAME_ATTRIBUTE = "username";
+
+    private final JwtTokenProvider tokenProvider;
+    private final UserDetailsService userDetailsService;
+
+    public AdminHandshakeInterceptor(JwtTokenProvider tokenProvider, @Lazy UserDetailsService userDetailsService) {
+        this.tokenProvider = tokenProvider;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = getToken(request);
+        if (token == null || !tokenProvider.validateToken(token)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(tokenProvider.getUsernameFromToken(token));
+            boolean admin = user.getAuthorities().stream()
+                    .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+            if (!admin || !user.isEnabled()) {
+                response.setStatusCode(HttpStatus.FORBIDDEN);
+                return false;
+            }
+            attributes.put(USERNAME_ATTRIBUTE, user.getUsername());
+            return true;
+        } catch (Exception e) {
+            log.warn("管理端WebSocket鉴权失败: {}", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String getToken(ServerHttpRequest request) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        if (StringUtils.hasText(token)) {
+            return token;
+        }
+        String bearer = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(bearer) && bearer.startsWith("Bearer ")) {
+            return bearer.substring(7);
+        }
+        return null;
+    }
+}
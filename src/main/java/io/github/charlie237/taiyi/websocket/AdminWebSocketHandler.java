@@ -0,0 +1,48 @@
+package io.github.charlie237.taiyi.websocket;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.*;
+
+/**
+ * 管理端WebSocket处理器
+ * 只负责连接管理，推送内容由{@link AdminDashboardBroadcaster}统一生成
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdminWebSocketHandler implements WebSocketHandler {
+
+    private final AdminDashboardBroadcaster broadcaster;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        log.info("管理端面板连接建立: {} - {}", session.getId(),
+                session.getAttributes().get(AdminHandshakeInterceptor.USERNAME_ATTRIBUTE));
+        broadcaster.register(session);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        // 面板只接收推送，忽略客户端消息
+        log.debug("忽略管理端消息: {}", session.getId());
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        log.warn("管理端面板传输错误: {} - {}", session.getId(), exception.getMessage());
+        broadcaster.unregister(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        log.info("管理端面板连接关闭: {} - {}", session.getId(), closeStatus);
+        broadcaster.unregister(session);
+    }
+
+    @Override
+    public boolean supportsPartialMessages() {
+        return false;
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.charlie237.taiyi.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按节点串行的上报队列
+ * 节点ID散列到固定数量的分段，每个分段同一时刻最多占用执行器的一个线程，按提交顺序执行，
+ * 同一节点的心跳、状态上报和离线处理不会乱序或并发；不同分段之间并行。
+ * 分段积压超过上限或执行器拒绝时抛出RejectedExecutionException，由调用方丢弃该次上报
+ */
+@Slf4j
+class NodeIngestQueue {
+
+    static final int DEFAULT_STRIPES = 64;
+    static final int DEFAULT_MAX_PENDING = 256;
+
+    // 每次占用线程最多执行的任务数，执行完重新提交，避免一个繁忙分段长期占住线程
+    private static final int BATCH_SIZE = 32;
+
+    private final Executor executor;
+    private final int maxPending;
+    private final Stripe[] stripes;
+
+    NodeIngestQueue(Executor executor) {
+        this(executor, DEFAULT_STRIPES, DEFAULT_MAX_PENDING);
+    }
+
+    NodeIngestQueue(Executor executor, int stripes, int maxPending) {
+        this.executor = executor;
+        this.maxPending = maxPending;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 提交节点任务，排在该节点之前提交的任务之后执行
+     */
+    void execute(String nodeId, Runnable task) {
+        stripes[Math.floorMod(nodeId.hashCode(), stripes.length)].execute(task);
+    }
+
+    private final class Stripe implements Runnable {
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void execute(Runnable task) {
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                throw new RejectedExecutionException("节点上报积压超过上限: " + maxPending);
+            }
+            tasks.add(task);
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                if (tasks.remove(task)) {
+                    pending.decrementAndGet();
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    Runnable task = tasks.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    pending.decrementAndGet();
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        log.error("节点上报处理失败: {}", e.getMessage());
+                    }
+                }
+                scheduled.set(false);
+                if (tasks.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    executor.execute(this);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // 已在执行器线程上，执行器繁忙时继续在当前线程排空
+                }
+            }
+        }
+    }
+}
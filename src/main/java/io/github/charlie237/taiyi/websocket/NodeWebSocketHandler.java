@@ -5,29 +5,66 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.charlie237.taiyi.common.Constants;
 import io.github.charlie237.taiyi.service.NodeService;
 import io.github.charlie237.taiyi.service.NodeStatusService;
-import lombok.RequiredArgsConstructor;
+import io.github.charlie237.taiyi.service.RouteConfigPushService;
+import io.github.charlie237.taiyi.service.TrafficMeter;
+import io.micrometer.core.instrument.Counter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 节点WebSocket处理器
+ * WebSocket线程只负责解析消息，心跳、状态和硬件指标的入库交给ingestExecutor，
+ * 广播按会话拆分交给websocketExecutor；执行器繁忙时丢弃本次上报或消息，不回落到WebSocket线程执行。
+ * 同一节点的上报和离线处理经NodeIngestQueue按到达顺序串行执行；执行时会话已关闭或已被新连接替换的上报直接丢弃，
+ * 断开后才处理到的心跳不会把节点重新标记为在线。
+ * 会话经过带缓冲上限的包装，允许多个线程同时发送
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class NodeWebSocketHandler implements WebSocketHandler {
 
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int BUFFER_SIZE_LIMIT = 512 * 1024;
+    private static final TypeReference<Map<String, Object>> MESSAGE_TYPE = new TypeReference<>() {};
+
     private final NodeService nodeService;
     private final NodeStatusService nodeStatusService;
+    private final RouteConfigPushService routeConfigPushService;
+    private final TrafficMeter trafficMeter;
+    private final NodeIngestQueue ingestQueue;
+    private final Executor websocketExecutor;
+    private final Counter nodeConnectionCounter;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     // 存储节点连接
     private final Map<String, WebSocketSession> nodeSessions = new ConcurrentHashMap<>();
+
+    public NodeWebSocketHandler(NodeService nodeService,
+                                NodeStatusService nodeStatusService,
+                                RouteConfigPushService routeConfigPushService,
+                                TrafficMeter trafficMeter,
+                                @Qualifier("ingestExecutor") Executor ingestExecutor,
+                                @Qualifier("websocketExecutor") Executor websocketExecutor,
+                                @Qualifier("nodeConnectionCounter") Counter nodeConnectionCounter) {
+        this.nodeService = nodeService;
+        this.nodeStatusService = nodeStatusService;
+        this.routeConfigPushService = routeConfigPushService;
+        this.trafficMeter = trafficMeter;
+        this.ingestQueue = new NodeIngestQueue(ingestExecutor);
+        this.websocketExecutor = websocketExecutor;
+        this.nodeConnectionCounter = nodeConnectionCounter;
+    }
     
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
@@ -36,11 +73,20 @@ public class NodeWebSocketHandler implements WebSocketHandler {
         // 从查询参数中获取节点ID
         String nodeId = getNodeIdFromSession(session);
         if (nodeId != null) {
-            nodeSessions.put(nodeId, session);
+            WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, BUFFER_SIZE_LIMIT);
+            nodeSessions.put(nodeId, decorated);
+            nodeConnectionCounter.increment();
             log.info("节点连接成功: {}", nodeId);
             
             // 发送连接成功消息
-            sendMessage(session, createMessage(Constants.MessageType.INFO, "连接成功", null));
+            sendMessage(decorated, createMessage(Constants.MessageType.INFO, "连接成功", null));
+            
+            // 全量下发路由配置
+            try {
+                routeConfigPushService.onNodeConnected(nodeId);
+            } catch (Exception e) {
+                log.error("下发路由配置失败: {} - {}", nodeId, e.getMessage());
+            }
         } else {
             log.warn("无效的节点连接，缺少nodeId参数");
             session.close(CloseStatus.BAD_DATA);
@@ -55,21 +101,20 @@ public class NodeWebSocketHandler implements WebSocketHandler {
         }
         
         try {
-            String payload = message.getPayload().toString();
-            Map<String, Object> messageData = objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {});
+            Map<String, Object> messageData = decode(message.getPayload().toString());
             String messageType = (String) messageData.get("type");
             
             log.debug("收到节点消息: {} - {}", nodeId, messageType);
             
             switch (messageType) {
                 case Constants.MessageType.HEARTBEAT:
-                    handleHeartbeat(nodeId, messageData);
+                    ingest(session, nodeId, messageType, () -> handleHeartbeat(nodeId, messageData));
                     break;
                 case Constants.MessageType.STATUS_UPDATE:
-                    handleStatusUpdate(nodeId, messageData);
+                    ingest(session, nodeId, messageType, () -> handleStatusUpdate(nodeId, messageData));
                     break;
                 case "hardware_status":
-                    handleHardwareStatus(nodeId, messageData);
+                    ingest(session, nodeId, messageType, () -> handleHardwareStatus(nodeId, messageData));
                     break;
                 case "data_response":
                     handleDataResponse(nodeId, messageData);
@@ -77,13 +122,20 @@ public class NodeWebSocketHandler implements WebSocketHandler {
                 case "connection_response":
                     handleConnectionResponse(nodeId, messageData);
                     break;
+                case Constants.MessageType.ROUTE_CONFIG_ACK:
+                    routeConfigPushService.onAck(nodeId, getVersion(messageData));
+                    break;
+                case Constants.MessageType.ROUTE_CONFIG_RESYNC:
+                    routeConfigPushService.resync(nodeId, getVersion(messageData));
+                    break;
                 default:
                     log.warn("未知消息类型: {}", messageType);
             }
             
         } catch (Exception e) {
             log.error("处理WebSocket消息失败: {}", e.getMessage());
-            sendMessage(session, createMessage(Constants.MessageType.ERROR, "消息处理失败", null));
+            // 经由包装后的会话发送，避免与其他线程并发写同一连接
+            sendMessage(nodeSessions.getOrDefault(nodeId, session), createMessage(Constants.MessageType.ERROR, "消息处理失败", null));
         }
     }
     
@@ -93,13 +145,7 @@ public class NodeWebSocketHandler implements WebSocketHandler {
         log.error("WebSocket传输错误: {} - {}", nodeId, exception.getMessage());
         
         if (nodeId != null) {
-            nodeSessions.remove(nodeId);
-            // 标记节点离线
-            try {
-                nodeService.nodeOffline(nodeId);
-            } catch (Exception e) {
-                log.error("标记节点离线失败: {}", e.getMessage());
-            }
+            disconnected(session, nodeId);
         }
     }
     
@@ -109,19 +155,65 @@ public class NodeWebSocketHandler implements WebSocketHandler {
         log.info("WebSocket连接关闭: {} - {}", nodeId, closeStatus);
         
         if (nodeId != null) {
-            nodeSessions.remove(nodeId);
-            // 标记节点离线
+            disconnected(session, nodeId);
+        }
+    }
+    
+    @Override
+    public boolean supportsPartialMessages() {
+        return false;
+    }
+    
+    /**
+     * 会话断开
+     * 只处理节点当前的会话，旧连接在新连接建立之后才关闭时不影响新连接；
+     * 离线标记排在该节点已提交的上报之后执行，队列繁忙时在当前线程执行
+     */
+    private void disconnected(WebSocketSession session, String nodeId) {
+        WebSocketSession current = nodeSessions.get(nodeId);
+        if (current == null || WebSocketSessionDecorator.unwrap(current) != session
+                || !nodeSessions.remove(nodeId, current)) {
+            return;
+        }
+        trafficMeter.nodeDisconnected(nodeId);
+        routeConfigPushService.onNodeDisconnected(nodeId);
+        
+        // 标记节点离线
+        Runnable offline = () -> {
             try {
                 nodeService.nodeOffline(nodeId);
             } catch (Exception e) {
                 log.error("标记节点离线失败: {}", e.getMessage());
             }
+        };
+        try {
+            ingestQueue.execute(nodeId, offline);
+        } catch (RejectedExecutionException e) {
+            offline.run();
         }
     }
     
-    @Override
-    public boolean supportsPartialMessages() {
-        return false;
+    /**
+     * 提交节点上报到入库执行器，执行器繁忙时丢弃本次上报，节点下个周期会再次上报
+     * 执行时会话已关闭或已被新连接替换的上报不再处理
+     */
+    private void ingest(WebSocketSession session, String nodeId, String messageType, Runnable task) {
+        try {
+            ingestQueue.execute(nodeId, () -> {
+                if (!isCurrentSession(nodeId, session)) {
+                    log.debug("会话已断开，丢弃节点上报: {} - {}", nodeId, messageType);
+                    return;
+                }
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("入库执行器繁忙，丢弃节点上报: {} - {}", nodeId, messageType);
+        }
+    }
+    
+    private boolean isCurrentSession(String nodeId, WebSocketSession session) {
+        WebSocketSession current = nodeSessions.get(nodeId);
+        return current != null && WebSocketSessionDecorator.unwrap(current) == session && session.isOpen();
     }
     
     /**
@@ -141,24 +233,52 @@ public class NodeWebSocketHandler implements WebSocketHandler {
         }
     }
     
+    /**
+     * 读取路由配置确认/重新同步消息中的节点配置版本
+     */
+    private Long getVersion(Map<String, Object> messageData) {
+        Map<String, Object> data = (Map<String, Object>) messageData.get("data");
+        Object version = data != null ? data.get("version") : null;
+        return version instanceof Number number ? number.longValue() : null;
+    }
+    
     /**
      * 处理状态更新消息
+     * 字节数为自上次上报以来的增量；可选的routes列表按路由上报 {routeId, connections, bytesIn, bytesOut}，
+     * 不属于该节点的路由被忽略。只累加到流量计量器，由其定期批量入库
      */
     private void handleStatusUpdate(String nodeId, Map<String, Object> messageData) {
         try {
             Map<String, Object> data = (Map<String, Object>) messageData.get("data");
             if (data != null) {
-                Integer connections = (Integer) data.get("connections");
-                Long bytesIn = ((Number) data.get("bytesIn")).longValue();
-                Long bytesOut = ((Number) data.get("bytesOut")).longValue();
+                trafficMeter.recordNode(nodeId, getInt(data, "connections"),
+                        getLong(data, "bytesIn"), getLong(data, "bytesOut"));
 
-                nodeService.updateNodeStats(nodeId, connections, bytesIn, bytesOut);
+                List<Map<String, Object>> routes = (List<Map<String, Object>>) data.get("routes");
+                if (routes != null) {
+                    for (Map<String, Object> route : routes) {
+                        // 只接受已下发给该节点的路由，避免伪造的routeId计入其他节点的路由或无限增加计量对象
+                        if (route.get("routeId") instanceof Number routeId
+                                && routeConfigPushService.hasRoute(nodeId, routeId.longValue())) {
+                            trafficMeter.recordRoute(nodeId, routeId.longValue(), getInt(route, "connections"),
+                                    getLong(route, "bytesIn"), getLong(route, "bytesOut"));
+                        }
+                    }
+                }
             }
         } catch (Exception e) {
             log.error("处理状态更新失败: {}", e.getMessage());
         }
     }
 
+    private static int getInt(Map<String, Object> data, String key) {
+        return data.get(key) instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static long getLong(Map<String, Object> data, String key) {
+        return data.get(key) instanceof Number number ? number.longValue() : 0L;
+    }
+
     /**
      * 处理硬件状态消息
      */
@@ -194,12 +314,18 @@ public class NodeWebSocketHandler implements WebSocketHandler {
     
     /**
      * 广播消息到所有在线节点
+     * 消息只序列化一次，每个会话的发送作为独立任务执行，慢节点不影响其他节点
      */
     public void broadcastMessage(String messageType, String message, Object data) {
         String messageJson = createMessage(messageType, message, data);
-        nodeSessions.values().forEach(session -> {
-            if (session.isOpen()) {
-                sendMessage(session, messageJson);
+        nodeSessions.forEach((nodeId, session) -> {
+            if (!session.isOpen()) {
+                return;
+            }
+            try {
+                websocketExecutor.execute(() -> sendMessage(session, messageJson));
+            } catch (RejectedExecutionException e) {
+                log.warn("广播执行器繁忙，跳过节点: {} - {}", nodeId, messageType);
             }
         });
     }
@@ -215,10 +341,17 @@ public class NodeWebSocketHandler implements WebSocketHandler {
         }
     }
     
+    /**
+     * 解析节点消息
+     */
+    Map<String, Object> decode(String payload) throws IOException {
+        return objectMapper.readValue(payload, MESSAGE_TYPE);
+    }
+    
     /**
      * 创建消息
      */
-    private String createMessage(String type, String message, Object data) {
+    String createMessage(String type, String message, Object data) {
         try {
             Map<String, Object> messageMap = Map.of(
                     "type", type,
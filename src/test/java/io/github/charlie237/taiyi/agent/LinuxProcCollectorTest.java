@@ -0,0 +1,131 @@
+package io.github.charlie237.taiyi.agent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * /proc采集器测试，使用临时目录模拟/proc
+ */
+class LinuxProcCollectorTest {
+
+    private static final String NET_DEV_HEADER = """
+            Inter-|   Receive                                                |  Transmit
+             face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets errs drop fifo colls carrier compressed
+            """;
+
+    @TempDir
+    Path proc;
+
+    private LinuxProcCollector collector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(proc.resolve("net"));
+        collector = new LinuxProcCollector(proc);
+    }
+
+    @Test
+    void testCpuUsageFromDeltas() throws IOException {
+        // 首次采样为开机以来的平均值：总计1000，空闲700+100
+        write("stat", "cpu  100 0 100 700 100 0 0 0 0 0\ncpu0 100 0 100 700 100 0 0 0 0 0\nintr 1 2 3\n");
+        assertEquals(20.0, collector.cpuUsage(), 0.001);
+
+        // 两次采样之间总计增加200，其中空闲50
+        write("stat", "cpu  200 0 150 740 110 0 0 0 0 0\n");
+        assertEquals(75.0, collector.cpuUsage(), 0.001);
+
+        // 没有新的时间片时不除以0
+        assertEquals(0.0, collector.cpuUsage(), 0.001);
+    }
+
+    @Test
+    void testMemory() throws IOException {
+        write("meminfo", """
+                MemTotal:        8000000 kB
+                MemFree:         1000000 kB
+                MemAvailable:    6000000 kB
+                Buffers:          200000 kB
+                Cached:          3000000 kB
+                """);
+        LinuxProcCollector.Memory memory = collector.memory();
+        assertEquals(8_000_000L * 1024, memory.total());
+        assertEquals(6_000_000L * 1024, memory.available());
+        assertEquals(25.0, memory.usage(), 0.001);
+
+        // 旧内核没有MemAvailable
+        write("meminfo", "MemTotal: 8000000 kB\nMemFree: 1000000 kB\nBuffers: 200000 kB\nCached: 3000000 kB\n");
+        assertEquals(4_200_000L * 1024, collector.memory().available());
+    }
+
+    @Test
+    void testLoadAverage() throws IOException {
+        write("loadavg", "0.52 1.05 12.00 2/389 12345\n");
+        assertArrayEquals(new double[]{0.52, 1.05, 12.0}, collector.loadAverage(), 0.0001);
+    }
+
+    @Test
+    void testNetworkCountersAndRates() throws Exception {
+        write("net/dev", NET_DEV_HEADER
+                + "    lo: 5000      50    0    0    0     0          0         0     5000      50    0    0    0     0       0          0\n"
+                + "  eth0:1000      10    0    0    0     0          0         0     2000      20    0    0    0     0       0          0\n"
+                + "  wg0: 300       3    0    0    0     0          0         0      400       4    0    0    0     0       0          0\n");
+        List<LinuxProcCollector.InterfaceStats> first = new ArrayList<>(collector.network());
+        assertEquals(List.of("lo", "eth0", "wg0"), first.stream().map(LinuxProcCollector.InterfaceStats::getName).toList());
+        LinuxProcCollector.InterfaceStats eth0 = first.get(1);
+        assertEquals(1000, eth0.getRxBytes());
+        assertEquals(10, eth0.getRxPackets());
+        assertEquals(2000, eth0.getTxBytes());
+        assertEquals(20, eth0.getTxPackets());
+        assertEquals(0, eth0.getRxRate());
+        assertTrue(first.get(0).isLoopback());
+
+        // 第二次采样得到速率，wg0消失后被移除，统计对象复用
+        Thread.sleep(100);
+        write("net/dev", NET_DEV_HEADER
+                + "    lo: 5000      50    0    0    0     0          0         0     5000      50    0    0    0     0       0          0\n"
+                + "  eth0:1000000   1000    0    0    0     0          0         0  2000000    2000    0    0    0     0       0          0\n");
+        List<LinuxProcCollector.InterfaceStats> second = new ArrayList<>(collector.network());
+        assertEquals(2, second.size());
+        assertSame(eth0, second.get(1));
+        assertEquals(1_000_000, eth0.getRxBytes());
+        assertTrue(eth0.getRxRate() > 0);
+        assertTrue(eth0.getTxRate() > eth0.getRxRate());
+    }
+
+    @Test
+    void testProcessRunning() throws IOException {
+        write("1/comm", "systemd\n");
+        write("4242/comm", "zrok\n");
+        write("self/comm", "zrok\n");
+        assertTrue(collector.isProcessRunning("zrok"));
+        assertFalse(collector.isProcessRunning("zro"));
+
+        Files.delete(proc.resolve("4242/comm"));
+        assertFalse(collector.isProcessRunning("zrok"));
+    }
+
+    @Test
+    void testLargeFileGrowsBuffer() throws IOException {
+        StringBuilder stat = new StringBuilder("cpu  100 0 100 700 100 0 0 0 0 0\n");
+        for (int i = 0; i < 2000; i++) {
+            stat.append("cpu").append(i).append(" 1 2 3 4 5 6 7 8 9 10\n");
+        }
+        write("stat", stat.toString());
+        assertEquals(20.0, collector.cpuUsage(), 0.001);
+    }
+
+    private void write(String file, String content) throws IOException {
+        Path path = proc.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.charlie237.taiyi.filter;
+
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.service.AuditLogService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 请求计时与审计过滤器测试
+ * 排除规则按处理器的URI模板匹配，使用默认配置
+ */
+class RequestTimingFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditLogService auditLogService;
+    private RequestTimingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        auditLogService = mock(AuditLogService.class);
+        filter = new RequestTimingFilter(Timer.builder("taiyi.api.request.duration").withRegistry(meterRegistry),
+                auditLogService, new TaiyiProperties());
+    }
+
+    @Test
+    void testExcludedPatternsAreNotAudited() throws Exception {
+        perform("POST", "/nodes/{nodeId}/heartbeat");
+        perform("POST", "/auth/login");
+        perform("POST", "/api/node-monitoring/{nodeId}/status");
+
+        verify(auditLogService, never()).logRequest(any(), any(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void testWritesOutsideExcludedPatternsAreAudited() throws Exception {
+        perform("POST", "/nodes/{nodeId}/online");
+        perform("DELETE", "/nodes/{id}");
+
+        verify(auditLogService).logRequest(any(), eq("/nodes/{nodeId}/online"), eq(200), anyLong(), isNull());
+        verify(auditLogService).logRequest(any(), eq("/nodes/{id}"), eq(200), anyLong(), isNull());
+    }
+
+    @Test
+    void testReadsAreTimedButNotAudited() throws Exception {
+        perform("GET", "/nodes/{id}");
+
+        verify(auditLogService, never()).logRequest(any(), any(), anyInt(), anyLong(), any());
+        assertEquals(1, meterRegistry.get("taiyi.api.request.duration")
+                .tag("method", "GET").tag("uri", "/nodes/{id}").timer().count());
+    }
+
+    private void perform(String method, String pattern) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
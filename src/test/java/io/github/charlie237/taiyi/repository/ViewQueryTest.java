@@ -0,0 +1,134 @@
+package io.github.charlie237.taiyi.repository;
+
+import io.github.charlie237.taiyi.dto.ApiTokenView;
+import io.github.charlie237.taiyi.dto.CursorPage;
+import io.github.charlie237.taiyi.dto.NodeView;
+import io.github.charlie237.taiyi.dto.RouteView;
+import io.github.charlie237.taiyi.entity.ApiToken;
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.entity.Route;
+import io.github.charlie237.taiyi.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 视图查询测试
+ * 通过Hibernate统计校验列表接口的SQL条数，关联字段不应触发额外查询
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ViewQueryTest {
+
+    private static final int ROWS = 100;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private ApiTokenRepository apiTokenRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // 准备数据：每个用户一个节点和一个Token，每个节点一条路由
+        for (int i = 0; i < ROWS; i++) {
+            User user = new User();
+            user.setUsername("view-user-" + i);
+            user.setPassword("password");
+            user.setEmail("view-user-" + i + "@example.com");
+            entityManager.persist(user);
+
+            Node node = new Node();
+            node.setNodeId("view-node-" + i);
+            node.setName("节点" + i);
+            node.setUser(user);
+            entityManager.persist(node);
+
+            Route route = new Route();
+            route.setName("路由" + i);
+            route.setNode(node);
+            route.setLocalIp("127.0.0.1");
+            route.setLocalPort(8000 + i);
+            route.setRemotePort(20000 + i);
+            entityManager.persist(route);
+
+            ApiToken token = new ApiToken();
+            token.setUser(user);
+            token.setToken("view-token-" + i);
+            token.setTokenSecret("secret");
+            token.setTokenName("Token" + i);
+            entityManager.persist(token);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testCursorPagesUseSingleStatement() {
+        Slice<NodeView> nodes = nodeRepository.findViewsByIdLessThan(CursorPage.afterId(null), CursorPage.limit(ROWS));
+        assertEquals(ROWS, nodes.getNumberOfElements());
+        assertTrue(nodes.getContent().stream().allMatch(node -> node.username() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        Slice<RouteView> routes = routeRepository.findViewsByIdLessThan(CursorPage.afterId(null), CursorPage.limit(ROWS));
+        assertEquals(ROWS, routes.getNumberOfElements());
+        assertTrue(routes.getContent().stream().allMatch(route -> route.nodeName() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        Slice<ApiTokenView> tokens = apiTokenRepository.findViewsByIdLessThan(CursorPage.afterId(null), CursorPage.limit(ROWS));
+        assertEquals(ROWS, tokens.getNumberOfElements());
+        assertTrue(tokens.getContent().stream().allMatch(token -> token.username() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testPageUsesContentAndCountStatements() {
+        // 分页接口额外执行一条COUNT，关联字段不产生N+1查询
+        Page<RouteView> routes = routeRepository.findAllViews(PageRequest.of(0, 50));
+        assertEquals(50, routes.getNumberOfElements());
+        assertEquals(ROWS, routes.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testDetailUsesSingleStatement() {
+        Long routeId = routeRepository.findViewsByIdLessThan(CursorPage.afterId(null), CursorPage.limit(1))
+                .getContent().get(0).id();
+        statistics.clear();
+
+        RouteView route = routeRepository.findViewById(routeId).orElseThrow();
+        assertNotNull(route.nodeId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
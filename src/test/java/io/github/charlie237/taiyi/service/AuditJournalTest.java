@@ -0,0 +1,108 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.entity.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 审计日志文件测试
+ */
+class AuditJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndRead() throws IOException {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE);
+        journal.open();
+        AuditLog auditLog = auditLog(1);
+        auditLog.setRequestParams(null);
+        auditLog.setResponseStatus(200);
+        journal.append(auditLog);
+
+        List<AuditLog> records = journal.read(10);
+        assertEquals(1, records.size());
+        AuditLog read = records.get(0);
+        assertEquals(auditLog.getUserId(), read.getUserId());
+        assertEquals("用户登录-1", read.getAction());
+        assertNull(read.getRequestParams());
+        assertEquals(200, read.getResponseStatus());
+        assertEquals(AuditLog.OperationType.LOGIN, read.getOperationType());
+        assertEquals(auditLog.getCreatedAt(), read.getCreatedAt());
+        assertTrue(journal.read(10).isEmpty());
+    }
+
+    @Test
+    void testRollAndResumeFromCheckpoint() throws IOException {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE);
+        journal.open();
+        // 足以滚动多个段
+        for (int i = 0; i < 100; i++) {
+            journal.append(auditLog(i));
+        }
+        assertTrue(segmentCount() > 2);
+
+        List<AuditLog> first = journal.read(30);
+        assertEquals(30, first.size());
+        journal.commit();
+        // 未提交的读取在重启后重新读出
+        assertEquals(20, journal.read(20).size());
+        journal.close();
+
+        AuditJournal reopened = new AuditJournal(directory, SEGMENT_SIZE);
+        reopened.open();
+        assertTrue(reopened.hasPending());
+        List<AuditLog> rest = reopened.read(1000);
+        assertEquals(70, rest.size());
+        assertEquals("用户登录-30", rest.get(0).getAction());
+        reopened.commit();
+
+        // 已入库的段被删除，只剩当前活动段
+        assertFalse(reopened.hasPending());
+        assertEquals(1, segmentCount());
+    }
+
+    @Test
+    void testRewindAfterFailedWrite() throws IOException {
+        AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE);
+        journal.open();
+        for (int i = 0; i < 5; i++) {
+            journal.append(auditLog(i));
+        }
+
+        assertEquals(5, journal.read(10).size());
+        journal.rewind();
+        assertEquals(5, journal.read(10).size());
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static AuditLog auditLog(int i) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setUserId((long) i);
+        auditLog.setUsername("user-" + i);
+        auditLog.setAction("用户登录-" + i);
+        auditLog.setResourceType("USER");
+        auditLog.setRequestParams("x".repeat(100));
+        auditLog.setOperationType(AuditLog.OperationType.LOGIN);
+        auditLog.setResult(AuditLog.OperationResult.SUCCESS);
+        auditLog.setCreatedAt(LocalDateTime.now());
+        return auditLog;
+    }
+}
@@ -0,0 +1,204 @@
+package io.github.charlie237.taiyi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.entity.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 审计日志批量写入器测试
+ * 队列满的场景不启动写入线程，直接填满队列后再提交
+ */
+class AuditLogWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    private Path spillFile;
+    private Path replayingFile;
+    private TaiyiProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    // 已写入数据库的记录（按action）
+    private List<String> written;
+
+    @BeforeEach
+    void setUp() {
+        spillFile = directory.resolve("audit-spill.log");
+        replayingFile = directory.resolve("audit-spill.log.replaying");
+
+        properties = new TaiyiProperties();
+        TaiyiProperties.Audit audit = properties.getAudit();
+        audit.setQueueCapacity(2);
+        audit.setBatchSize(2);
+        audit.setFlushInterval(Duration.ofMillis(50));
+        audit.setBlockTimeout(Duration.ofMillis(50));
+        audit.setSpillFile(spillFile.toString());
+
+        written = Collections.synchronizedList(new ArrayList<>());
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        succeedWrites();
+    }
+
+    @Test
+    void testBlockDropsAfterTimeoutWhenQueueIsFull() {
+        properties.getAudit().setOverflowPolicy(TaiyiProperties.Audit.OverflowPolicy.BLOCK);
+        AuditLogWriter writer = newWriter();
+
+        writer.submit(auditLog(1));
+        writer.submit(auditLog(2));
+        writer.submit(auditLog(3));
+
+        assertEquals(2, writer.getQueueSize());
+        assertEquals(1.0, dropped("overflow"));
+    }
+
+    @Test
+    void testDropOldestKeepsNewestRecords() throws Exception {
+        properties.getAudit().setOverflowPolicy(TaiyiProperties.Audit.OverflowPolicy.DROP_OLDEST);
+        AuditLogWriter writer = newWriter();
+
+        writer.submit(auditLog(1));
+        writer.submit(auditLog(2));
+        writer.submit(auditLog(3));
+        assertEquals(1.0, dropped("overflow"));
+
+        writer.start();
+        writer.stop();
+        assertEquals(List.of("操作-2", "操作-3"), written);
+    }
+
+    @Test
+    void testSpillAppendsToFileWhenQueueIsFull() throws Exception {
+        properties.getAudit().setOverflowPolicy(TaiyiProperties.Audit.OverflowPolicy.SPILL);
+        AuditLogWriter writer = newWriter();
+
+        writer.submit(auditLog(1));
+        writer.submit(auditLog(2));
+        writer.submit(auditLog(3));
+
+        assertEquals(2, writer.getQueueSize());
+        assertEquals(1.0, meterRegistry.get("taiyi.audit.spilled").counter().count());
+        List<String> lines = Files.readAllLines(spillFile);
+        assertEquals(1, lines.size());
+        assertEquals("操作-3", objectMapper.readValue(lines.get(0), AuditLog.class).getAction());
+    }
+
+    @Test
+    void testFailedBatchIsSpilledAndReplayedOnRestart() throws Exception {
+        properties.getAudit().setOverflowPolicy(TaiyiProperties.Audit.OverflowPolicy.SPILL);
+        failWrites();
+        AuditLogWriter writer = newWriter();
+        writer.start();
+        writer.submit(auditLog(1));
+        writer.submit(auditLog(2));
+        writer.stop();
+
+        assertEquals(2.0, meterRegistry.get("taiyi.audit.spilled").counter().count());
+        assertEquals(2, Files.readAllLines(spillFile).size());
+
+        // 回放失败：溢出文件改名为.replaying后保留，等待下次启动
+        AuditLogWriter failedReplay = newWriter();
+        failedReplay.start();
+        failedReplay.stop();
+        assertFalse(Files.exists(spillFile));
+        assertTrue(Files.exists(replayingFile));
+
+        // 数据库恢复后回放成功并删除文件
+        succeedWrites();
+        AuditLogWriter restarted = newWriter();
+        restarted.start();
+        restarted.stop();
+        assertEquals(List.of("操作-1", "操作-2"), written);
+        assertFalse(Files.exists(replayingFile));
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    void testFailedBatchIsDroppedWithoutSpill() throws Exception {
+        properties.getAudit().setOverflowPolicy(TaiyiProperties.Audit.OverflowPolicy.BLOCK);
+        failWrites();
+        AuditLogWriter writer = newWriter();
+        writer.start();
+        writer.submit(auditLog(1));
+        writer.submit(auditLog(2));
+        writer.stop();
+
+        assertEquals(2.0, dropped("write_error"));
+        assertEquals(0.0, dropped("overflow"));
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    void testStopDrainsQueue() throws Exception {
+        properties.getAudit().setQueueCapacity(100);
+        AuditLogWriter writer = newWriter();
+        for (int i = 1; i <= 5; i++) {
+            writer.submit(auditLog(i));
+        }
+
+        writer.start();
+        writer.stop();
+
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(5, written.size());
+        assertEquals(5.0, meterRegistry.get("taiyi.audit.written").counter().count());
+    }
+
+    private AuditLogWriter newWriter() {
+        meterRegistry = new SimpleMeterRegistry();
+        return new AuditLogWriter(jdbcTemplate, objectMapper, properties, meterRegistry);
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("taiyi.audit.dropped").tag("reason", reason).counter().count();
+    }
+
+    private void succeedWrites() {
+        doAnswer(invocation -> {
+            SqlParameterSource[] batchArgs = invocation.getArgument(1);
+            for (SqlParameterSource args : batchArgs) {
+                written.add((String) args.getValue("action"));
+            }
+            return new int[batchArgs.length];
+        }).when(jdbcTemplate).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    private void failWrites() {
+        doThrow(new DataAccessResourceFailureException("数据库不可用"))
+                .when(jdbcTemplate).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    private static AuditLog auditLog(int i) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setUserId((long) i);
+        auditLog.setUsername("user-" + i);
+        auditLog.setAction("操作-" + i);
+        auditLog.setResourceType("ROUTE");
+        auditLog.setOperationType(AuditLog.OperationType.CREATE);
+        auditLog.setResult(AuditLog.OperationResult.SUCCESS);
+        auditLog.setCreatedAt(LocalDateTime.now());
+        return auditLog;
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.repository.RouteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 端口分配器测试
+ */
+class PortAllocatorTest {
+
+    private RouteRepository routeRepository;
+    private PortAllocator portAllocator;
+
+    @BeforeEach
+    void setUp() {
+        routeRepository = mock(RouteRepository.class);
+        TaiyiProperties properties = new TaiyiProperties();
+        properties.getTunnel().getPortRange().setStart(10000);
+        properties.getTunnel().getPortRange().setEnd(10009);
+
+        // 节点1的10000和10002已被占用，30000在范围外；节点2占用10000
+        when(routeRepository.findAllNodeRemotePorts()).thenReturn(List.of(
+                new Object[]{1L, 10000}, new Object[]{1L, 10002},
+                new Object[]{1L, 30000}, new Object[]{2L, 10000}));
+        portAllocator = new PortAllocator(routeRepository, properties);
+        portAllocator.load();
+    }
+
+    @Test
+    void testAllocateSkipsUsedPorts() {
+        assertEquals(8, portAllocator.capacity(1L).getAvailable());
+        assertEquals(10001, portAllocator.allocate(1L));
+        assertEquals(10003, portAllocator.allocate(1L));
+        assertTrue(portAllocator.isAllocated(1L, 10001));
+    }
+
+    @Test
+    void testReleaseAndWrapAround() {
+        for (int i = 0; i < 8; i++) {
+            portAllocator.allocate(1L);
+        }
+        assertEquals(0, portAllocator.capacity(1L).getAvailable());
+        assertThrows(RuntimeException.class, () -> portAllocator.allocate(1L));
+
+        // 释放后从范围开头回绕找到空闲端口
+        portAllocator.release(1L, 10002);
+        assertEquals(10002, portAllocator.allocate(1L));
+    }
+
+    @Test
+    void testReserve() {
+        assertFalse(portAllocator.reserve(1L, 10000));
+        assertTrue(portAllocator.reserve(1L, 10005));
+        assertFalse(portAllocator.reserve(1L, 10005));
+        // 范围外端口不由分配器管理
+        assertTrue(portAllocator.reserve(1L, 30001));
+    }
+
+    @Test
+    void testNodesHaveIndependentPools() {
+        assertEquals(10001, portAllocator.allocate(2L));
+        assertEquals(10001, portAllocator.allocate(1L));
+        // 新节点从范围开头分配
+        assertEquals(10000, portAllocator.allocate(3L));
+
+        assertEquals(8, portAllocator.capacity(2L).getAvailable());
+        assertEquals(10, portAllocator.capacity(4L).getAvailable());
+        assertEquals(3, portAllocator.capacities().size());
+    }
+
+    @Test
+    void testConcurrentAllocateReturnsDistinctPorts() throws InterruptedException {
+        Set<Integer> ports = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> ports.add(portAllocator.allocate(1L)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(8, ports.size());
+        assertFalse(ports.contains(10000));
+        assertFalse(ports.contains(10002));
+    }
+}
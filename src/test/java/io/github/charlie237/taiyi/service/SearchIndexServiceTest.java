@@ -0,0 +1,104 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.entity.User;
+import io.github.charlie237.taiyi.event.NodeChangeEvent;
+import io.github.charlie237.taiyi.event.UserChangeEvent;
+import io.github.charlie237.taiyi.repository.NodeRepository;
+import io.github.charlie237.taiyi.repository.RouteRepository;
+import io.github.charlie237.taiyi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 全文搜索索引测试
+ */
+class SearchIndexServiceTest {
+
+    private UserRepository userRepository;
+    private NodeRepository nodeRepository;
+    private SearchIndexService searchIndexService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userRepository = mock(UserRepository.class);
+        nodeRepository = mock(NodeRepository.class);
+        RouteRepository routeRepository = mock(RouteRepository.class);
+
+        when(nodeRepository.findAll()).thenReturn(List.of(
+                node(1L, "edge-shanghai-01", "上海机房节点", "浦东数据中心"),
+                node(2L, "edge-beijing-01", "北京机房节点", "亦庄数据中心")));
+        when(userRepository.findAll()).thenReturn(List.of());
+        when(routeRepository.findAll()).thenReturn(List.of());
+
+        searchIndexService = new SearchIndexService(userRepository, nodeRepository, routeRepository);
+        searchIndexService.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        searchIndexService.close();
+    }
+
+    @Test
+    void testChineseKeywordsMatchByBigram() {
+        // 中文按二元分词，词序无关，多个词为“且”关系
+        assertEquals(List.of(1L), search(SearchIndexService.Type.NODE, "上海"));
+        assertEquals(List.of(1L), search(SearchIndexService.Type.NODE, "浦东"));
+        assertEquals(List.of(1L), search(SearchIndexService.Type.NODE, "上海 机房"));
+        assertEquals(2, search(SearchIndexService.Type.NODE, "机房节点").size());
+        assertTrue(search(SearchIndexService.Type.NODE, "广州").isEmpty());
+
+        // 单个汉字按前缀匹配
+        assertEquals(List.of(2L), search(SearchIndexService.Type.NODE, "亦"));
+    }
+
+    @Test
+    void testEnglishKeywordsMatchExactPrefixAndFuzzy() {
+        assertEquals(List.of(1L), search(SearchIndexService.Type.NODE, "shanghai"));
+        assertEquals(List.of(2L), search(SearchIndexService.Type.NODE, "beij"));
+        assertEquals(List.of(2L), search(SearchIndexService.Type.NODE, "beijnig"));
+        // 类型之间互不混淆
+        assertTrue(search(SearchIndexService.Type.ROUTE, "shanghai").isEmpty());
+    }
+
+    @Test
+    void testChangeEventsUpdateIndex() {
+        User admin = new User();
+        admin.setId(10L);
+        admin.setUsername("admin");
+        admin.setRealName("系统管理员");
+        when(userRepository.findById(10L)).thenReturn(Optional.of(admin));
+        searchIndexService.onUserChange(new UserChangeEvent(10L, User.Status.ACTIVE));
+
+        Node renamed = node(1L, "edge-shanghai-01", "杭州机房节点", null);
+        when(nodeRepository.findById(1L)).thenReturn(Optional.of(renamed));
+        searchIndexService.onNodeChange(new NodeChangeEvent(1L));
+
+        searchIndexService.awaitRefresh();
+        assertEquals(List.of(10L), search(SearchIndexService.Type.USER, "管理员"));
+        assertEquals(List.of(1L), search(SearchIndexService.Type.NODE, "杭州"));
+        assertTrue(search(SearchIndexService.Type.NODE, "浦东").isEmpty());
+    }
+
+    private List<Long> search(SearchIndexService.Type type, String keyword) {
+        return searchIndexService.search(type, keyword, 10);
+    }
+
+    private static Node node(Long id, String nodeId, String name, String description) {
+        Node node = new Node();
+        node.setId(id);
+        node.setNodeId(nodeId);
+        node.setName(name);
+        node.setDescription(description);
+        return node;
+    }
+}
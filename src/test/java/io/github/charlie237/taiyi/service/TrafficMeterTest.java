@@ -0,0 +1,113 @@
+package io.github.charlie237.taiyi.service;
+
+import io.github.charlie237.taiyi.config.TaiyiProperties;
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.repository.NodeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+/**
+ * 流量计量测试
+ */
+class TrafficMeterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TrafficMeter trafficMeter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        NodeRepository nodeRepository = mock(NodeRepository.class);
+        when(nodeRepository.findProtocolByNodeId(anyString())).thenReturn(Optional.of(Node.Protocol.TCP));
+
+        TaiyiProperties properties = new TaiyiProperties();
+        properties.getMonitoring().setTrafficRateInterval(Duration.ofSeconds(1));
+        properties.getMonitoring().setTrafficTopK(2);
+        trafficMeter = new TrafficMeter(jdbcTemplate, nodeRepository,
+                Counter.builder("taiyi.data.transfer.bytes").withRegistry(meterRegistry),
+                properties, meterRegistry);
+    }
+
+    @Test
+    void testTopKSeriesAndOther() {
+        trafficMeter.recordNode("node-a", 3, 1000, 0);
+        trafficMeter.recordNode("node-b", 2, 500, 0);
+        trafficMeter.recordNode("node-c", 1, 100, 0);
+        trafficMeter.tick();
+
+        // 只有最繁忙的两个节点导出独立序列，其余合并到other
+        assertEquals(1000, throughput("node-a"));
+        assertEquals(500, throughput("node-b"));
+        assertNull(meterRegistry.find("taiyi.node.throughput").tag("node", "node-c").gauge());
+        assertEquals(100, throughput("other"));
+        assertEquals(6, trafficMeter.activeConnections());
+        assertEquals(3, trafficMeter.maxNodeConnections());
+
+        // 排名变化后跌出的节点序列被移除
+        trafficMeter.recordNode("node-c", 1, 100_000, 0);
+        trafficMeter.tick();
+        assertNotNull(meterRegistry.find("taiyi.node.throughput").tag("node", "node-c").gauge());
+        assertNull(meterRegistry.find("taiyi.node.throughput").tag("node", "node-b").gauge());
+    }
+
+    @Test
+    void testFlushAggregatesAndRetriesOnFailure() {
+        trafficMeter.recordNode("node-a", 3, 100, 10);
+        trafficMeter.recordNode("node-a", 4, 200, 20);
+        when(jdbcTemplate.batchUpdate(contains("server_nodes"), any(SqlParameterSource[].class)))
+                .thenThrow(new RuntimeException("数据库不可用"))
+                .thenReturn(new int[]{1});
+
+        trafficMeter.flush();
+        trafficMeter.flush();
+
+        // 两次上报合并成一条，失败后增量保留到下次写入
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate, times(2)).batchUpdate(contains("server_nodes"), batch.capture());
+        SqlParameterSource written = batch.getValue()[0];
+        assertEquals(300L, written.getValue("bytesIn"));
+        assertEquals(30L, written.getValue("bytesOut"));
+        assertEquals(4, written.getValue("connections"));
+
+        // 没有新上报时不再写入
+        trafficMeter.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(contains("server_nodes"), any(SqlParameterSource[].class));
+    }
+
+    @Test
+    void testNegativeDeltasAreIgnored() {
+        trafficMeter.recordNode("node-a", 1, 100, 10);
+        trafficMeter.recordNode("node-a", 2, -1_000_000, 0);
+        trafficMeter.recordRoute("node-a", 1L, 1, 0, -5);
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenReturn(new int[]{1});
+
+        trafficMeter.flush();
+
+        // 负的增量整条丢弃，不冲减累计值，也不建立路由计量对象
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(contains("server_nodes"), batch.capture());
+        assertEquals(100L, batch.getValue()[0].getValue("bytesIn"));
+        assertEquals(1, batch.getValue()[0].getValue("connections"));
+        verify(jdbcTemplate, never()).batchUpdate(contains("routes"), any(SqlParameterSource[].class));
+    }
+
+    private double throughput(String node) {
+        return meterRegistry.get("taiyi.node.throughput").tag("node", node).tag("direction", "in").gauge().value();
+    }
+}
@@ -46,7 +46,7 @@ class UserServiceTest {
         assertEquals(testUser.getEmail(), savedUser.getEmail());
         assertEquals(User.Role.USER, savedUser.getRole());
         assertEquals(User.Status.ACTIVE, savedUser.getStatus());
-        assertNotEquals(testUser.getPassword(), savedUser.getPassword()); // 密码应该被加密
+        assertNotEquals("password123", savedUser.getPassword()); // 密码应该被加密
     }
     
     @Test
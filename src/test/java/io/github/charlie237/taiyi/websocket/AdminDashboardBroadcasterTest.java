@@ -0,0 +1,96 @@
+package io.github.charlie237.taiyi.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.charlie237.taiyi.common.Constants;
+import io.github.charlie237.taiyi.entity.Node;
+import io.github.charlie237.taiyi.event.NodeDeletedEvent;
+import io.github.charlie237.taiyi.event.NodeMetricsEvent;
+import io.github.charlie237.taiyi.event.NodeStatusEvent;
+import io.github.charlie237.taiyi.service.DashboardCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 管理端实时面板推送测试
+ */
+class AdminDashboardBroadcasterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private DashboardCounters dashboardCounters;
+    private AdminDashboardBroadcaster broadcaster;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        dashboardCounters = mock(DashboardCounters.class);
+        when(dashboardCounters.nodeStatuses()).thenReturn(Map.of(1L, Node.Status.ONLINE, 2L, Node.Status.OFFLINE));
+        broadcaster = new AdminDashboardBroadcaster(dashboardCounters, objectMapper, Runnable::run);
+
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("dashboard-1");
+        when(session.isOpen()).thenReturn(true);
+    }
+
+    @Test
+    void testSnapshotAndDeltaAreKeyedByNodePrimaryKey() throws Exception {
+        broadcaster.onNodeMetrics(metrics(1L, "edge-1"));
+        broadcaster.register(session);
+
+        broadcaster.onNodeStatus(new NodeStatusEvent(2L, Node.Status.ONLINE));
+        broadcaster.onNodeMetrics(metrics(2L, "edge-2"));
+        broadcaster.flush();
+
+        List<JsonNode> messages = sentMessages(2);
+        JsonNode snapshot = messages.get(0);
+        assertEquals(Constants.MessageType.DASHBOARD_SNAPSHOT, snapshot.get("type").asText());
+        assertEquals("ONLINE", snapshot.at("/data/nodes/1").asText());
+        assertEquals("edge-1", snapshot.at("/data/metrics/1/nodeId").asText());
+
+        JsonNode delta = messages.get(1);
+        assertEquals(Constants.MessageType.DASHBOARD_DELTA, delta.get("type").asText());
+        assertEquals("ONLINE", delta.at("/data/nodes/2").asText());
+        assertEquals("edge-2", delta.at("/data/metrics/2/nodeId").asText());
+    }
+
+    @Test
+    void testDeletedNodeIsDroppedFromMetrics() throws Exception {
+        broadcaster.onNodeMetrics(metrics(1L, "edge-1"));
+        broadcaster.onNodeDeleted(new NodeDeletedEvent(1L));
+        broadcaster.register(session);
+        broadcaster.flush();
+
+        List<JsonNode> messages = sentMessages(2);
+        assertTrue(messages.get(0).at("/data/metrics/1").isMissingNode());
+        assertEquals("DELETED", messages.get(1).at("/data/nodes/1").asText());
+        assertTrue(messages.get(1).at("/data/metrics").isMissingNode());
+    }
+
+    private List<JsonNode> sentMessages(int count) throws Exception {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(count)).sendMessage(captor.capture());
+        return captor.getAllValues().stream()
+                .map(message -> {
+                    try {
+                        return objectMapper.readTree(message.getPayload());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+
+    private static NodeMetricsEvent metrics(Long id, String nodeId) {
+        return new NodeMetricsEvent(id, nodeId, 10.0, 20.0, 30.0, 5, 12, LocalDateTime.now());
+    }
+}
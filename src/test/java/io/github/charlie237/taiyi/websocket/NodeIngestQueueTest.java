@@ -0,0 +1,99 @@
+package io.github.charlie237.taiyi.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按节点串行的上报队列测试
+ */
+class NodeIngestQueueTest {
+
+    @Test
+    void testTasksOfSameNodeRunInOrderWithoutOverlap() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            NodeIngestQueue queue = new NodeIngestQueue(executor, 4, 10_000);
+            Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+            Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+            AtomicInteger overlaps = new AtomicInteger();
+            int nodes = 16;
+            int perNode = 500;
+            CountDownLatch done = new CountDownLatch(nodes * perNode);
+
+            for (int i = 0; i < perNode; i++) {
+                for (int n = 0; n < nodes; n++) {
+                    String nodeId = "node-" + n;
+                    int sequence = i;
+                    queue.execute(nodeId, () -> {
+                        if (running.computeIfAbsent(nodeId, k -> new AtomicInteger()).incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        seen.computeIfAbsent(nodeId, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+                        running.get(nodeId).decrementAndGet();
+                        done.countDown();
+                    });
+                }
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(0, overlaps.get());
+            for (int n = 0; n < nodes; n++) {
+                List<Integer> sequences = seen.get("node-" + n);
+                assertEquals(perNode, sequences.size());
+                for (int i = 0; i < perNode; i++) {
+                    assertEquals(i, sequences.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectsWhenStripeBacklogExceedsLimit() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            NodeIngestQueue queue = new NodeIngestQueue(executor, 1, 2);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            queue.execute("node-1", () -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            AtomicInteger ran = new AtomicInteger();
+            queue.execute("node-1", ran::incrementAndGet);
+            queue.execute("node-2", ran::incrementAndGet);
+            assertThrows(RejectedExecutionException.class, () -> queue.execute("node-1", ran::incrementAndGet));
+
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(2, ran.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}